@@ -10,4 +10,5 @@ public class Constants {
     public static final String AMPERSAND = "&";
     public static final String EQUALS = "=";
     public static final String GZIP = "gzip";
+    public static final String IDENTITY = "identity";
 }
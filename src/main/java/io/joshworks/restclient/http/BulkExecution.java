@@ -0,0 +1,227 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.http.exceptions.RestClientException;
+import io.joshworks.restclient.request.HttpRequest;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Runs a sequence of requests on the async client with at most a fixed number of requests outstanding,
+ * a request is outstanding from the time it is sent until its result is handed to the caller.
+ * Requests are pulled from the input only when a slot is free, so memory is bounded by the window, not the input.
+ */
+class BulkExecution<T> {
+
+    private final Iterator<? extends HttpRequest> requests;
+    private final Class<T> responseClass;
+    private final int window;
+    private final boolean ordered;
+    private final Map<Long, CompletableFuture<HttpResponse<T>>> inFlight = new ConcurrentHashMap<>();
+
+    //reordering buffer, used only when results are handed in input order
+    private final Map<Long, BulkResponse<T>> buffered = new HashMap<>();
+    private long nextIndex;
+    //results in completion order, used only when results are handed as they complete
+    private final Queue<BulkResponse<T>> completions = new ArrayDeque<>();
+
+    //used only when results are pushed to a consumer
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private Consumer<BulkResponse<T>> consumer;
+
+    private long submitted;
+    private int outstanding;
+    private boolean exhausted;
+    private volatile boolean closed;
+
+    BulkExecution(Iterable<? extends HttpRequest> requests, Class<T> responseClass, int window, boolean ordered) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("parallelism must be greater than zero");
+        }
+        this.requests = requests.iterator();
+        this.responseClass = responseClass;
+        this.window = window;
+        this.ordered = ordered;
+    }
+
+    /**
+     * Results are pulled by the stream consumer, a new request is sent each time a result is consumed
+     */
+    Stream<BulkResponse<T>> stream() {
+        BlockingQueue<BulkResponse<T>> completed = new LinkedBlockingQueue<>();
+        Spliterator<BulkResponse<T>> spliterator = new Spliterators.AbstractSpliterator<BulkResponse<T>>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super BulkResponse<T>> action) {
+                fill(completed::add);
+                BulkResponse<T> result;
+                try {
+                    while ((result = nextResult(completed)) == null) {
+                        if (outstanding == 0) {
+                            return false;
+                        }
+                        reorder(completed.take());
+                    }
+                } catch (InterruptedException e) {
+                    close();
+                    Thread.currentThread().interrupt();
+                    throw new RestClientException("Interrupted while waiting for bulk responses", e);
+                }
+                outstanding--;
+                action.accept(result);
+                return true;
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    /**
+     * Results are pushed to the consumer as they complete, one at a time
+     *
+     * @return A future completed once all the results were handed to the consumer
+     */
+    CompletableFuture<Void> forEach(Consumer<BulkResponse<T>> consumer) {
+        this.consumer = consumer;
+        done.whenComplete((result, error) -> {
+            if (error != null) {
+                close();
+            }
+        });
+        drain();
+        return done;
+    }
+
+    private void onComplete(BulkResponse<T> result) {
+        synchronized (this) {
+            reorder(result);
+            BulkResponse<T> next;
+            while ((next = nextResult(null)) != null) {
+                outstanding--;
+                if (closed) {
+                    continue;
+                }
+                try {
+                    consumer.accept(next);
+                } catch (RuntimeException e) {
+                    fail(e);
+                }
+            }
+        }
+        drain();
+    }
+
+    //sends requests from one thread at a time, requests completing while being sent do not recurse into fill
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            try {
+                fill(this::onComplete);
+            } catch (RuntimeException e) {
+                fail(e);
+            }
+            synchronized (this) {
+                if (outstanding == 0 && (exhausted || closed)) {
+                    done.complete(null);
+                }
+            }
+        } while (wip.decrementAndGet() != 0);
+    }
+
+    private void fail(Exception e) {
+        close();
+        done.completeExceptionally(e);
+    }
+
+    /**
+     * Cancels the requests in flight and stops sending new ones
+     */
+    void close() {
+        closed = true;
+        for (CompletableFuture<HttpResponse<T>> future : inFlight.values()) {
+            future.cancel(true);
+        }
+    }
+
+    private synchronized void fill(Consumer<BulkResponse<T>> onComplete) {
+        while (!closed && !exhausted && outstanding < window) {
+            if (!requests.hasNext()) {
+                exhausted = true;
+                return;
+            }
+            HttpRequest request = requests.next();
+            long index = submitted++;
+            outstanding++;
+            send(index, request, onComplete);
+        }
+    }
+
+    private void send(long index, HttpRequest request, Consumer<BulkResponse<T>> onComplete) {
+        CompletableFuture<HttpResponse<T>> future;
+        try {
+            future = request.asObjectAsync(responseClass);
+        } catch (Exception e) {
+            onComplete.accept(new BulkResponse<>(index, request, null, e));
+            return;
+        }
+        inFlight.put(index, future);
+        future.whenComplete((response, error) -> {
+            inFlight.remove(index);
+            onComplete.accept(new BulkResponse<>(index, request, response, unwrap(error)));
+        });
+    }
+
+    private synchronized void reorder(BulkResponse<T> result) {
+        if (result == null) {
+            return;
+        }
+        if (ordered) {
+            buffered.put(result.index, result);
+        } else {
+            completions.add(result);
+        }
+    }
+
+    /**
+     * @return The next result to hand to the caller, or null if it did not complete yet
+     */
+    private synchronized BulkResponse<T> nextResult(BlockingQueue<BulkResponse<T>> completed) {
+        if (completed != null) {
+            BulkResponse<T> result;
+            while ((result = completed.poll()) != null) {
+                reorder(result);
+            }
+        }
+        if (ordered) {
+            BulkResponse<T> result = buffered.remove(nextIndex);
+            if (result != null) {
+                nextIndex++;
+            }
+            return result;
+        }
+        return completions.poll();
+    }
+
+    private static Exception unwrap(Throwable error) {
+        if (error == null) {
+            return null;
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof Exception ? (Exception) cause : new RestClientException("Request failed", cause);
+    }
+}
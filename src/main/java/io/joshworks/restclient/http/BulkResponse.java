@@ -0,0 +1,45 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.request.HttpRequest;
+
+/**
+ * Outcome of a single request of a bulk execution, see {@link RestClient#executeAll(Iterable, int, Class, boolean)}
+ */
+public class BulkResponse<T> {
+
+    /**
+     * Position of the request in the input, starting from zero
+     */
+    public final long index;
+    public final HttpRequest request;
+
+    /**
+     * The response, null if the request failed
+     */
+    public final HttpResponse<T> response;
+
+    /**
+     * The failure, null if a response was received
+     */
+    public final Exception error;
+
+    BulkResponse(long index, HttpRequest request, HttpResponse<T> response, Exception error) {
+        this.index = index;
+        this.request = request;
+        this.response = response;
+        this.error = error;
+    }
+
+    public boolean failed() {
+        return error != null;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkResponse {" +
+                "INDEX=" + index +
+                ", STATUS=" + (response != null ? response.getStatus() : null) +
+                ", ERROR=" + error +
+                '}';
+    }
+}
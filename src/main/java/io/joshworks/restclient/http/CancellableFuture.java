@@ -0,0 +1,37 @@
+package io.joshworks.restclient.http;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * CompletableFuture that propagates cancellation to the future currently doing the work,
+ * ex: the async client request of the current attempt, so the connection is released instead of left running.
+ */
+class CancellableFuture<T> extends CompletableFuture<T> {
+
+    private volatile Future<?> upstream;
+
+    CancellableFuture() {
+    }
+
+    CancellableFuture(Future<?> upstream) {
+        this.upstream = upstream;
+    }
+
+    void upstream(Future<?> future) {
+        this.upstream = future;
+        if (isCancelled()) {
+            future.cancel(true);
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        Future<?> current = upstream;
+        if (current != null) {
+            current.cancel(mayInterruptIfRunning);
+        }
+        return cancelled;
+    }
+}
@@ -1,5 +1,19 @@
 package io.joshworks.restclient.http;
 
+import io.joshworks.restclient.http.balancer.LoadBalancerPolicy;
+import io.joshworks.restclient.http.circuit.CircuitBreakerPolicy;
+import io.joshworks.restclient.http.dns.CachingDnsResolver;
+import io.joshworks.restclient.http.dns.QuarantiningIOReactor;
+import io.joshworks.restclient.http.dns.QuarantiningSocketFactory;
+import io.joshworks.restclient.http.hedge.HedgePolicy;
+import io.joshworks.restclient.http.limit.ConcurrencyLimitPolicy;
+import io.joshworks.restclient.http.compress.CompressionPolicy;
+import io.joshworks.restclient.http.mapper.MapperRegistry;
+import io.joshworks.restclient.http.mapper.ObjectMapper;
+import io.joshworks.restclient.http.mapper.ObjectMappers;
+import io.joshworks.restclient.http.pipeline.PipelinePolicy;
+import io.joshworks.restclient.http.ratelimit.RateLimitPolicy;
+import io.joshworks.restclient.http.retry.RetryPolicy;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpRequestInterceptor;
 import org.apache.http.HttpResponseInterceptor;
@@ -8,7 +22,13 @@ import org.apache.http.auth.Credentials;
 import org.apache.http.client.CookieStore;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.DnsResolver;
 import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
@@ -16,11 +36,18 @@ import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.LaxRedirectStrategy;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.CloseableHttpPipeliningClient;
 import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
 import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
 import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
 
 import javax.net.ssl.SSLContext;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -33,6 +60,8 @@ public class ClientBuilder {
     private int maxTotal = 20;
     private int maxRoute = 2;
     private String baseUrl = "";
+    private List<String> baseUrls = new ArrayList<>();
+    private LoadBalancerPolicy loadBalancerPolicy = LoadBalancerPolicy.builder().build();
 
     private Function<String, String> urlTransformer = url -> url;
     private Map<String, Object> defaultHeaders = new HashMap<>();
@@ -42,6 +71,15 @@ public class ClientBuilder {
     private List<HttpResponseInterceptor> responseInterceptor = new LinkedList<>();
     private final CookieStore cookieStore = new BasicCookieStore();
     private SSLContext sslContext;
+    private RetryPolicy retryPolicy;
+    private HedgePolicy hedgePolicy;
+    private CircuitBreakerPolicy circuitBreakerPolicy;
+    private RateLimitPolicy rateLimitPolicy;
+    private ConcurrencyLimitPolicy concurrencyLimitPolicy;
+    private PipelinePolicy pipelinePolicy;
+    private CompressionPolicy compressionPolicy;
+    private MapperRegistry mappers = MapperRegistry.EMPTY;
+    private DnsResolver dnsResolver;
 
     ClientBuilder() {
 
@@ -52,18 +90,26 @@ public class ClientBuilder {
 
             RequestConfig clientConfig = configBuilder.build();
 
-            PoolingHttpClientConnectionManager syncConnectionManager = new PoolingHttpClientConnectionManager();
+            PoolingHttpClientConnectionManager syncConnectionManager = dnsResolver == null
+                    ? new PoolingHttpClientConnectionManager()
+                    : new PoolingHttpClientConnectionManager(socketFactoryRegistry(), dnsResolver);
             syncConnectionManager.setMaxTotal(maxTotal);
             syncConnectionManager.setDefaultMaxPerRoute(maxRoute);
             CloseableHttpClient syncClient = createSyncClient(clientConfig, syncConnectionManager);
 
-            DefaultConnectingIOReactor ioReactor = new DefaultConnectingIOReactor();
-            PoolingNHttpClientConnectionManager asyncConnectionManager = new PoolingNHttpClientConnectionManager(ioReactor);
+            DefaultConnectingIOReactor ioReactor = dnsResolver instanceof CachingDnsResolver
+                    ? new QuarantiningIOReactor((CachingDnsResolver) dnsResolver)
+                    : new DefaultConnectingIOReactor();
+            PoolingNHttpClientConnectionManager asyncConnectionManager = dnsResolver == null
+                    ? new PoolingNHttpClientConnectionManager(ioReactor)
+                    : new PoolingNHttpClientConnectionManager(ioReactor, null, ioSessionStrategyRegistry(), dnsResolver);
             asyncConnectionManager.setMaxTotal(maxTotal);
             asyncConnectionManager.setDefaultMaxPerRoute(maxRoute);
             CloseableHttpAsyncClient asyncClient = createAsyncClient(clientConfig, asyncConnectionManager);
+            //shares the connection manager, and the I/O reactor run by the async client
+            CloseableHttpPipeliningClient pipeliningClient = pipelinePolicy != null ? HttpAsyncClients.createPipelining(asyncConnectionManager, true) : null;
 
-            RestClient restClient = new RestClient(baseUrl, defaultHeaders, urlTransformer, asyncConnectionManager, syncConnectionManager, asyncClient, syncClient, cookieStore);
+            RestClient restClient = new RestClient(baseUrl, baseUrls, loadBalancerPolicy, defaultHeaders, urlTransformer, asyncConnectionManager, syncConnectionManager, ioReactor, asyncClient, syncClient, cookieStore, clientConfig, retryPolicy, hedgePolicy, circuitBreakerPolicy, rateLimitPolicy, concurrencyLimitPolicy, pipelinePolicy, pipeliningClient, compressionPolicy, mappers);
             ClientContainer.addClient(restClient);
             return restClient;
 
@@ -72,6 +118,27 @@ public class ClientBuilder {
         }
     }
 
+    //same as the connection manager defaults, with the addresses that fail to connect quarantined
+    private Registry<ConnectionSocketFactory> socketFactoryRegistry() {
+        ConnectionSocketFactory plain = PlainConnectionSocketFactory.getSocketFactory();
+        ConnectionSocketFactory ssl = SSLConnectionSocketFactory.getSocketFactory();
+        if (dnsResolver instanceof CachingDnsResolver) {
+            plain = new QuarantiningSocketFactory(plain, (CachingDnsResolver) dnsResolver);
+            ssl = new QuarantiningSocketFactory(ssl, (CachingDnsResolver) dnsResolver);
+        }
+        return RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", plain)
+                .register("https", ssl)
+                .build();
+    }
+
+    private static Registry<SchemeIOSessionStrategy> ioSessionStrategyRegistry() {
+        return RegistryBuilder.<SchemeIOSessionStrategy>create()
+                .register("http", NoopIOSessionStrategy.INSTANCE)
+                .register("https", SSLIOSessionStrategy.getDefaultStrategy())
+                .build();
+    }
+
     private CloseableHttpAsyncClient createAsyncClient(RequestConfig clientConfig, PoolingNHttpClientConnectionManager manager) {
         HttpAsyncClientBuilder asyncBuilder = HttpAsyncClientBuilder.create()
                 .setDefaultRequestConfig(clientConfig)
@@ -89,12 +156,17 @@ public class ClientBuilder {
                 .setDefaultCookieStore(cookieStore)
                 .setSSLContext(sslContext)
                 .setRedirectStrategy(new LaxRedirectStrategy())
+                //bodies are decoded by the response, the same way on the sync and async paths
+                .disableContentCompression()
                 .setDefaultCredentialsProvider(credentialsProvider)
                 .setConnectionManager(manager);
 
         if(sslContext != null) {
             syncBuilder.setSSLContext(sslContext);
         }
+        if (retryPolicy != null) {
+            syncBuilder.disableAutomaticRetries();
+        }
 
         return addInterceptors(syncBuilder).build();
     }
@@ -124,6 +196,29 @@ public class ClientBuilder {
         return this;
     }
 
+    /**
+     * Spreads requests across multiple base urls, the endpoint of each request is picked by the load balancer.
+     * Replaces the single base url.
+     *
+     * @param baseUrls The base urls, ex: http://host-1:8080/v1, http://host-2:8080/v1
+     */
+    public ClientBuilder baseUrls(String... baseUrls) {
+        this.baseUrls = new ArrayList<>(Arrays.asList(baseUrls));
+        return this;
+    }
+
+    /**
+     * @param loadBalancerPolicy How requests are spread across the base urls and when failing endpoints are ejected.
+     *                           Default is round robin, ejecting endpoints after 5 consecutive failures.
+     */
+    public ClientBuilder loadBalancer(LoadBalancerPolicy loadBalancerPolicy) {
+        if (loadBalancerPolicy == null) {
+            throw new IllegalArgumentException("loadBalancerPolicy must be provided");
+        }
+        this.loadBalancerPolicy = loadBalancerPolicy;
+        return this;
+    }
+
     public ClientBuilder defaultHeader(String key, String value) {
         this.defaultHeaders.put(key, value);
         return this;
@@ -211,4 +306,104 @@ public class ClientBuilder {
         return this;
     }
 
+    /**
+     * Retries failed requests, for both sync and async requests. Apache's default retry handler is disabled when a policy is set.
+     *
+     * @param retryPolicy The retry policy, or null to disable retries. Default is null.
+     */
+    public ClientBuilder retryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    /**
+     * Sends a second copy of slow idempotent requests. Hedged requests always run on the async client, sync requests
+     * wait for the first response.
+     *
+     * @param hedgePolicy The hedge policy, or null to disable hedging. Default is null.
+     */
+    public ClientBuilder hedgePolicy(HedgePolicy hedgePolicy) {
+        this.hedgePolicy = hedgePolicy;
+        return this;
+    }
+
+    /**
+     * Enables a circuit breaker per route. Requests to a route with an open circuit fail with
+     * CircuitBreakerOpenException without leasing a connection.
+     *
+     * @param circuitBreakerPolicy The circuit breaker policy, or null to disable circuit breakers. Default is null.
+     */
+    public ClientBuilder circuitBreaker(CircuitBreakerPolicy circuitBreakerPolicy) {
+        this.circuitBreakerPolicy = circuitBreakerPolicy;
+        return this;
+    }
+
+    /**
+     * Limits the rate of requests, per route or for the whole client. Sync requests block until a permit is available,
+     * async requests are delayed without blocking the caller.
+     *
+     * @param rateLimitPolicy The rate limit policy, or null to disable rate limiting. Default is null.
+     */
+    public ClientBuilder rateLimit(RateLimitPolicy rateLimitPolicy) {
+        this.rateLimitPolicy = rateLimitPolicy;
+        return this;
+    }
+
+    /**
+     * Enables an adaptive limit of in flight requests per route. Requests above the limit wait for a slot up to the
+     * queue timeout, and fail with ConcurrencyLimitExceededException otherwise, without leasing a connection.
+     *
+     * @param concurrencyLimitPolicy The concurrency limit policy, or null to disable concurrency limits. Default is null.
+     */
+    public ClientBuilder concurrencyLimit(ConcurrencyLimitPolicy concurrencyLimitPolicy) {
+        this.concurrencyLimitPolicy = concurrencyLimitPolicy;
+        return this;
+    }
+
+    /**
+     * Enables {@link RestClient#executePipelined}, which sends batches of requests to a route pipelined on a single
+     * connection. The server must support HTTP/1.1 pipelining.
+     *
+     * @param pipelinePolicy The pipeline policy, or null to disable pipelining. Default is null.
+     */
+    public ClientBuilder pipelining(PipelinePolicy pipelinePolicy) {
+        this.pipelinePolicy = pipelinePolicy;
+        return this;
+    }
+
+    /**
+     * Compresses request bodies above the policy threshold while they are sent, can be overridden per request with
+     * {@link io.joshworks.restclient.request.HttpRequestWithBody#compress(boolean)}.
+     *
+     * @param compressionPolicy The compression policy, or null to disable request compression. Default is null.
+     */
+    public ClientBuilder compression(CompressionPolicy compressionPolicy) {
+        this.compressionPolicy = compressionPolicy;
+        return this;
+    }
+
+    /**
+     * Registers a mapper for this client only, used for request and response bodies of the media type (or a compatible
+     * one) instead of the one registered in {@link ObjectMappers}. Media types without a mapper in the client use the
+     * global ones, ex: a tuned Gson for application/json while text/plain keeps the default mapper.
+     *
+     * @param mediaType The media type the mapper reads and writes
+     * @param mapper    The mapper, replaces the one previously registered in this builder for the media type
+     */
+    public ClientBuilder objectMapper(MediaType mediaType, ObjectMapper mapper) {
+        this.mappers = mappers.with(mediaType, mapper);
+        return this;
+    }
+
+    /**
+     * Resolver used by both the sync and async connection managers, ex: a {@link CachingDnsResolver}, which also
+     * quarantines the addresses that fail to connect.
+     *
+     * @param dnsResolver The resolver, or null to use the system resolver. Default is null.
+     */
+    public ClientBuilder dnsResolver(DnsResolver dnsResolver) {
+        this.dnsResolver = dnsResolver;
+        return this;
+    }
+
 }
@@ -0,0 +1,23 @@
+package io.joshworks.restclient.http;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a single client, exposed through {@link RestClient#stats()}
+ */
+class ClientMetrics {
+
+    final LongAdder retries = new LongAdder();
+    final LongAdder retriesRejected = new LongAdder();
+    final LongAdder hedges = new LongAdder();
+    final LongAdder hedgesWon = new LongAdder();
+    final LongAdder circuitRejected = new LongAdder();
+    final LongAdder throttled = new LongAdder();
+    final LongAdder throttleWait = new LongAdder();
+    final LongAdder rateLimited = new LongAdder();
+    final LongAdder concurrencyRejected = new LongAdder();
+    final LongAdder pipelines = new LongAdder();
+    final LongAdder pipelinedRequests = new LongAdder();
+    final LongAdder pipelineFallbacks = new LongAdder();
+
+}
@@ -2,181 +2,762 @@ package io.joshworks.restclient.http;
 
 import io.joshworks.restclient.Constants;
 import io.joshworks.restclient.http.async.Callback;
+import io.joshworks.restclient.http.balancer.Endpoint;
+import io.joshworks.restclient.http.circuit.CircuitBreaker;
+import io.joshworks.restclient.http.compress.CompressionPolicy;
+import io.joshworks.restclient.http.download.SegmentPolicy;
+import io.joshworks.restclient.http.exceptions.CircuitBreakerOpenException;
+import io.joshworks.restclient.http.exceptions.ConcurrencyLimitExceededException;
+import io.joshworks.restclient.http.exceptions.RateLimitExceededException;
 import io.joshworks.restclient.http.exceptions.RestClientException;
+import io.joshworks.restclient.http.hedge.HedgePolicy;
+import io.joshworks.restclient.http.limit.ConcurrencyLimiter;
+import io.joshworks.restclient.http.mapper.ObjectMapper;
+import io.joshworks.restclient.http.ratelimit.RateLimiter;
 import io.joshworks.restclient.request.HttpRequest;
+import io.joshworks.restclient.request.HttpRequestWithBody;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpHead;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpRequestBase;
-import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.concurrent.FutureCallback;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
-import org.apache.http.nio.entity.NByteArrayEntity;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.util.EntityUtils;
+import org.reactivestreams.Publisher;
 
-import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLDecoder;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * Created by Josh Gontijo on 5/3/17.
  */
 public class ClientRequest {
 
-    private final CloseableHttpClient syncClient;
-    private final CloseableHttpAsyncClient asyncClient;
-    private final Map<String, Object> defaultHeaders;
+    private final RestClient client;
+    private final Endpoint endpoint;
     public final String url;
     public final HttpMethod httpMethod;
 
-    ClientRequest(HttpMethod httpMethod, String url, CloseableHttpClient syncClient, CloseableHttpAsyncClient asyncClient, Map<String, Object> defaultHeaders) {
+    ClientRequest(HttpMethod httpMethod, String url, RestClient client, Endpoint endpoint) {
         this.url = url;
         this.httpMethod = httpMethod;
-        this.syncClient = syncClient;
-        this.asyncClient = asyncClient;
-        this.defaultHeaders = defaultHeaders;
+        this.client = client;
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * @return The mapper of the client for the media type, or the one registered in
+     * {@link io.joshworks.restclient.http.mapper.ObjectMappers}, null if none
+     */
+    public ObjectMapper getMapper(MediaType mediaType) {
+        return client.mappers.getMapper(mediaType);
     }
 
     private static final String USER_AGENT = "rest-client/1.6.0";
+    private static final CompressionPolicy DEFAULT_COMPRESSION = CompressionPolicy.builder().build();
 
-    private <T> FutureCallback<org.apache.http.HttpResponse> prepareCallback(
-            final Class<T> responseClass,
-            final Callback<T> callback) {
-        if (callback == null)
-            return null;
+    public <T> CompletableFuture<HttpResponse<T>> requestAsync(HttpRequest request, final Class<T> responseClass) {
+        return requestAsync(prepareRequest(request, true), responseClass);
+    }
+
+    <T> CompletableFuture<HttpResponse<T>> requestAsync(HttpRequestBase requestObj, final Class<T> responseClass) {
+        if (InputStream.class.equals(responseClass)) {
+            //a streamed body is filled by the I/O dispatcher, reading it from a callback on that thread would never end
+            return requestAsync(requestObj, this::streamed, true, response -> HttpResponse.create(requestObj, response, responseClass, client.mappers));
+        }
+        return requestAsync(requestObj, this::buffered, false, response -> HttpResponse.create(requestObj, response, responseClass, client.mappers));
+    }
+
+    /**
+     * Downloads the response body to the target file, see {@link HttpFileResponse}. The body is transferred from the
+     * connection to the file without passing through the heap.
+     */
+    public CompletableFuture<HttpFileResponse> requestFileAsync(HttpRequest request, Path target) {
+        identityEncoding(request);
+        HttpRequestBase requestObj = prepareRequest(request, true);
+        //moving (or decoding) the downloaded file is blocking I/O, kept off the I/O dispatcher
+        return requestAsync(requestObj, (attempt, callback) -> client.asyncClient.execute(HttpAsyncMethods.create(attempt), new FileResponseConsumer(target), callback),
+                true, response -> FileDownload.complete(response, target, client.mappers));
+    }
+
+    /**
+     * Downloads the response body to the target file in byte ranges fetched concurrently, see {@link SegmentPolicy}
+     */
+    public CompletableFuture<HttpFileResponse> requestFileAsync(HttpRequest request, Path target, SegmentPolicy policy) {
+        return new SegmentedDownload(client, request, target, policy).start();
+    }
 
-        return new FutureCallback<org.apache.http.HttpResponse>() {
+    /**
+     * Downloads the response body to the target file, resuming a previous download of the same url that failed,
+     * see {@link ResumableDownload}
+     */
+    public CompletableFuture<HttpFileResponse> requestResumableFileAsync(HttpRequest request, Path target) {
+        ResumableDownload download = new ResumableDownload(target, client.mappers);
+        download.prepare(request);
+        HttpRequestBase requestObj = prepareRequest(request, true);
+        return requestAsync(requestObj, (attempt, callback) -> client.asyncClient.execute(HttpAsyncMethods.create(attempt), new ResumableResponseConsumer(download), callback),
+                true, download::complete);
+    }
 
-            public void cancelled() {
+    <R> CompletableFuture<R> requestAsync(HttpRequestBase requestObj, Exchange exchange, boolean offDispatcher, Function<org.apache.http.HttpResponse, R> responses) {
+        startAsyncClient();
+
+        long start = startEndpoint();
+        CompletableFuture<org.apache.http.HttpResponse> responseFuture = executeAsync(requestObj, exchange);
+        CancellableFuture<R> future = new CancellableFuture<>(responseFuture);
+        BiConsumer<org.apache.http.HttpResponse, Throwable> complete = (response, error) -> {
+            completeEndpoint(start, response, error);
+            if (error != null) {
+                future.completeExceptionally(error);
+                return;
+            }
+            try {
+                future.complete(responses.apply(response));
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        };
+        if (offDispatcher) {
+            responseFuture.whenCompleteAsync(complete);
+        } else {
+            responseFuture.whenComplete(complete);
+        }
+        return future;
+    }
+
+    public <T> Future<HttpResponse<T>> requestAsync(
+            HttpRequest request,
+            final Class<T> responseClass,
+            Callback<T> callback) {
+
+        CompletableFuture<HttpResponse<T>> future = requestAsync(request, responseClass);
+        if (callback == null) {
+            return future;
+        }
+        future.whenComplete((response, error) -> {
+            if (error == null) {
+                callback.completed(response);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof CancellationException) {
                 callback.cancelled();
+            } else {
+                callback.failed(cause instanceof Exception ? (Exception) cause : new RestClientException("Request failed", cause));
             }
+        });
+        return future;
+    }
+
+    public <T> HttpResponse<T> request(final HttpRequest request, final Class<T> responseClass) {
+        Exchange exchange = InputStream.class.equals(responseClass) ? this::streamed : this::buffered;
+        return request(request, exchange, (requestObj, response) -> HttpResponse.create(requestObj, response, responseClass, client.mappers));
+    }
 
-            public void completed(org.apache.http.HttpResponse arg0) {
-                callback.completed(new HttpResponse<>(arg0, responseClass));
+    /**
+     * Downloads the response body to the target file, see {@link HttpFileResponse}
+     */
+    public HttpFileResponse requestFile(HttpRequest request, Path target) {
+        identityEncoding(request);
+        return request(request, (attempt, callback) -> client.asyncClient.execute(HttpAsyncMethods.create(attempt), new FileResponseConsumer(target), callback),
+                (requestObj, response) -> FileDownload.complete(response, target, client.mappers));
+    }
+
+    /**
+     * Downloads the response body to the target file, resuming a previous download of the same url that failed,
+     * see {@link ResumableDownload}
+     */
+    public HttpFileResponse requestResumableFile(HttpRequest request, Path target) {
+        ResumableDownload download = new ResumableDownload(target, client.mappers);
+        download.prepare(request);
+        //attempts would append to the same partial file, never hedged
+        return request(request, null, (requestObj, response) -> download.complete(response));
+    }
+
+    /**
+     * @param exchange How hedged attempts consume the response, as the async requests do, null if never hedged
+     */
+    private <R> R request(HttpRequest request, Exchange exchange, BiFunction<HttpRequestBase, org.apache.http.HttpResponse, R> responses) {
+        if (client.syncClient == null) {
+            throw new RestClientException("Sync client not configured");
+        }
+        HttpRequestBase requestObj = prepareRequest(request, false);
+        long start = startEndpoint();
+        org.apache.http.HttpResponse response = null;
+        try {
+            response = exchange != null && hedgeable(requestObj)
+                    ? awaitHedged(requestObj, exchange)
+                    : execute(requestObj, newRetry(requestObj), route(requestObj));
+            completeEndpoint(start, response, null);
+            return responses.apply(requestObj, response);
+        } catch (RestClientException e) {
+            if (response == null) {
+                completeEndpoint(start, null, e);
             }
+            throw e;
+        } catch (Exception e) {
+            if (response == null) {
+                completeEndpoint(start, null, e);
+            }
+            throw new RestClientException(e);
+        } finally {
+            closeEntity(requestObj);
+        }
+    }
 
-            public void failed(Exception arg0) {
-                callback.failed(arg0);
+    //bodies sent from a pooled buffer give it back once every attempt is done
+    private static void closeEntity(HttpRequestBase requestObj) {
+        if (!hasEntity(requestObj)) {
+            return;
+        }
+        HttpEntity entity = ((HttpEntityEnclosingRequestBase) requestObj).getEntity();
+        if (entity instanceof Closeable) {
+            try {
+                ((Closeable) entity).close();
+            } catch (IOException ignore) {
             }
+        }
+    }
 
-        };
+    /**
+     * Streams the response body in chunks of at most 8kb, read from the connection only as requested by the subscriber.
+     * The request is sent on subscription, without retries or hedging, as a partially consumed body can't be replayed.
+     */
+    public Publisher<ByteBuffer> publisher(HttpRequest request) {
+        return publisher(request, response -> (chunk, out) -> out.add(chunk));
     }
 
-    public <T> CompletableFuture<HttpResponse<T>> requestAsync(HttpRequest request, final Class<T> responseClass) {
+    /**
+     * Streams the elements of a JSON array or NDJSON response body, each element is mapped as soon as it's read.
+     */
+    public <T> Publisher<T> publisher(HttpRequest request, Class<T> elementClass) {
+        return publisher(request, response -> JsonElementDecoder.forResponse(response, elementClass, client.mappers.getMapper(MediaType.APPLICATION_JSON_TYPE)));
+    }
 
-        HttpUriRequest requestObj = prepareRequest(request, true);
+    private <T> Publisher<T> publisher(HttpRequest request, Function<org.apache.http.HttpResponse, StreamingResponseConsumer.ChunkDecoder<T>> decoders) {
+        //the async client doesn't decompress, bytes are handed over as they arrive
+        identityEncoding(request);
+        HttpRequestBase requestObj = prepareRequest(request, true);
+        return new ResponsePublisher<>(decoders, consumer -> {
+            startAsyncClient();
+            long start = startEndpoint();
+            consumer.exchange(client.asyncClient.execute(HttpAsyncMethods.create(requestObj), consumer, new FutureCallback<Void>() {
+                @Override
+                public void completed(Void result) {
+                    completeEndpoint(start, consumer.response, null);
+                }
+
+                @Override
+                public void failed(Exception e) {
+                    completeEndpoint(start, null, e);
+                    consumer.fail(e);
+                }
 
-        if (asyncClient == null) {
+                @Override
+                public void cancelled() {
+                    completeEndpoint(start, null, new CancellationException());
+                }
+            }));
+        });
+    }
+
+    private static void identityEncoding(HttpRequest request) {
+        if (!request.getHeaders().containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, Constants.IDENTITY);
+        }
+    }
+
+    void startAsyncClient() {
+        if (client.asyncClient == null) {
             throw new RestClientException("Async client not configured");
         }
+        if (!client.asyncClient.isRunning()) {
+            client.asyncClient.start();
+        }
+    }
+
+    private org.apache.http.HttpResponse execute(HttpRequestBase requestObj, Retry retry, Route route) throws IOException {
+        while (true) {
+            //an open circuit fails fast, without taking a rate limit permit or waiting for one
+            CircuitBreaker.Permit permit = acquire(route);
+            try {
+                long wait = reservePermit(requestObj, route);
+                if (wait > 0) {
+                    sleep(wait, TimeUnit.NANOSECONDS);
+                }
+            } catch (IOException | RuntimeException e) {
+                releaseCircuit(route, permit);
+                throw e;
+            }
+            awaitSlot(route, permit);
+            long start = System.nanoTime();
+            org.apache.http.HttpResponse response;
+            try {
+                response = client.syncClient.execute(requestObj);
+            } catch (IOException | RuntimeException e) {
+                onFailure(route, permit, start);
+                long delay = e instanceof IOException ? retry.delay(e) : -1;
+                if (delay < 0) {
+                    throw e;
+                }
+                sleep(delay, TimeUnit.MILLISECONDS);
+                requestObj.reset();
+                continue;
+            }
+
+            onResponse(route, permit, response, start);
+            onCompressionRejected(requestObj, response);
+            long delay = retry.delay(response);
+            if (delay < 0) {
+                return response;
+            }
+            EntityUtils.consumeQuietly(response.getEntity());
+            sleep(delay, TimeUnit.MILLISECONDS);
+            requestObj.reset();
+        }
+    }
+
+    //Hedged requests run on the async client, the calling thread waits for the winner
+    private org.apache.http.HttpResponse awaitHedged(HttpRequestBase requestObj, Exchange exchange) throws Exception {
+        startAsyncClient();
+        CompletableFuture<org.apache.http.HttpResponse> future = executeAsync(requestObj, exchange);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
 
-        if (!asyncClient.isRunning()) {
-            asyncClient.start();
+    private CompletableFuture<org.apache.http.HttpResponse> executeAsync(HttpRequestBase requestObj, Exchange exchange) {
+        CancellableFuture<org.apache.http.HttpResponse> primary = new CancellableFuture<>();
+        Route route = route(requestObj);
+        executeAsync(requestObj, newRetry(requestObj), primary, route, exchange);
+        if (!hedgeable(requestObj)) {
+            return primary;
         }
 
-        CompletableFuture<HttpResponse<T>> completableFuture = new CompletableFuture<>();
-        asyncClient.execute(requestObj, prepareCallback(responseClass, new Callback<T>() {
-            @Override
-            public void completed(HttpResponse<T> response) {
-                completableFuture.complete(response);
+        HedgePolicy policy = client.hedgePolicy;
+        client.hedgeBudget.deposit();
+
+        HedgedResponse hedged = new HedgedResponse(primary, client.metrics);
+        long observed = route.latency != null ? route.latency.percentile() : -1;
+        hedged.hedgeAfter(observed >= 0 ? observed : policy.delay, client.scheduler, () -> {
+            if (!client.hedgeBudget.tryWithdraw()) {
+                return null;
             }
+            CancellableFuture<org.apache.http.HttpResponse> hedge = new CancellableFuture<>();
+            executeAsync(copy(requestObj), Retry.NONE, hedge, route, exchange);
+            return hedge;
+        });
+        return hedged;
+    }
 
-            @Override
-            public void failed(Exception e) {
-                completableFuture.completeExceptionally(e);
+    private void executeAsync(HttpRequestBase requestObj, Retry retry, CancellableFuture<org.apache.http.HttpResponse> result, Route route, Exchange exchange) {
+        if (result.isDone()) {
+            return;
+        }
+        CircuitBreaker.Permit permit;
+        long wait;
+        try {
+            permit = acquire(route);
+        } catch (CircuitBreakerOpenException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        try {
+            wait = reservePermit(requestObj, route);
+        } catch (RateLimitExceededException e) {
+            releaseCircuit(route, permit);
+            result.completeExceptionally(e);
+            return;
+        }
+        if (wait == 0) {
+            submitAsync(requestObj, retry, result, route, permit, exchange);
+            return;
+        }
+        //the circuit permit is held while throttled, whoever comes first between the timer and completion owns it
+        AtomicBoolean owned = new AtomicBoolean();
+        result.whenComplete((response, error) -> {
+            if (owned.compareAndSet(false, true)) {
+                releaseCircuit(route, permit);
             }
+        });
+        try {
+            result.upstream(client.scheduler.schedule(() -> {
+                if (owned.compareAndSet(false, true)) {
+                    submitAsync(requestObj, retry, result, route, permit, exchange);
+                }
+            }, wait, TimeUnit.NANOSECONDS));
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new RestClientException("Client closed", e));
+        }
+    }
 
-            @Override
-            public void cancelled() {
-                //do nothing
+    private void submitAsync(HttpRequestBase requestObj, Retry retry, CancellableFuture<org.apache.http.HttpResponse> result, Route route, CircuitBreaker.Permit permit, Exchange exchange) {
+        if (result.isDone()) {
+            releaseCircuit(route, permit);
+            return;
+        }
+        CompletableFuture<Void> slot = route != null && route.concurrencyLimiter != null ? route.concurrencyLimiter.acquire(client.scheduler) : null;
+        if (slot == null || (slot.isDone() && !slot.isCompletedExceptionally())) {
+            sendAsync(requestObj, retry, result, route, permit, exchange);
+            return;
+        }
+        result.upstream(slot);
+        slot.whenComplete((acquired, error) -> {
+            if (error != null) {
+                releaseCircuit(route, permit);
+                if (!(error instanceof CancellationException)) {
+                    result.completeExceptionally(slotRejected(error));
+                }
+            } else if (result.isDone()) {
+                releaseCircuit(route, permit);
+                route.concurrencyLimiter.release();
+            } else {
+                sendAsync(requestObj, retry, result, route, permit, exchange);
             }
-        }));
+        });
+    }
 
-        return completableFuture;
+    private void sendAsync(HttpRequestBase requestObj, Retry retry, CancellableFuture<org.apache.http.HttpResponse> result, Route route, CircuitBreaker.Permit permit, Exchange exchange) {
+        long start = System.nanoTime();
+        try {
+            FutureCallback<org.apache.http.HttpResponse> callback = new FutureCallback<org.apache.http.HttpResponse>() {
+                @Override
+                public void completed(org.apache.http.HttpResponse response) {
+                    onResponse(route, permit, response, start);
+                    onCompressionRejected(requestObj, response);
+                    long delay = retry.delay(response);
+                    if (delay < 0) {
+                        result.complete(response);
+                        return;
+                    }
+                    EntityUtils.consumeQuietly(response.getEntity());
+                    retryAsync(requestObj, retry, result, route, delay, exchange);
+                }
+
+                @Override
+                public void failed(Exception e) {
+                    onFailure(route, permit, start);
+                    long delay = retry.delay(e);
+                    if (delay < 0) {
+                        result.completeExceptionally(e);
+                        return;
+                    }
+                    retryAsync(requestObj, retry, result, route, delay, exchange);
+                }
+
+                @Override
+                public void cancelled() {
+                    releaseCircuit(route, permit);
+                    if (route != null && route.concurrencyLimiter != null) {
+                        route.concurrencyLimiter.release();
+                    }
+                    result.cancel(false);
+                }
+            };
+            result.upstream(exchange.start(requestObj, callback));
+        } catch (RuntimeException e) {
+            onFailure(route, permit, start);
+            result.completeExceptionally(e);
+        }
     }
 
-    public <T> Future<HttpResponse<T>> requestAsync(
-            HttpRequest request,
-            final Class<T> responseClass,
-            Callback<T> callback) {
+    private Future<org.apache.http.HttpResponse> buffered(HttpRequestBase requestObj, FutureCallback<org.apache.http.HttpResponse> callback) {
+        return client.asyncClient.execute(requestObj, callback);
+    }
 
-        HttpUriRequest requestObj = prepareRequest(request, true);
+    private Future<org.apache.http.HttpResponse> streamed(HttpRequestBase requestObj, FutureCallback<org.apache.http.HttpResponse> callback) {
+        InputStreamResponseConsumer consumer = new InputStreamResponseConsumer(callback);
+        Future<org.apache.http.HttpResponse> exchange = client.asyncClient.execute(HttpAsyncMethods.create(requestObj), consumer, consumer.callback);
+        consumer.exchange(exchange);
+        return exchange;
+    }
 
-        if (asyncClient == null) {
-            throw new RestClientException("Async client not configured");
+    private void retryAsync(HttpRequestBase requestObj, Retry retry, CancellableFuture<org.apache.http.HttpResponse> result, Route route, long delay, Exchange exchange) {
+        try {
+            result.upstream(client.scheduler.schedule(() -> {
+                requestObj.reset();
+                executeAsync(requestObj, retry, result, route, exchange);
+            }, delay, TimeUnit.MILLISECONDS));
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new RestClientException("Client closed", e));
         }
+    }
 
-        if (!asyncClient.isRunning()) {
-            asyncClient.start();
+    private long startEndpoint() {
+        if (endpoint == null) {
+            return 0;
         }
+        client.endpoints.start(endpoint);
+        return System.nanoTime();
+    }
 
-        final Future<org.apache.http.HttpResponse> future = asyncClient.execute(requestObj, prepareCallback(responseClass, callback));
+    /**
+     * Records the outcome of the request on its load balanced endpoint, only I/O errors and 5xx responses count as
+     * failures, requests rejected by the client itself (ex: open circuit) or cancelled are not held against the endpoint
+     */
+    private void completeEndpoint(long start, org.apache.http.HttpResponse response, Throwable error) {
+        if (endpoint == null) {
+            return;
+        }
+        long rtt = System.nanoTime() - start;
+        if (response != null) {
+            client.endpoints.complete(endpoint, rtt, response.getStatusLine().getStatusCode() >= 500);
+            return;
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof IOException || (cause instanceof RestClientException && cause.getCause() instanceof IOException)) {
+            client.endpoints.complete(endpoint, rtt, true);
+        } else {
+            client.endpoints.release(endpoint);
+        }
+    }
 
-        return new Future<HttpResponse<T>>() {
+    private Route route(HttpRequestBase requestObj) {
+        return client.routeState ? client.route(requestObj.getURI()) : null;
+    }
 
-            public boolean cancel(boolean mayInterruptIfRunning) {
-                return future.cancel(mayInterruptIfRunning);
-            }
+    /**
+     * @return The time to wait before sending the request, in nanoseconds
+     */
+    private long reservePermit(HttpRequestBase requestObj, Route route) {
+        RateLimiter limiter = client.rateLimiter != null ? client.rateLimiter : (route != null ? route.rateLimiter : null);
+        if (limiter == null) {
+            return 0;
+        }
+        long wait = limiter.reserve();
+        if (wait < 0) {
+            client.metrics.rateLimited.increment();
+            throw new RateLimitExceededException(route != null ? route.key : Route.key(requestObj.getURI()));
+        }
+        if (wait > 0) {
+            client.metrics.throttled.increment();
+            client.metrics.throttleWait.add(wait);
+        }
+        return wait;
+    }
 
-            public boolean isCancelled() {
-                return future.isCancelled();
-            }
+    /**
+     * @return The circuit breaker permit of the call, null if the route has no circuit breaker
+     * @throws CircuitBreakerOpenException If the circuit doesn't permit the call
+     */
+    private CircuitBreaker.Permit acquire(Route route) {
+        if (route == null || route.circuitBreaker == null) {
+            return null;
+        }
+        CircuitBreaker.Permit permit = route.circuitBreaker.tryAcquire();
+        if (permit == null) {
+            client.metrics.circuitRejected.increment();
+            throw new CircuitBreakerOpenException(route.key);
+        }
+        return permit;
+    }
 
-            public boolean isDone() {
-                return future.isDone();
+    /**
+     * Waits for a concurrency limit slot of the route, the circuit breaker permit is given back if no slot is available
+     */
+    private void awaitSlot(Route route, CircuitBreaker.Permit permit) throws InterruptedIOException {
+        if (route == null || route.concurrencyLimiter == null) {
+            return;
+        }
+        CompletableFuture<Void> slot = route.concurrencyLimiter.acquire(client.scheduler);
+        try {
+            slot.get();
+        } catch (InterruptedException e) {
+            if (!slot.cancel(false)) {
+                route.concurrencyLimiter.release();
             }
+            releaseCircuit(route, permit);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to send the request");
+        } catch (ExecutionException e) {
+            releaseCircuit(route, permit);
+            throw slotRejected(e.getCause());
+        }
+    }
 
-            public HttpResponse<T> get() throws InterruptedException, ExecutionException {
-                return this.getResponse();
-            }
+    private RestClientException slotRejected(Throwable error) {
+        if (error instanceof ConcurrencyLimitExceededException) {
+            client.metrics.concurrencyRejected.increment();
+            return (RestClientException) error;
+        }
+        return new RestClientException("Client closed", error);
+    }
 
-            public HttpResponse<T> get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-                return this.getResponse(timeout, unit);
-            }
+    private static void releaseCircuit(Route route, CircuitBreaker.Permit permit) {
+        if (route != null && route.circuitBreaker != null) {
+            route.circuitBreaker.release(permit);
+        }
+    }
 
-            private HttpResponse<T> getResponse() throws ExecutionException, InterruptedException {
-                org.apache.http.HttpResponse httpResponse = future.get();
-                return new HttpResponse<>(httpResponse, responseClass);
+    private static void onResponse(Route route, CircuitBreaker.Permit permit, org.apache.http.HttpResponse response, long start) {
+        if (route == null) {
+            return;
+        }
+        long rtt = System.nanoTime() - start;
+        int status = response.getStatusLine().getStatusCode();
+        if (route.concurrencyLimiter != null) {
+            route.concurrencyLimiter.release(rtt, status == 429 || status == 503);
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(rtt);
+        if (route.latency != null) {
+            route.latency.record(elapsed);
+        }
+        if (route.circuitBreaker != null) {
+            if (status >= 500) {
+                route.circuitBreaker.onFailure(permit, elapsed);
+            } else {
+                route.circuitBreaker.onSuccess(permit, elapsed);
             }
+        }
+    }
 
-            private HttpResponse<T> getResponse(long timeout, TimeUnit unit) throws ExecutionException, InterruptedException, TimeoutException {
-                org.apache.http.HttpResponse httpResponse = future.get(timeout, unit);
-                return new HttpResponse<>(httpResponse, responseClass);
-            }
-        };
+    //A body compressed by the client rejected with 415 disables compression for the route, following requests are sent
+    //uncompressed. Bodies encoded by the caller are left alone, the client didn't choose their encoding.
+    private void onCompressionRejected(HttpRequestBase requestObj, org.apache.http.HttpResponse response) {
+        if (response.getStatusLine().getStatusCode() != HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE || !hasEntity(requestObj)) {
+            return;
+        }
+        HttpEntity entity = ((HttpEntityEnclosingRequestBase) requestObj).getEntity();
+        if (entity instanceof StreamedRequestEntity) {
+            entity = ((StreamedRequestEntity) entity).wrapped();
+        }
+        if (entity instanceof CompressingEntity) {
+            client.route(requestObj.getURI()).compressionRejected = true;
+        }
     }
 
-    public <T> HttpResponse<T> request(final HttpRequest request, final Class<T> responseClass) {
-        if (syncClient == null) {
-            throw new RestClientException("Sync client not configured");
+    private static void onFailure(Route route, CircuitBreaker.Permit permit, long start) {
+        if (route == null) {
+            return;
         }
-        HttpRequestBase requestObj = prepareRequest(request, false);
-        org.apache.http.HttpResponse response;
+        long rtt = System.nanoTime() - start;
+        if (route.concurrencyLimiter != null) {
+            route.concurrencyLimiter.release(rtt, true);
+        }
+        if (route.circuitBreaker != null) {
+            route.circuitBreaker.onFailure(permit, TimeUnit.NANOSECONDS.toMillis(rtt));
+        }
+    }
+
+    private boolean hedgeable(HttpRequestBase requestObj) {
+        return client.hedgePolicy != null
+                && client.asyncClient != null
+                && client.hedgePolicy.hedgeable(httpMethod)
+                && !hasEntity(requestObj);
+    }
+
+    private static boolean hasEntity(HttpRequestBase requestObj) {
+        return requestObj instanceof HttpEntityEnclosingRequestBase && ((HttpEntityEnclosingRequestBase) requestObj).getEntity() != null;
+    }
+
+    private HttpRequestBase copy(HttpRequestBase requestObj) {
+        HttpRequestBase copy = newRequestObject(httpMethod, requestObj.getURI().toString());
+        copy.setHeaders(requestObj.getAllHeaders());
+        copy.setConfig(requestObj.getConfig());
+        return copy;
+    }
+
+    private static void sleep(long duration, TimeUnit unit) throws InterruptedIOException {
         try {
-            response = syncClient.execute(requestObj);
-            return HttpResponse.create(requestObj, response, responseClass);
-        } catch (Exception e) {
-            throw new RestClientException(e);
+            unit.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to send the request");
+        }
+    }
+
+    private Retry newRetry(HttpRequestBase requestObj) {
+        if (client.retryPolicy == null) {
+            return Retry.NONE;
+        }
+        client.retryBudget.deposit();
+        if (requestObj instanceof HttpEntityEnclosingRequestBase) {
+            HttpEntity entity = ((HttpEntityEnclosingRequestBase) requestObj).getEntity();
+            if (entity != null && !entity.isRepeatable()) {
+                return Retry.NONE;
+            }
+        }
+        return new Retry(client, httpMethod);
+    }
+
+    /**
+     * Retry state of a single request, attempts of the same request never run concurrently
+     */
+    private static class Retry {
+
+        private static final Retry NONE = new Retry(null, null);
+
+        private final RestClient client;
+        private final HttpMethod method;
+        private int attempts = 1;
+        private long lastDelay;
+
+        private Retry(RestClient client, HttpMethod method) {
+            this.client = client;
+            this.method = method;
+        }
+
+        private long delay(org.apache.http.HttpResponse response) {
+            return client != null && client.retryPolicy.retryable(method, response.getStatusLine().getStatusCode()) ? next() : -1;
+        }
+
+        private long delay(Exception exception) {
+            return client != null && client.retryPolicy.retryable(method, exception) ? next() : -1;
+        }
+
+        private long next() {
+            if (attempts >= client.retryPolicy.maxAttempts) {
+                return -1;
+            }
+            if (!client.retryBudget.tryWithdraw()) {
+                client.metrics.retriesRejected.increment();
+                return -1;
+            }
+            attempts++;
+            client.metrics.retries.increment();
+            lastDelay = client.retryPolicy.nextDelay(lastDelay);
+            return lastDelay;
         }
     }
 
+    HttpRequestBase prepareAsync(HttpRequest request) {
+        return prepareRequest(request, true);
+    }
+
     private HttpRequestBase prepareRequest(HttpRequest request, boolean async) {
 
-        if (defaultHeaders != null) {
-            for (Map.Entry<String, Object> entry : defaultHeaders.entrySet()) {
+        if (client.defaultHeaders != null) {
+            for (Map.Entry<String, Object> entry : client.defaultHeaders.entrySet()) {
                 //Do not set content-type for multipart and urlencoded
                 if (!entry.getKey().equalsIgnoreCase(HttpHeaders.CONTENT_TYPE) || request.getBody() == null || !request.getBody().implicitContentType()) {
                     request.header(entry.getKey(), String.valueOf(entry.getValue()));
@@ -208,8 +789,78 @@ public class ClientRequest {
             throw new RestClientException(e);
         }
 
-        HttpRequestBase reqObj = null;
-        switch (request.getHttpMethod()) {
+        HttpRequestBase reqObj = newRequestObject(request.getHttpMethod(), urlToRequest);
+
+        request.getHeaders().forEachHeader(reqObj::addHeader);
+
+        // Set body
+        if (request.getHttpMethod() != HttpMethod.GET && request.getHttpMethod() != HttpMethod.HEAD) {
+            if (request.getBody() != null) {
+                HttpEntity entity = compress(request, reqObj, request.getBody().getEntity());
+                if (async) {
+                    if (entity.getContentEncoding() != null) {
+                        reqObj.setHeader(entity.getContentEncoding());
+                    }
+                    if (reqObj.getHeaders(HttpHeaders.CONTENT_TYPE) == null || reqObj.getHeaders(HttpHeaders.CONTENT_TYPE).length == 0) {
+                        reqObj.setHeader(entity.getContentType());
+                    }
+                    try {
+                        ((HttpEntityEnclosingRequestBase) reqObj).setEntity(StreamedRequestEntity.of(entity, client.uploads));
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                } else {
+                    try {
+                        ((HttpEntityEnclosingRequestBase) reqObj).setEntity(StreamedRequestEntity.sized(entity));
+                    } catch (IOException e) {
+                        throw new RestClientException(e);
+                    }
+                }
+            }
+        }
+
+        return reqObj;
+    }
+
+    private HttpEntity compress(HttpRequest request, HttpRequestBase reqObj, HttpEntity entity) {
+        CompressionPolicy policy = client.compressionPolicy;
+        Boolean compress = request instanceof HttpRequestWithBody ? ((HttpRequestWithBody) request).getCompress() : null;
+        if (compress != null) {
+            policy = !compress ? null : policy != null ? policy : DEFAULT_COMPRESSION;
+        }
+        if (policy == null || entity.getContentEncoding() != null || reqObj.containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+            return entity;
+        }
+        long length = entity.getContentLength();
+        if (length < 0 && entity.isRepeatable()) {
+            //bodies generated as they are written (ex: serialized objects) are measured first, small ones aren't compressed
+            HttpEntity copy = inMemory(entity);
+            if (copy != null) {
+                entity = copy;
+                length = copy.getContentLength();
+            }
+        }
+        if (length >= 0 && length < policy.threshold) {
+            return entity;
+        }
+        Route route = client.route(reqObj.getURI());
+        if (route.compressionRejected || !policy.compresses(route.key)) {
+            return entity;
+        }
+        return new CompressingEntity(entity, policy, route);
+    }
+
+    private static HttpEntity inMemory(HttpEntity entity) {
+        try {
+            return StreamedRequestEntity.inMemory(entity);
+        } catch (IOException e) {
+            throw new RestClientException(e);
+        }
+    }
+
+    private static HttpRequestBase newRequestObject(HttpMethod method, String urlToRequest) {
+        HttpRequestBase reqObj;
+        switch (method) {
             case GET:
                 reqObj = new HttpGet(urlToRequest);
                 break;
@@ -232,40 +883,15 @@ public class ClientRequest {
                 reqObj = new HttpHead(urlToRequest);
                 break;
             default:
-                throw new IllegalArgumentException("Invalid HTTP method: " + request.getHttpMethod());
-        }
-
-        for (Map.Entry<String, List<String>> entry : request.getHeaders().entrySet()) {
-            List<String> values = entry.getValue();
-            if (values != null) {
-                for (String value : values) {
-                    reqObj.addHeader(entry.getKey(), value);
-                }
-            }
-        }
-
-        // Set body
-        if (request.getHttpMethod() != HttpMethod.GET && request.getHttpMethod() != HttpMethod.HEAD) {
-            if (request.getBody() != null) {
-                HttpEntity entity = request.getBody().getEntity();
-                if (async) {
-                    if (reqObj.getHeaders(HttpHeaders.CONTENT_TYPE) == null || reqObj.getHeaders(HttpHeaders.CONTENT_TYPE).length == 0) {
-                        reqObj.setHeader(entity.getContentType());
-                    }
-                    try {
-                        ByteArrayOutputStream output = new ByteArrayOutputStream();
-                        entity.writeTo(output);
-                        NByteArrayEntity en = new NByteArrayEntity(output.toByteArray());
-                        ((HttpEntityEnclosingRequestBase) reqObj).setEntity(en);
-                    } catch (IOException e) {
-                        throw new RuntimeException(e);
-                    }
-                } else {
-                    ((HttpEntityEnclosingRequestBase) reqObj).setEntity(entity);
-                }
-            }
+                throw new IllegalArgumentException("Invalid HTTP method: " + method);
         }
-
         return reqObj;
     }
+
+    /**
+     * Starts an attempt of an async request, each attempt (retries and hedges) gets its own response consumer
+     */
+    interface Exchange {
+        Future<org.apache.http.HttpResponse> start(HttpRequestBase requestObj, FutureCallback<org.apache.http.HttpResponse> callback);
+    }
 }
@@ -0,0 +1,131 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.http.compress.CompressionPolicy;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.message.BasicHeader;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses the wrapped entity as it's written, so the compressed body is never buffered as a whole.
+ * The sizes before and after compression, and the time spent compressing, are recorded on the route.
+ */
+class CompressingEntity extends HttpEntityWrapper {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final CompressionPolicy policy;
+    private final Route route;
+
+    CompressingEntity(HttpEntity entity, CompressionPolicy policy, Route route) {
+        super(entity);
+        this.policy = policy;
+        this.route = route;
+    }
+
+    @Override
+    public Header getContentEncoding() {
+        return new BasicHeader(HttpHeaders.CONTENT_ENCODING, policy.encoding.value);
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return true;
+    }
+
+    @Override
+    public InputStream getContent() {
+        throw new UnsupportedOperationException("Compressed content is only available through writeTo");
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        long start = System.nanoTime();
+        CountingOutputStream compressed = new CountingOutputStream(outStream);
+        CountingOutputStream uncompressed = new CountingOutputStream(deflating(compressed));
+        try {
+            wrappedEntity.writeTo(uncompressed);
+        } finally {
+            //finishes the compressed stream and releases the deflater, the connection stream is only flushed
+            uncompressed.close();
+            long elapsed = System.nanoTime() - start - compressed.writeTime;
+            route.uncompressedBytes.add(uncompressed.count);
+            route.compressedBytes.add(compressed.count);
+            route.compressionTime.add(Math.max(0, elapsed));
+        }
+    }
+
+    private OutputStream deflating(OutputStream out) throws IOException {
+        int level = policy.level;
+        if (policy.encoding == CompressionPolicy.Encoding.GZIP) {
+            return new GZIPOutputStream(out, BUFFER_SIZE) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+        Deflater deflater = new Deflater(level);
+        return new DeflaterOutputStream(out, deflater, BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    deflater.end();
+                }
+            }
+        };
+    }
+
+    /**
+     * Counts the bytes written and the time spent writing them downstream
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+        private long writeTime;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            long start = System.nanoTime();
+            out.write(b);
+            writeTime += System.nanoTime() - start;
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            out.write(b, off, len);
+            writeTime += System.nanoTime() - start;
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (out instanceof DeflaterOutputStream) {
+                out.close();
+            } else {
+                out.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.Constants;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decodes a gzip or deflate response body as it's read, for sized and chunked bodies alike. Only the bytes needed to
+ * fill the caller buffer are read from the connection, the inflater is borrowed from the {@link InflaterPool} and
+ * returned when the body ends or the stream is closed.
+ * <p>
+ * An empty body is decoded as empty (ex: HEAD, 204 and 304 responses keep the Content-Encoding of the resource).
+ * Concatenated gzip members are decoded as a single body, and deflate bodies are accepted with or without the zlib wrapper.
+ */
+class DecodingInputStream extends InputStream {
+
+    private static final String X_GZIP = "x-gzip";
+    private static final String DEFLATE = "deflate";
+
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private final InputStream in;
+    private final boolean gzip;
+    private final byte[] buffer = new byte[8192];
+    private final byte[] single = new byte[1];
+    private final CRC32 crc = new CRC32();
+    private int pos;
+    private int limit;
+
+    private Inflater inflater;
+    private boolean nowrap;
+    private boolean started;
+    private boolean eof;
+
+    private DecodingInputStream(InputStream in, boolean gzip) {
+        this.in = in;
+        this.gzip = gzip;
+    }
+
+    /**
+     * @return The decoded body of the response, the raw body if it has no (or an unknown) content coding,
+     * or null if it has no body
+     */
+    static InputStream decode(org.apache.http.HttpResponse response) throws IOException {
+        HttpEntity entity = response.getEntity();
+        InputStream content = entity != null ? entity.getContent() : null;
+        if (content == null) {
+            return null;
+        }
+        String coding = coding(response);
+        if (Constants.GZIP.equals(coding) || X_GZIP.equals(coding)) {
+            return new DecodingInputStream(content, true);
+        }
+        if (DEFLATE.equals(coding)) {
+            return new DecodingInputStream(content, false);
+        }
+        return content;
+    }
+
+    /**
+     * @return Whether the body of the response has a content coding that {@link #decode} decodes
+     */
+    static boolean encoded(org.apache.http.HttpResponse response) {
+        String coding = coding(response);
+        return Constants.GZIP.equals(coding) || X_GZIP.equals(coding) || DEFLATE.equals(coding);
+    }
+
+    private static String coding(org.apache.http.HttpResponse response) {
+        HttpEntity entity = response.getEntity();
+        Header header = entity != null && entity.getContentEncoding() != null ? entity.getContentEncoding() : response.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+        return header != null && header.getValue() != null ? header.getValue().trim().toLowerCase(Locale.ROOT) : Constants.IDENTITY;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (eof) {
+            return -1;
+        }
+        if (!started) {
+            started = true;
+            if (!(gzip ? readGzipHeader(true) : startDeflate())) {
+                return end();
+            }
+        }
+        while (true) {
+            int read;
+            try {
+                read = inflater.inflate(b, off, len);
+            } catch (DataFormatException e) {
+                throw new ZipException(e.getMessage() != null ? e.getMessage() : "Invalid compressed body");
+            }
+            if (read > 0) {
+                if (gzip) {
+                    crc.update(b, off, read);
+                }
+                return read;
+            }
+            if (inflater.finished()) {
+                //unread input is handed back to the buffer, it may hold the gzip trailer and the next member
+                pos = limit - inflater.getRemaining();
+                if (!gzip) {
+                    return end();
+                }
+                readGzipTrailer();
+                inflater.reset();
+                crc.reset();
+                //like GZIPInputStream, only data already available is taken for another member
+                if ((pos == limit && in.available() <= 0) || !readGzipHeader(false)) {
+                    return end();
+                }
+                continue;
+            }
+            if (inflater.needsDictionary()) {
+                throw new ZipException("Compressed body requires a preset dictionary");
+            }
+            if (inflater.needsInput()) {
+                if (pos == limit && !fill()) {
+                    throw new EOFException("Unexpected end of compressed body");
+                }
+                inflater.setInput(buffer, pos, limit - pos);
+                pos = limit;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!eof) {
+            eof = true;
+            releaseInflater();
+        }
+        in.close();
+    }
+
+    private int end() {
+        eof = true;
+        releaseInflater();
+        return -1;
+    }
+
+    private void releaseInflater() {
+        if (inflater != null) {
+            InflaterPool.release(inflater, nowrap);
+            inflater = null;
+        }
+    }
+
+    //zlib streams start with a deflate method nibble and a header checksum, anything else is raw deflate
+    private boolean startDeflate() throws IOException {
+        if (!ensure(2)) {
+            if (pos == limit) {
+                return false;
+            }
+            throw new EOFException("Unexpected end of compressed body");
+        }
+        int cmf = buffer[pos] & 0xff;
+        int flg = buffer[pos + 1] & 0xff;
+        nowrap = (cmf & 0x0f) != 8 || ((cmf << 8) | flg) % 31 != 0;
+        inflater = InflaterPool.borrow(nowrap);
+        return true;
+    }
+
+    /**
+     * @return false if the stream ended before the header. Anything but a member header after the first member is
+     * ignored, as some servers pad gzip bodies
+     */
+    private boolean readGzipHeader(boolean first) throws IOException {
+        if (pos == limit && !fill()) {
+            return false;
+        }
+        int magic;
+        try {
+            magic = readUShort();
+        } catch (EOFException e) {
+            if (first) {
+                throw e;
+            }
+            return false;
+        }
+        if (magic != GZIP_MAGIC) {
+            if (first) {
+                throw new ZipException("Not in gzip format");
+            }
+            return false;
+        }
+        if (readUByte() != 8) {
+            throw new ZipException("Unsupported gzip compression method");
+        }
+        int flags = readUByte();
+        skip(6);
+        if ((flags & FEXTRA) == FEXTRA) {
+            skip(readUShort());
+        }
+        if ((flags & FNAME) == FNAME) {
+            while (readUByte() != 0) ;
+        }
+        if ((flags & FCOMMENT) == FCOMMENT) {
+            while (readUByte() != 0) ;
+        }
+        if ((flags & FHCRC) == FHCRC) {
+            skip(2);
+        }
+        if (inflater == null) {
+            nowrap = true;
+            inflater = InflaterPool.borrow(true);
+        }
+        return true;
+    }
+
+    private void readGzipTrailer() throws IOException {
+        long checksum = readUInt();
+        long size = readUInt();
+        if (checksum != crc.getValue() || size != (inflater.getBytesWritten() & 0xffffffffL)) {
+            throw new ZipException("Corrupt gzip trailer");
+        }
+    }
+
+    private long readUInt() throws IOException {
+        return readUShort() | ((long) readUShort() << 16);
+    }
+
+    private int readUShort() throws IOException {
+        return readUByte() | (readUByte() << 8);
+    }
+
+    private int readUByte() throws IOException {
+        if (pos == limit && !fill()) {
+            throw new EOFException("Unexpected end of compressed body");
+        }
+        return buffer[pos++] & 0xff;
+    }
+
+    private void skip(int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            readUByte();
+        }
+    }
+
+    private boolean fill() throws IOException {
+        int read;
+        do {
+            read = in.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            return false;
+        }
+        pos = 0;
+        limit = read;
+        return true;
+    }
+
+    //ensures the buffer holds at least count unread bytes, compacting it if needed
+    private boolean ensure(int count) throws IOException {
+        if (pos > 0 && limit - pos < count) {
+            System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+            limit -= pos;
+            pos = 0;
+        }
+        while (limit - pos < count) {
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                return false;
+            }
+            limit += read;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,146 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.http.exceptions.RestClientException;
+import io.joshworks.restclient.http.fanout.FanOutPolicy;
+import io.joshworks.restclient.request.HttpRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends all the requests of a fan out at once and completes as soon as the policy is satisfied, can no longer be
+ * satisfied, or the deadline is reached. The requests still outstanding at that point are cancelled, which aborts
+ * their exchanges on the async client.
+ */
+class FanOutExecution<T> {
+
+    private final List<HttpRequest> requests;
+    private final Class<T> responseClass;
+    private final FanOutPolicy policy;
+    private final int required;
+    private final List<CompletableFuture<HttpResponse<T>>> futures;
+    private final List<ShardResult<T>> shards;
+    private final CompletableFuture<FanOutResult<T>> result = new CompletableFuture<>();
+
+    private int succeeded;
+    private int completed;
+    private ScheduledFuture<?> deadline;
+
+    FanOutExecution(List<HttpRequest> requests, Class<T> responseClass, FanOutPolicy policy) {
+        this.requests = requests;
+        this.responseClass = responseClass;
+        this.policy = policy;
+        this.required = policy.required(requests.size());
+        this.futures = new ArrayList<>(requests.size());
+        this.shards = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            futures.add(null);
+            shards.add(null);
+        }
+    }
+
+    CompletableFuture<FanOutResult<T>> start(ScheduledExecutorService scheduler) {
+        result.whenComplete((r, e) -> abort());
+        if (requests.isEmpty()) {
+            finish(false);
+            return result;
+        }
+        if (policy.deadline > 0) {
+            try {
+                deadline = scheduler.schedule(() -> finish(true), policy.deadline, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(new RestClientException("Client closed", e));
+                return result;
+            }
+        }
+        for (int i = 0; i < requests.size() && !result.isDone(); i++) {
+            int index = i;
+            CompletableFuture<HttpResponse<T>> future;
+            try {
+                future = requests.get(i).asObjectAsync(responseClass);
+            } catch (Exception e) {
+                onShard(index, null, e);
+                continue;
+            }
+            synchronized (this) {
+                futures.set(index, future);
+            }
+            if (result.isDone()) {
+                future.cancel(true);
+            }
+            future.whenComplete((response, error) -> onShard(index, response, error));
+        }
+        return result;
+    }
+
+    private void onShard(int index, HttpResponse<T> response, Throwable error) {
+        boolean done;
+        synchronized (this) {
+            if (result.isDone()) {
+                //arrived after the fan out completed
+                if (response != null) {
+                    response.close();
+                }
+                return;
+            }
+            boolean success = response != null && response.getStatus() < 500;
+            shards.set(index, new ShardResult<>(index, requests.get(index), success ? ShardResult.Status.SUCCEEDED : ShardResult.Status.FAILED, response, unwrap(error)));
+            completed++;
+            if (success) {
+                succeeded++;
+            }
+            int failed = completed - succeeded;
+            done = succeeded >= required || failed > requests.size() - required || completed == requests.size();
+        }
+        if (done) {
+            finish(false);
+        }
+    }
+
+    private void finish(boolean deadlineReached) {
+        FanOutResult<T> fanOut;
+        synchronized (this) {
+            if (result.isDone()) {
+                return;
+            }
+            List<ShardResult<T>> results = new ArrayList<>(shards.size());
+            for (int i = 0; i < shards.size(); i++) {
+                ShardResult<T> shard = shards.get(i);
+                results.add(shard != null ? shard : new ShardResult<>(i, requests.get(i), ShardResult.Status.ABORTED, null, null));
+            }
+            fanOut = new FanOutResult<>(succeeded >= required, deadlineReached, results);
+        }
+        result.complete(fanOut);
+    }
+
+    private void abort() {
+        if (deadline != null) {
+            deadline.cancel(false);
+        }
+        List<CompletableFuture<HttpResponse<T>>> outstanding = new ArrayList<>();
+        synchronized (this) {
+            for (int i = 0; i < futures.size(); i++) {
+                if (futures.get(i) != null && shards.get(i) == null) {
+                    outstanding.add(futures.get(i));
+                }
+            }
+        }
+        for (CompletableFuture<HttpResponse<T>> future : outstanding) {
+            future.cancel(true);
+        }
+    }
+
+    private static Exception unwrap(Throwable error) {
+        if (error == null) {
+            return null;
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof Exception ? (Exception) cause : new RestClientException("Request failed", cause);
+    }
+}
@@ -0,0 +1,51 @@
+package io.joshworks.restclient.http;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of a fan out, with the outcome of every request in input order
+ */
+public class FanOutResult<T> {
+
+    /**
+     * Whether enough requests succeeded to satisfy the completion policy
+     */
+    public final boolean satisfied;
+
+    /**
+     * Whether the fan out completed because the deadline was reached
+     */
+    public final boolean deadlineReached;
+
+    public final List<ShardResult<T>> shards;
+
+    FanOutResult(boolean satisfied, boolean deadlineReached, List<ShardResult<T>> shards) {
+        this.satisfied = satisfied;
+        this.deadlineReached = deadlineReached;
+        this.shards = Collections.unmodifiableList(shards);
+    }
+
+    /**
+     * @return The responses of the successful requests, in input order
+     */
+    public List<HttpResponse<T>> responses() {
+        List<HttpResponse<T>> responses = new ArrayList<>();
+        for (ShardResult<T> shard : shards) {
+            if (shard.status == ShardResult.Status.SUCCEEDED) {
+                responses.add(shard.response);
+            }
+        }
+        return responses;
+    }
+
+    @Override
+    public String toString() {
+        return "FanOutResult {" +
+                "SATISFIED=" + satisfied +
+                ", DEADLINE_REACHED=" + deadlineReached +
+                ", SHARDS=" + shards +
+                '}';
+    }
+}
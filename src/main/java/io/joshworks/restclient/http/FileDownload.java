@@ -0,0 +1,166 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.http.exceptions.RestClientException;
+import io.joshworks.restclient.http.mapper.MapperRegistry;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.ContentDecoderChannel;
+import org.apache.http.nio.FileContentDecoder;
+import org.apache.http.util.EntityUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes the body of successful responses to a temporary file next to the target, moved over the target once complete.
+ * The target is never seen partially written, and is left untouched by failed downloads.
+ */
+final class FileDownload {
+
+    private static final String PART_SUFFIX = ".part";
+
+    private FileDownload() {
+    }
+
+    static boolean successful(org.apache.http.HttpResponse response) {
+        int status = response.getStatusLine().getStatusCode();
+        return status >= 200 && status < 300;
+    }
+
+    /**
+     * Completes the download of a response, its body is either still on the connection (sync) or already
+     * in a temporary file (async, see {@link FileResponseConsumer}).
+     */
+    static HttpFileResponse complete(org.apache.http.HttpResponse response, Path target, MapperRegistry mappers) {
+        if (!successful(response)) {
+            return new HttpFileResponse(response, null, 0, mappers);
+        }
+        HttpEntity entity = response.getEntity();
+        try {
+            long written;
+            if (entity instanceof DownloadedEntity && !DecodingInputStream.encoded(response)) {
+                //already on disk as is, only renamed
+                DownloadedEntity downloaded = (DownloadedEntity) entity;
+                commit(downloaded.file, target);
+                written = downloaded.getContentLength();
+            } else {
+                written = write(response, target);
+            }
+            response.setEntity(null);
+            return new HttpFileResponse(response, target, written, mappers);
+        } catch (IOException e) {
+            //releases the connection (sync) or deletes the temporary file (async)
+            EntityUtils.consumeQuietly(entity);
+            throw new RestClientException(e);
+        }
+    }
+
+    private static long write(org.apache.http.HttpResponse response, Path target) throws IOException {
+        Path temp = tempFile(target);
+        try (InputStream decoded = DecodingInputStream.decode(response)) {
+            long written = Files.copy(decoded != null ? decoded : new ByteArrayInputStream(new byte[0]), temp, StandardCopyOption.REPLACE_EXISTING);
+            commit(temp, target);
+            return written;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * A strong ETag, or the last modified date, weak validators can't be used with If-Range
+     */
+    static String validator(org.apache.http.HttpResponse response) {
+        Header etag = response.getFirstHeader(HttpHeaders.ETAG);
+        if (etag != null && !etag.getValue().startsWith("W/")) {
+            return etag.getValue();
+        }
+        Header lastModified = response.getFirstHeader(HttpHeaders.LAST_MODIFIED);
+        return lastModified != null ? lastModified.getValue() : null;
+    }
+
+    /**
+     * Transfers the available content to the file at the given position. A file transfer from the connection can't
+     * tell the end of the stream from no data available, a transfer of nothing is done again with a read, which
+     * fails a body cut short instead of waiting for it forever.
+     */
+    static long transfer(ContentDecoder decoder, FileChannel channel, long position, long count) throws IOException {
+        if (decoder instanceof FileContentDecoder) {
+            long transferred = ((FileContentDecoder) decoder).transfer(channel, position, count);
+            if (transferred != 0) {
+                return transferred;
+            }
+        }
+        return channel.transferFrom(new ContentDecoderChannel(decoder), position, count);
+    }
+
+    static Path tempFile(Path target) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        return Files.createTempFile(dir, "." + target.getFileName(), PART_SUFFIX);
+    }
+
+    static void commit(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * A body downloaded to a temporary file. Consuming the entity (ex: a retried or hedged attempt) deletes the file.
+     */
+    static class DownloadedEntity extends AbstractHttpEntity {
+
+        private final Path file;
+        private final long length;
+
+        DownloadedEntity(HttpEntity entity, Path file, long length) {
+            this.file = file;
+            this.length = length;
+            setContentType(entity.getContentType());
+            setContentEncoding(entity.getContentEncoding());
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return false;
+        }
+
+        @Override
+        public long getContentLength() {
+            return length;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE);
+        }
+
+        @Override
+        public void writeTo(OutputStream outStream) throws IOException {
+            try (InputStream in = getContent()) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    outStream.write(buffer, 0, read);
+                }
+            }
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package io.joshworks.restclient.http;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.entity.ContentBufferEntity;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.nio.util.HeapByteBufferAllocator;
+import org.apache.http.nio.util.SimpleInputBuffer;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes the body of a successful response to a temporary file next to the target, transferred from the connection
+ * to the file channel without passing through a heap buffer. Other responses are buffered in memory, like
+ * {@link org.apache.http.nio.protocol.BasicAsyncResponseConsumer}.
+ */
+class FileResponseConsumer extends AbstractAsyncResponseConsumer<org.apache.http.HttpResponse> {
+
+    private static final int ERROR_BUFFER_SIZE = 4096;
+
+    private final Path target;
+    private org.apache.http.HttpResponse response;
+    private HttpEntity entity;
+    private Path file;
+    private FileChannel channel;
+    private long position;
+    private SimpleInputBuffer buffer;
+
+    FileResponseConsumer(Path target) {
+        this.target = target;
+    }
+
+    @Override
+    protected void onResponseReceived(org.apache.http.HttpResponse response) {
+        this.response = response;
+    }
+
+    @Override
+    protected void onEntityEnclosed(HttpEntity entity, ContentType contentType) throws IOException {
+        if (!FileDownload.successful(response)) {
+            long length = entity.getContentLength();
+            buffer = new SimpleInputBuffer(length > 0 && length < Integer.MAX_VALUE ? (int) length : ERROR_BUFFER_SIZE, HeapByteBufferAllocator.INSTANCE);
+            response.setEntity(new ContentBufferEntity(entity, buffer));
+            return;
+        }
+        this.entity = entity;
+        file = FileDownload.tempFile(target);
+        channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    @Override
+    protected void onContentReceived(ContentDecoder decoder, IOControl ioControl) throws IOException {
+        if (channel == null) {
+            buffer.consumeContent(decoder);
+            return;
+        }
+        long transferred = FileDownload.transfer(decoder, channel, position, Integer.MAX_VALUE);
+        if (transferred > 0) {
+            position += transferred;
+        }
+    }
+
+    @Override
+    protected org.apache.http.HttpResponse buildResult(HttpContext context) throws IOException {
+        if (channel != null) {
+            channel.close();
+            response.setEntity(new FileDownload.DownloadedEntity(entity, file, position));
+        }
+        return response;
+    }
+
+    @Override
+    protected void releaseResources() {
+        if (channel != null) {
+            try {
+                channel.close();
+                if (getResult() == null) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException ignore) {
+            }
+        }
+    }
+}
@@ -1,16 +1,255 @@
 package io.joshworks.restclient.http;
 
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Header multimap, names and values are kept in flat arrays in the order they were added, names are case-insensitive.
+ * Response headers wrap the headers of the response and are only copied when first accessed. Common names are replaced
+ * by shared constants, so looking them up with the {@link HttpHeaders} constants compares by reference.
+ * <p>
+ * As a {@link Map}, each name maps to all of its values, with the case of its first occurrence. The map view is only
+ * built when used, {@link #getFirst(Object)}, {@link #getAll(String)} and {@link #forEachHeader(BiConsumer)} read the
+ * arrays directly.
+ */
+public class Headers extends AbstractMap<String, List<String>> {
+
+    private static final int INITIAL_CAPACITY = 8;
+    private static final Map<String, String> COMMON_NAMES = commonNames(
+            HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_CHARSET, HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ACCEPT_LANGUAGE,
+            HttpHeaders.ACCEPT_RANGES, HttpHeaders.AGE, HttpHeaders.ALLOW, HttpHeaders.AUTHORIZATION,
+            HttpHeaders.CACHE_CONTROL, HttpHeaders.CONNECTION, HttpHeaders.CONTENT_ENCODING, HttpHeaders.CONTENT_LANGUAGE,
+            HttpHeaders.CONTENT_LENGTH, HttpHeaders.CONTENT_LOCATION, HttpHeaders.CONTENT_RANGE, HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.DATE, HttpHeaders.ETAG, HttpHeaders.EXPECT, HttpHeaders.EXPIRES, HttpHeaders.HOST,
+            HttpHeaders.IF_MATCH, HttpHeaders.IF_MODIFIED_SINCE, HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_RANGE,
+            HttpHeaders.LAST_MODIFIED, HttpHeaders.LOCATION, HttpHeaders.PRAGMA, HttpHeaders.RANGE,
+            HttpHeaders.RETRY_AFTER, HttpHeaders.SERVER, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.USER_AGENT,
+            HttpHeaders.VARY, HttpHeaders.VIA, HttpHeaders.WWW_AUTHENTICATE,
+            "Cookie", "Set-Cookie", "Keep-Alive", "Strict-Transport-Security", "X-Request-Id");
+
+    private volatile Header[] source;
+    private String[] names;
+    private String[] values;
+    private int count;
+    private volatile Map<String, List<String>> view;
+
+    public Headers() {
+        this.names = new String[INITIAL_CAPACITY];
+        this.values = new String[INITIAL_CAPACITY];
+    }
+
+    private Headers(Header[] source) {
+        this.source = source;
+    }
 
-public class Headers extends HashMap<String, List<String>> {
+    /**
+     * Headers of a response, read from the given headers when first accessed
+     */
+    static Headers wrap(Header[] headers) {
+        return new Headers(headers);
+    }
 
+    /**
+     * @return The first value of the header, or null if not present
+     */
     public String getFirst(Object key) {
-        List<String> list = get(key);
-        if (list != null && !list.isEmpty()) {
-            return list.get(0);
+        if (!(key instanceof String)) {
+            return null;
+        }
+        materialize();
+        int index = indexOf((String) key, 0);
+        return index >= 0 ? values[index] : null;
+    }
+
+    /**
+     * @return All the values of the header, in the order they were added, empty if not present
+     */
+    public List<String> getAll(String name) {
+        materialize();
+        List<String> found = new ArrayList<>(1);
+        for (int i = indexOf(name, 0); i >= 0; i = indexOf(name, i + 1)) {
+            found.add(values[i]);
+        }
+        return found;
+    }
+
+    /**
+     * Adds a value to the header, keeping the existing ones
+     */
+    public Headers add(String name, String value) {
+        materialize();
+        if (count == names.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, count * 2);
+            names = Arrays.copyOf(names, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        names[count] = intern(name);
+        values[count] = value;
+        count++;
+        view = null;
+        return this;
+    }
+
+    /**
+     * Each name and value pair, in the order they were added. A name with many values is passed once per value.
+     */
+    public void forEachHeader(BiConsumer<String, String> consumer) {
+        materialize();
+        for (int i = 0; i < count; i++) {
+            consumer.accept(names[i], values[i]);
+        }
+    }
+
+    @Override
+    public List<String> get(Object key) {
+        if (!(key instanceof String) || !containsKey(key)) {
+            return null;
+        }
+        return Collections.unmodifiableList(getAll((String) key));
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (!(key instanceof String)) {
+            return false;
+        }
+        materialize();
+        return indexOf((String) key, 0) >= 0;
+    }
+
+    /**
+     * Replaces all the values of the header
+     */
+    @Override
+    public List<String> put(String key, List<String> value) {
+        List<String> previous = remove(key);
+        for (String item : value) {
+            add(key, item);
         }
-        return null;
+        return previous;
     }
 
+    @Override
+    public List<String> remove(Object key) {
+        List<String> previous = get(key);
+        if (previous == null) {
+            return null;
+        }
+        String name = (String) key;
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (names[i] != name && !names[i].equalsIgnoreCase(name)) {
+                names[kept] = names[i];
+                values[kept] = values[i];
+                kept++;
+            }
+        }
+        Arrays.fill(names, kept, count, null);
+        Arrays.fill(values, kept, count, null);
+        count = kept;
+        view = null;
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        materialize();
+        Arrays.fill(names, 0, count, null);
+        Arrays.fill(values, 0, count, null);
+        count = 0;
+        view = null;
+    }
+
+    @Override
+    public int size() {
+        return view().size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        materialize();
+        return count == 0;
+    }
+
+    @Override
+    public Set<Entry<String, List<String>>> entrySet() {
+        return view().entrySet();
+    }
+
+    private Map<String, List<String>> view() {
+        Map<String, List<String>> current = view;
+        if (current != null) {
+            return current;
+        }
+        materialize();
+        Map<String, List<String>> grouped = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            if (indexOf(names[i], 0) == i) {
+                grouped.put(names[i], Collections.unmodifiableList(getAll(names[i])));
+            }
+        }
+        current = Collections.unmodifiableMap(grouped);
+        view = current;
+        return current;
+    }
+
+    private int indexOf(String name, int from) {
+        for (int i = from; i < count; i++) {
+            String candidate = names[i];
+            if (candidate == name || candidate.equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void materialize() {
+        if (source == null) {
+            return;
+        }
+        synchronized (this) {
+            Header[] headers = source;
+            if (headers == null) {
+                return;
+            }
+            int capacity = Math.max(INITIAL_CAPACITY, headers.length);
+            String[] headerNames = new String[capacity];
+            String[] headerValues = new String[capacity];
+            for (int i = 0; i < headers.length; i++) {
+                headerNames[i] = intern(headers[i].getName());
+                headerValues[i] = headers[i].getValue();
+            }
+            names = headerNames;
+            values = headerValues;
+            count = headers.length;
+            source = null;
+        }
+    }
+
+    private static String intern(String name) {
+        String common = COMMON_NAMES.get(name);
+        return common != null ? common : name;
+    }
+
+    private static Map<String, String> commonNames(String... names) {
+        Map<String, String> common = new HashMap<>();
+        for (String name : names) {
+            common.put(name, name);
+            String lowerCase = name.toLowerCase(Locale.ROOT).intern();
+            common.put(lowerCase, lowerCase);
+        }
+        return common;
+    }
 }
@@ -0,0 +1,104 @@
+package io.joshworks.restclient.http;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.util.EntityUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Completes with the first response received from the primary request or its hedge.
+ * The remaining request is cancelled, and a response that arrives late is consumed so its connection is released.
+ * A failure only completes this future when no other request is still running.
+ */
+class HedgedResponse extends CompletableFuture<HttpResponse> {
+
+    private final ClientMetrics metrics;
+    private final List<CompletableFuture<HttpResponse>> requests = new ArrayList<>(2);
+    private Future<?> timer;
+    private int running;
+
+    HedgedResponse(CompletableFuture<HttpResponse> primary, ClientMetrics metrics) {
+        this.metrics = metrics;
+        add(primary, false);
+    }
+
+    void hedgeAfter(long delay, ScheduledExecutorService scheduler, Supplier<CompletableFuture<HttpResponse>> hedge) {
+        try {
+            Future<?> scheduled = scheduler.schedule(() -> {
+                synchronized (this) {
+                    if (isDone()) {
+                        return;
+                    }
+                    CompletableFuture<HttpResponse> request = hedge.get();
+                    if (request != null) {
+                        metrics.hedges.increment();
+                        add(request, true);
+                    }
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+            synchronized (this) {
+                timer = scheduled;
+                if (isDone()) {
+                    timer.cancel(false);
+                }
+            }
+        } catch (RejectedExecutionException e) {
+            //client closed, the primary request completes on its own
+        }
+    }
+
+    private synchronized void add(CompletableFuture<HttpResponse> request, boolean hedge) {
+        requests.add(request);
+        running++;
+        request.whenComplete((response, error) -> onComplete(request, response, error, hedge));
+    }
+
+    private synchronized void onComplete(CompletableFuture<HttpResponse> request, HttpResponse response, Throwable error, boolean hedge) {
+        running--;
+        if (error == null) {
+            if (isDone()) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                return;
+            }
+            if (hedge) {
+                metrics.hedgesWon.increment();
+            }
+            if (complete(response)) {
+                cancelOthers(request);
+            } else {
+                EntityUtils.consumeQuietly(response.getEntity());
+            }
+            return;
+        }
+        if (running == 0 && completeExceptionally(error)) {
+            cancelOthers(request);
+        }
+    }
+
+    private void cancelOthers(CompletableFuture<HttpResponse> winner) {
+        if (timer != null) {
+            timer.cancel(false);
+        }
+        for (CompletableFuture<HttpResponse> request : requests) {
+            if (request != winner) {
+                request.cancel(true);
+            }
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        synchronized (this) {
+            cancelOthers(null);
+        }
+        return cancelled;
+    }
+}
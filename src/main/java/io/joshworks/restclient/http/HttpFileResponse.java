@@ -0,0 +1,37 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.http.mapper.MapperRegistry;
+
+import java.nio.file.Path;
+
+/**
+ * Response of a download to a file. The body of a successful (2xx) response is written to the file, any other response
+ * is read in memory as usual, ex: {@link #asString()}, and leaves the file untouched.
+ */
+public class HttpFileResponse extends HttpResponse<Path> {
+
+    private final Path file;
+    private final long bytesWritten;
+
+    HttpFileResponse(org.apache.http.HttpResponse response, Path file, long bytesWritten, MapperRegistry mappers) {
+        super(response, Path.class, mappers);
+        this.file = file;
+        this.bytesWritten = bytesWritten;
+    }
+
+    /**
+     * @return The file the body was written to, or null if the response was not successful
+     */
+    @Override
+    public Path body() {
+        return file;
+    }
+
+    /**
+     * @return Bytes written to the file by this request, after decoding the content coding (if any).
+     * A resumed download only writes the missing part of the body.
+     */
+    public long bytesWritten() {
+        return bytesWritten;
+    }
+}
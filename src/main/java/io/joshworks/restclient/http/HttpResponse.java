@@ -28,9 +28,8 @@ package io.joshworks.restclient.http;
 import io.joshworks.restclient.Constants;
 import io.joshworks.restclient.http.exceptions.RestClientException;
 import io.joshworks.restclient.http.mapper.ObjectMapper;
-import io.joshworks.restclient.http.mapper.ObjectMappers;
+import io.joshworks.restclient.http.mapper.MapperRegistry;
 import io.joshworks.restclient.http.utils.ResponseUtils;
-import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
 import org.apache.http.StatusLine;
@@ -41,9 +40,6 @@ import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.zip.GZIPInputStream;
 
 public class HttpResponse<T> implements Closeable {
 
@@ -52,12 +48,14 @@ public class HttpResponse<T> implements Closeable {
     private final Headers headers;
     protected final InputStream rawBody;
     private final Class<T> responseClass;
+    private final MapperRegistry mappers;
     private byte[] cached;
 
-    HttpResponse(org.apache.http.HttpResponse response, Class<T> responseClass) {
-        this.headers = responseHeaders(response);
+    HttpResponse(org.apache.http.HttpResponse response, Class<T> responseClass, MapperRegistry mappers) {
+        this.headers = Headers.wrap(response.getAllHeaders());
         this.rawBody = consumeBody(response);
         this.responseClass = responseClass;
+        this.mappers = mappers;
 
         StatusLine statusLine = response.getStatusLine();
         if (statusLine != null) {
@@ -69,20 +67,33 @@ public class HttpResponse<T> implements Closeable {
         }
     }
 
+    /**
+     * Response reading its body with the mappers registered in {@link io.joshworks.restclient.http.mapper.ObjectMappers}
+     */
     public static <T> HttpResponse<T> create(HttpRequestBase request, org.apache.http.HttpResponse response, Class<T> responseClass) {
+        return create(request, response, responseClass, MapperRegistry.EMPTY);
+    }
+
+    /**
+     * @param mappers Mappers of the client, the ones registered in {@link io.joshworks.restclient.http.mapper.ObjectMappers}
+     *                are used for the media types it has no mapper for
+     */
+    public static <T> HttpResponse<T> create(HttpRequestBase request, org.apache.http.HttpResponse response, Class<T> responseClass, MapperRegistry mappers) {
         if (responseClass == InputStream.class) {
-            return new HttpStreamResponse<>(response, responseClass, request);
+            return new HttpStreamResponse<>(response, responseClass, request, mappers);
         }
-        return new HttpResponse<>(response, responseClass);
+        return new HttpResponse<>(response, responseClass, mappers);
     }
 
 
     protected InputStream consumeBody(org.apache.http.HttpResponse response) {
         HttpEntity responseEntity = response.getEntity();
         try {
-            if (responseEntity != null) {
-                InputStream entity = getEntity(responseEntity);
-                return new ByteArrayInputStream(ResponseUtils.readBytes(entity));
+            InputStream entity = DecodingInputStream.decode(response);
+            if (entity != null) {
+                try (InputStream decoded = entity) {
+                    return new ByteArrayInputStream(ResponseUtils.readBytes(decoded));
+                }
             }
             return null;
         } catch (IOException ex) {
@@ -92,27 +103,6 @@ public class HttpResponse<T> implements Closeable {
         }
     }
 
-    private InputStream getEntity(HttpEntity responseEntity) throws IOException {
-        if (ResponseUtils.isGzipped(responseEntity.getContentEncoding()) && responseEntity.getContentLength() > 0) {
-            return new GZIPInputStream(responseEntity.getContent());
-        }
-        return responseEntity.getContent();
-    }
-
-    private Headers responseHeaders(org.apache.http.HttpResponse response) {
-        Headers headers = new Headers();
-        Header[] allHeaders = response.getAllHeaders();
-        for (Header header : allHeaders) {
-            String headerName = header.getName();
-            List<String> list = headers.get(headerName);
-            if (list == null)
-                list = new ArrayList<>();
-            list.add(header.getValue());
-            headers.put(headerName, list);
-        }
-        return headers;
-    }
-
     public int getStatus() {
         return statusCode;
     }
@@ -126,8 +116,8 @@ public class HttpResponse<T> implements Closeable {
     }
 
     /**
-     * @return Response Headers (map) with <b>same case</b> as server response.
-     * For instance use <code>getHeaders().getFirst("Location")</code> and not <code>getHeaders().getFirst("location")</code> to get first header "Location"
+     * @return Response Headers, names are case-insensitive: <code>getHeaders().getFirst("location")</code> returns the
+     * first "Location" header. Names keep the case sent by the server.
      */
     public Headers getHeaders() {
         return headers;
@@ -194,16 +184,12 @@ public class HttpResponse<T> implements Closeable {
     }
 
     private String getCharset() {
-        String charset = Constants.UTF_8;
-
         String contentType = headers.getFirst(HttpHeaders.CONTENT_TYPE);
-        if (contentType != null) {
-            String responseCharset = ResponseUtils.getCharsetFromContentType(contentType);
-            if (responseCharset != null && !responseCharset.trim().equals("")) {
-                charset = responseCharset;
-            }
+        if (contentType == null) {
+            return Constants.UTF_8;
         }
-        return charset;
+        String charset = ParsedContentType.of(contentType).charset;
+        return charset != null ? charset : Constants.UTF_8;
     }
 
     private ObjectMapper getObjectMapper() {
@@ -211,8 +197,7 @@ public class HttpResponse<T> implements Closeable {
         if (contentType == null) {
             throw new RestClientException("Response Content-Type header not found");
         }
-        MediaType mediaType = MediaType.valueOf(contentType);
-        ObjectMapper mapper = ObjectMappers.getMapper(mediaType);
+        ObjectMapper mapper = mappers.getMapper(ParsedContentType.of(contentType).baseType());
         if (mapper == null) {
             throw new RestClientException("No ObjectMapper found for response with Content-Type: " + contentType);
         }
@@ -26,6 +26,7 @@ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
 package io.joshworks.restclient.http;
 
 import io.joshworks.restclient.http.exceptions.RestClientException;
+import io.joshworks.restclient.http.mapper.MapperRegistry;
 import org.apache.http.client.methods.HttpRequestBase;
 
 import java.io.IOException;
@@ -35,8 +36,8 @@ class HttpStreamResponse<T> extends HttpResponse<T> {
 
     private final HttpRequestBase request;
 
-    HttpStreamResponse(org.apache.http.HttpResponse response, Class<T> responseClass, HttpRequestBase request) {
-        super(response, responseClass);
+    HttpStreamResponse(org.apache.http.HttpResponse response, Class<T> responseClass, HttpRequestBase request, MapperRegistry mappers) {
+        super(response, responseClass, mappers);
         this.request = request;
     }
 
@@ -48,7 +49,7 @@ class HttpStreamResponse<T> extends HttpResponse<T> {
     @Override
     protected InputStream consumeBody(org.apache.http.HttpResponse response) {
         try {
-            return response.getEntity().getContent();
+            return DecodingInputStream.decode(response);
         } catch (IOException e) {
             throw new RestClientException(e);
         }
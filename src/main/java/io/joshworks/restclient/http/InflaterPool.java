@@ -0,0 +1,37 @@
+package io.joshworks.restclient.http;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Inflater;
+
+/**
+ * Inflaters hold native memory that is only released by end() or finalization, decoding every response with a new
+ * one churns native allocations. Released inflaters are reset and kept for the next response, up to a bound.
+ */
+final class InflaterPool {
+
+    private static final int MAX_POOLED = 64;
+
+    //zlib wrapped (deflate) and raw (gzip, and deflate sent without the zlib wrapper) inflaters are not interchangeable
+    private static final BlockingQueue<Inflater> WRAPPED = new ArrayBlockingQueue<>(MAX_POOLED);
+    private static final BlockingQueue<Inflater> RAW = new ArrayBlockingQueue<>(MAX_POOLED);
+
+    private InflaterPool() {
+    }
+
+    static Inflater borrow(boolean nowrap) {
+        Inflater inflater = pool(nowrap).poll();
+        return inflater != null ? inflater : new Inflater(nowrap);
+    }
+
+    static void release(Inflater inflater, boolean nowrap) {
+        inflater.reset();
+        if (!pool(nowrap).offer(inflater)) {
+            inflater.end();
+        }
+    }
+
+    private static BlockingQueue<Inflater> pool(boolean nowrap) {
+        return nowrap ? RAW : WRAPPED;
+    }
+}
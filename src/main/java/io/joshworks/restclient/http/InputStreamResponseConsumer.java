@@ -0,0 +1,178 @@
+package io.joshworks.restclient.http;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.BasicHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.nio.util.SharedInputBuffer;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hands the response over as soon as its head arrives, with a body stream read from a bounded buffer that the I/O
+ * dispatcher fills as the caller reads. Input is suspended on the connection while the buffer is full, so a body of
+ * any size is held to the buffer size. The exchange (and the connection) completes when the body is fully received.
+ * <p>
+ * Closing the body before the end aborts the exchange instead of draining it, the connection is discarded.
+ */
+class InputStreamResponseConsumer extends AbstractAsyncResponseConsumer<org.apache.http.HttpResponse> {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FutureCallback<org.apache.http.HttpResponse> delegate;
+    private final AtomicBoolean delivered = new AtomicBoolean();
+    private final BodyBuffer buffer = new BodyBuffer();
+    private volatile org.apache.http.HttpResponse response;
+    private volatile Future<?> exchange;
+    private volatile boolean aborted;
+
+    /**
+     * @param delegate Receives the response when its head arrives, or the failure if it never does
+     */
+    InputStreamResponseConsumer(FutureCallback<org.apache.http.HttpResponse> delegate) {
+        this.delegate = delegate;
+    }
+
+    void exchange(Future<?> exchange) {
+        this.exchange = exchange;
+        if (aborted) {
+            exchange.cancel(true);
+        }
+    }
+
+    /**
+     * The callback of the exchange, failures after the response was handed over are reported by the body stream
+     */
+    final FutureCallback<org.apache.http.HttpResponse> callback = new FutureCallback<org.apache.http.HttpResponse>() {
+        @Override
+        public void completed(org.apache.http.HttpResponse result) {
+            deliver(result);
+        }
+
+        @Override
+        public void failed(Exception ex) {
+            if (delivered.compareAndSet(false, true)) {
+                delegate.failed(ex);
+            }
+        }
+
+        @Override
+        public void cancelled() {
+            if (delivered.compareAndSet(false, true)) {
+                delegate.cancelled();
+            }
+        }
+    };
+
+    @Override
+    protected void onResponseReceived(org.apache.http.HttpResponse response) {
+        this.response = response;
+    }
+
+    @Override
+    protected void onEntityEnclosed(HttpEntity entity, ContentType contentType) {
+        BasicHttpEntity streamed = new BasicHttpEntity();
+        streamed.setContentType(entity.getContentType());
+        streamed.setContentEncoding(entity.getContentEncoding());
+        streamed.setContentLength(entity.getContentLength());
+        streamed.setChunked(entity.isChunked());
+        streamed.setContent(new BodyStream());
+        response.setEntity(streamed);
+        deliver(response);
+    }
+
+    @Override
+    protected void onContentReceived(ContentDecoder decoder, IOControl ioControl) throws IOException {
+        buffer.consumeContent(decoder, ioControl);
+    }
+
+    @Override
+    protected org.apache.http.HttpResponse buildResult(HttpContext context) {
+        return response;
+    }
+
+    @Override
+    protected void releaseResources() {
+        //unread content stays available to the body stream after a successful exchange
+        if (getResult() == null) {
+            buffer.shutdown();
+        }
+    }
+
+    private void deliver(org.apache.http.HttpResponse response) {
+        if (delivered.compareAndSet(false, true)) {
+            delegate.completed(response);
+        }
+    }
+
+    private void abort() {
+        aborted = true;
+        buffer.shutdown();
+        Future<?> current = exchange;
+        if (current != null) {
+            current.cancel(true);
+        }
+    }
+
+    private class BodyStream extends InputStream {
+
+        private boolean closed;
+
+        @Override
+        public int read() throws IOException {
+            return check(buffer.read());
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return len == 0 ? 0 : check(buffer.read(b, off, len));
+        }
+
+        @Override
+        public int available() {
+            return buffer.available();
+        }
+
+        //a shut down buffer reads as the end of the stream, it must not pass for a complete body
+        private int check(int read) throws IOException {
+            if (read == -1 && buffer.aborted()) {
+                Exception failure = getException();
+                throw failure instanceof IOException ? (IOException) failure : new IOException(aborted ? "Response body closed" : "Response body truncated", failure);
+            }
+            return read;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (!buffer.received()) {
+                abort();
+            }
+        }
+    }
+
+    private static class BodyBuffer extends SharedInputBuffer {
+
+        private BodyBuffer() {
+            super(BUFFER_SIZE);
+        }
+
+        private boolean aborted() {
+            return isShutdown();
+        }
+
+        private boolean received() {
+            return isEndOfStream();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.http.exceptions.RestClientException;
+import io.joshworks.restclient.http.mapper.ObjectMapper;
+import org.apache.http.HttpHeaders;
+import org.apache.http.entity.ContentType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Queue;
+
+/**
+ * Splits a JSON array or a newline delimited JSON (NDJSON) body into its elements as the bytes arrive, so each element
+ * is mapped as soon as it's complete and only the element being read is kept in memory.
+ * Structural characters are always single bytes in UTF-8, so the array is scanned without decoding the text.
+ */
+class JsonElementDecoder<T> implements StreamingResponseConsumer.ChunkDecoder<T> {
+
+    private final Class<T> type;
+    private final boolean delimited;
+    private final ObjectMapper mapper;
+
+    private byte[] element = new byte[256];
+    private int length;
+    private boolean started;
+    private boolean ended;
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+
+    private JsonElementDecoder(Class<T> type, boolean delimited, ObjectMapper mapper) {
+        this.type = type;
+        this.delimited = delimited;
+        this.mapper = mapper;
+    }
+
+    /**
+     * NDJSON when the response Content-Type is application/x-ndjson (or jsonl), a JSON array otherwise
+     */
+    static <T> JsonElementDecoder<T> forResponse(org.apache.http.HttpResponse response, Class<T> type, ObjectMapper mapper) {
+        String contentType = response.getFirstHeader(HttpHeaders.CONTENT_TYPE) == null ? null : response.getFirstHeader(HttpHeaders.CONTENT_TYPE).getValue();
+        String mimeType = contentType == null ? "" : ContentType.parse(contentType).getMimeType().toLowerCase(Locale.ROOT);
+        return new JsonElementDecoder<>(type, mimeType.contains("ndjson") || mimeType.contains("jsonl"), mapper);
+    }
+
+    @Override
+    public void decode(ByteBuffer chunk, Queue<T> out) {
+        while (chunk.hasRemaining()) {
+            byte b = chunk.get();
+            if (delimited) {
+                if (b == '\n') {
+                    flush(out);
+                } else {
+                    append(b);
+                }
+            } else {
+                scan(b, out);
+            }
+        }
+    }
+
+    @Override
+    public void finish(Queue<T> out) {
+        if (delimited) {
+            flush(out);
+        } else if (started && !ended) {
+            throw new RestClientException("Unexpected end of JSON array");
+        }
+    }
+
+    private void scan(byte b, Queue<T> out) {
+        if (ended) {
+            return;
+        }
+        if (!started) {
+            if (b == '[') {
+                started = true;
+            } else if (!whitespace(b)) {
+                throw new RestClientException("Response body is not a JSON array");
+            }
+            return;
+        }
+        if (inString) {
+            append(b);
+            if (escaped) {
+                escaped = false;
+            } else if (b == '\\') {
+                escaped = true;
+            } else if (b == '"') {
+                inString = false;
+            }
+            return;
+        }
+        switch (b) {
+            case '"':
+                inString = true;
+                append(b);
+                break;
+            case '{':
+            case '[':
+                depth++;
+                append(b);
+                break;
+            case '}':
+                depth--;
+                append(b);
+                break;
+            case ']':
+                if (depth == 0) {
+                    flush(out);
+                    ended = true;
+                } else {
+                    depth--;
+                    append(b);
+                }
+                break;
+            case ',':
+                if (depth == 0) {
+                    flush(out);
+                } else {
+                    append(b);
+                }
+                break;
+            default:
+                if (depth > 0 || !whitespace(b)) {
+                    append(b);
+                }
+        }
+    }
+
+    private void append(byte b) {
+        if (length == element.length) {
+            element = Arrays.copyOf(element, length * 2);
+        }
+        element[length++] = b;
+    }
+
+    private void flush(Queue<T> out) {
+        String json = new String(element, 0, length, StandardCharsets.UTF_8).trim();
+        length = 0;
+        if (!json.isEmpty()) {
+            out.add(convert(json));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T convert(String json) {
+        if (String.class.equals(type)) {
+            return (T) json;
+        }
+        if (JsonNode.class.equals(type)) {
+            return (T) new JsonNode(json);
+        }
+        return mapper.readValue(json, type);
+    }
+
+    private static boolean whitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+}
@@ -0,0 +1,49 @@
+package io.joshworks.restclient.http;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps the most recent response times of a route and periodically computes a percentile from them.
+ * Samples are overwritten without locking, the percentile is an estimate.
+ */
+class LatencyWindow {
+
+    private static final int SIZE = 256;
+    private static final int REFRESH_INTERVAL = 32;
+
+    private final AtomicLongArray samples = new AtomicLongArray(SIZE);
+    private final AtomicLong count = new AtomicLong();
+    private final double percentile;
+    private volatile long value = -1;
+
+    LatencyWindow(double percentile) {
+        this.percentile = percentile;
+    }
+
+    void record(long millis) {
+        long n = count.getAndIncrement();
+        samples.set((int) (n % SIZE), millis);
+        if ((n + 1) % REFRESH_INTERVAL == 0) {
+            refresh((int) Math.min(n + 1, SIZE));
+        }
+    }
+
+    /**
+     * @return The percentile of the recent response times in milliseconds, or -1 if there are not enough samples yet
+     */
+    long percentile() {
+        return value;
+    }
+
+    private void refresh(int size) {
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * size) - 1;
+        value = sorted[Math.max(0, Math.min(size - 1, index))];
+    }
+}
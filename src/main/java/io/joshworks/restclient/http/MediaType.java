@@ -108,6 +108,14 @@ public class MediaType {
      * "application/json"
      */
     public final static MediaType APPLICATION_JSON_TYPE = new MediaType("application", "json");
+    /**
+     * "application/x-ndjson"
+     */
+    public final static String APPLICATION_NDJSON = "application/x-ndjson";
+    /**
+     * "application/x-ndjson"
+     */
+    public final static MediaType APPLICATION_NDJSON_TYPE = new MediaType("application", "x-ndjson");
     /**
      * "application/x-www-form-urlencoded"
      */
@@ -165,6 +173,8 @@ public class MediaType {
     private String type;
     private String subtype;
     private Map<String, String> parameters = new HashMap<>();
+    //instances are used as keys to resolve mappers, the hash lowercases both types
+    private int hash;
 
     /**
      * Creates a new instance of MediaType with the supplied type, subtype and
@@ -181,7 +191,7 @@ public class MediaType {
         this.type = type == null ? MEDIA_TYPE_WILDCARD : type;
         this.subtype = subtype == null ? MEDIA_TYPE_WILDCARD : subtype;
         if (parameters == null) {
-            this.parameters = new HashMap<>();
+            this.parameters = Collections.emptyMap();
         } else {
             Map<String, String> map = new TreeMap<>(String::compareToIgnoreCase);
             for (Map.Entry<String, String> e : parameters.entrySet()) {
@@ -363,7 +373,12 @@ public class MediaType {
 
     @Override
     public int hashCode() {
-        return (this.type.toLowerCase() + this.subtype.toLowerCase()).hashCode() + this.parameters.hashCode();
+        int h = hash;
+        if (h == 0) {
+            h = (this.type.toLowerCase() + this.subtype.toLowerCase()).hashCode() + this.parameters.hashCode();
+            hash = h;
+        }
+        return h;
     }
 
 
@@ -0,0 +1,76 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.http.utils.ResponseUtils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A Content-Type header value parsed once: the media type and the charset. Servers send the same few values over and
+ * over, parsed values are kept in a bounded cache keyed by the raw header value, so reading them is a single lookup.
+ * The cache is emptied when full, which only costs parsing the values again.
+ */
+public final class ParsedContentType {
+
+    private static final int MAX_ENTRIES = 256;
+    private static final ConcurrentMap<String, ParsedContentType> cache = new ConcurrentHashMap<>();
+
+    public final String value;
+    /**
+     * The charset parameter, uppercased, or null if not present
+     */
+    public final String charset;
+    private final MediaType mediaType;
+    private final MediaType baseType;
+    private final IllegalArgumentException invalid;
+
+    private ParsedContentType(String value) {
+        this.value = value;
+        String parsedCharset = ResponseUtils.getCharsetFromContentType(value);
+        this.charset = parsedCharset == null || parsedCharset.trim().isEmpty() ? null : parsedCharset;
+        MediaType parsed = null;
+        IllegalArgumentException error = null;
+        try {
+            parsed = MediaType.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            error = e;
+        }
+        this.mediaType = parsed;
+        this.baseType = parsed == null || parsed.getParameters().isEmpty() ? parsed : new MediaType(parsed.getType(), parsed.getSubtype());
+        this.invalid = error;
+    }
+
+    public static ParsedContentType of(String value) {
+        ParsedContentType parsed = cache.get(value);
+        if (parsed != null) {
+            return parsed;
+        }
+        if (cache.size() >= MAX_ENTRIES) {
+            cache.clear();
+        }
+        return cache.computeIfAbsent(value, ParsedContentType::new);
+    }
+
+    /**
+     * @return The media type
+     * @throws IllegalArgumentException if the value isn't a valid media type
+     */
+    public MediaType mediaType() {
+        if (invalid != null) {
+            throw invalid;
+        }
+        return mediaType;
+    }
+
+    /**
+     * @return The media type without its parameters, the same instance on every call. Parameters (ex: charset) don't
+     * select the mapper, looking it up with this type doesn't allocate a key.
+     * @throws IllegalArgumentException if the value isn't a valid media type
+     */
+    public MediaType baseType() {
+        if (invalid != null) {
+            throw invalid;
+        }
+        return baseType;
+    }
+}
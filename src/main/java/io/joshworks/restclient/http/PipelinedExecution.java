@@ -0,0 +1,293 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.http.pipeline.PipelinePolicy;
+import io.joshworks.restclient.request.HttpRequest;
+import org.apache.http.HttpConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.protocol.BasicAsyncResponseConsumer;
+import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Sends a list of requests to a single route in pipelines of at most the max depth, each pipeline on its own connection.
+ * When a pipeline fails, the responses already received are kept and the unanswered requests are sent again through
+ * the regular async path.
+ * <p>
+ * Pipelined requests are written as a batch on a connection of their own, they bypass the circuit breaker, rate limit
+ * and concurrency limit of the route and aren't recorded in its stats. Requests sent again go through all of them.
+ */
+class PipelinedExecution<T> {
+
+    private static final long CLOSE_CHECK_INTERVAL = 50;
+
+    private final RestClient client;
+    private final Class<T> responseClass;
+    private final List<ClientRequest> clientRequests = new ArrayList<>();
+    private final List<HttpRequestBase> requestObjs = new ArrayList<>();
+    private final List<CancellableFuture<HttpResponse<T>>> results = new ArrayList<>();
+    private final HttpHost host;
+
+    PipelinedExecution(RestClient client, List<? extends HttpRequest> requests, Class<T> responseClass) {
+        this.client = client;
+        this.responseClass = responseClass;
+
+        PipelinePolicy policy = client.pipelinePolicy;
+        String route = null;
+        for (HttpRequest request : requests) {
+            if (!policy.pipelineable(request.getHttpMethod())) {
+                throw new IllegalArgumentException("Method " + request.getHttpMethod() + " can't be pipelined");
+            }
+            ClientRequest clientRequest = new ClientRequest(request.getHttpMethod(), request.getUrl(), client, null);
+            HttpRequestBase requestObj = clientRequest.prepareAsync(request);
+            String key = Route.key(requestObj.getURI());
+            if (route != null && !route.equals(key)) {
+                throw new IllegalArgumentException("Pipelined requests must target the same route, found " + route + " and " + key);
+            }
+            route = key;
+            clientRequests.add(clientRequest);
+            requestObjs.add(requestObj);
+            results.add(new CancellableFuture<>());
+        }
+        this.host = requestObjs.isEmpty() ? null : URIUtils.extractHost(requestObjs.get(0).getURI());
+    }
+
+    CompletableFuture<List<HttpResponse<T>>> start() {
+        CompletableFuture<List<HttpResponse<T>>> all = new CompletableFuture<List<HttpResponse<T>>>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                boolean cancelled = super.cancel(mayInterruptIfRunning);
+                results.forEach(result -> result.cancel(mayInterruptIfRunning));
+                return cancelled;
+            }
+        };
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).whenComplete((ignore, error) -> {
+            if (error != null) {
+                all.completeExceptionally(error);
+            } else {
+                all.complete(results.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+            }
+        });
+        if (results.isEmpty()) {
+            return all;
+        }
+
+        clientRequests.get(0).startAsyncClient();
+        if (!client.pipeliningClient.isRunning()) {
+            client.pipeliningClient.start();
+        }
+        int maxDepth = client.pipelinePolicy.maxDepth;
+        for (int from = 0; from < results.size(); from += maxDepth) {
+            send(from, Math.min(from + maxDepth, results.size()));
+        }
+        return all;
+    }
+
+    private void send(int from, int to) {
+        new Pipeline(from, to).send();
+    }
+
+    /**
+     * A batch of requests written to the same connection
+     */
+    private class Pipeline implements FutureCallback<List<org.apache.http.HttpResponse>> {
+
+        private final int from;
+        private final int to;
+        private final List<BasicAsyncResponseConsumer> consumers = new ArrayList<>();
+        private final AtomicBoolean settled = new AtomicBoolean();
+        private final HttpClientContext context = HttpClientContext.create();
+        private volatile Future<?> future;
+        private volatile Future<?> watchdog;
+        //handed over by the I/O dispatcher, the context itself is only safe to read from that thread
+        private volatile HttpConnection connection;
+
+        private Pipeline(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        private void send() {
+            List<HttpAsyncRequestProducer> producers = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                HttpAsyncRequestProducer producer = HttpAsyncMethods.create(host, requestObjs.get(i));
+                producers.add(i == from ? new ConnectionHandoff(producer) : producer);
+                consumers.add(new BasicAsyncResponseConsumer());
+            }
+            context.setRequestConfig(client.requestConfig);
+            context.setCookieStore(client.cookieStore());
+
+            client.metrics.pipelines.increment();
+            client.metrics.pipelinedRequests.add(to - from);
+            future = client.pipeliningClient.execute(host, producers, consumers, context, this);
+            for (int i = from; i < to; i++) {
+                results.get(i).upstream(future);
+            }
+            watchdog = client.scheduler.scheduleWithFixedDelay(this::checkConnection, CLOSE_CHECK_INTERVAL, CLOSE_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+            if (settled.get()) {
+                watchdog.cancel(false);
+            }
+        }
+
+        /**
+         * The pipelining client only fails a pipeline closed in the middle of a message, when the server closes the
+         * connection between responses (ex: Connection: close, or discarding the pipeline) it's never completed
+         */
+        private void checkConnection() {
+            HttpConnection connection = this.connection;
+            if (connection != null && !connection.isOpen()) {
+                salvage();
+            }
+        }
+
+        private boolean settle() {
+            if (!settled.compareAndSet(false, true)) {
+                return false;
+            }
+            Future<?> current = watchdog;
+            if (current != null) {
+                current.cancel(false);
+            }
+            return true;
+        }
+
+        @Override
+        public void completed(List<org.apache.http.HttpResponse> responses) {
+            if (settle()) {
+                for (int i = from; i < to; i++) {
+                    complete(i, responses.get(i - from));
+                }
+            }
+        }
+
+        @Override
+        public void failed(Exception ex) {
+            salvage();
+        }
+
+        @Override
+        public void cancelled() {
+            if (settle()) {
+                for (int i = from; i < to; i++) {
+                    results.get(i).cancel(true);
+                }
+            }
+        }
+
+        /**
+         * Keeps the responses received and sends the other requests again, the pipeline itself is abandoned
+         */
+        private void salvage() {
+            if (!settle()) {
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                org.apache.http.HttpResponse response = consumers.get(i - from).getResult();
+                if (response != null) {
+                    complete(i, response);
+                } else {
+                    fallback(i);
+                }
+            }
+            Future<?> current = future;
+            if (current != null) {
+                current.cancel(true);
+            }
+        }
+
+        /**
+         * Publishes the connection of the pipeline as its first request is generated, on the I/O dispatcher,
+         * once the connection was leased
+         */
+        private class ConnectionHandoff implements HttpAsyncRequestProducer {
+
+            private final HttpAsyncRequestProducer delegate;
+
+            private ConnectionHandoff(HttpAsyncRequestProducer delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public HttpHost getTarget() {
+                return delegate.getTarget();
+            }
+
+            @Override
+            public org.apache.http.HttpRequest generateRequest() throws IOException, HttpException {
+                connection = context.getConnection();
+                return delegate.generateRequest();
+            }
+
+            @Override
+            public void produceContent(ContentEncoder encoder, IOControl ioctrl) throws IOException {
+                delegate.produceContent(encoder, ioctrl);
+            }
+
+            @Override
+            public void requestCompleted(HttpContext context) {
+                delegate.requestCompleted(context);
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                delegate.failed(ex);
+            }
+
+            @Override
+            public boolean isRepeatable() {
+                return delegate.isRepeatable();
+            }
+
+            @Override
+            public void resetRequest() throws IOException {
+                delegate.resetRequest();
+            }
+
+            @Override
+            public void close() throws IOException {
+                delegate.close();
+            }
+        }
+    }
+
+    private void complete(int index, org.apache.http.HttpResponse response) {
+        try {
+            results.get(index).complete(HttpResponse.create(requestObjs.get(index), response, responseClass, client.mappers));
+        } catch (Exception e) {
+            results.get(index).completeExceptionally(e);
+        }
+    }
+
+    private void fallback(int index) {
+        CancellableFuture<HttpResponse<T>> result = results.get(index);
+        if (result.isDone()) {
+            return;
+        }
+        client.metrics.pipelineFallbacks.increment();
+        CompletableFuture<HttpResponse<T>> retry = clientRequests.get(index).requestAsync(requestObjs.get(index), responseClass);
+        result.upstream(retry);
+        retry.whenComplete((response, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(response);
+            }
+        });
+    }
+}
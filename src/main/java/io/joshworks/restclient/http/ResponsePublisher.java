@@ -0,0 +1,55 @@
+package io.joshworks.restclient.http;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A response body as a {@link Publisher}, the request is only sent when subscribed. A response can be read once,
+ * so only a single subscriber is allowed.
+ */
+class ResponsePublisher<T> implements Publisher<T> {
+
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private final Consumer<StreamingResponseConsumer<T>> exchange;
+    private final Function<org.apache.http.HttpResponse, StreamingResponseConsumer.ChunkDecoder<T>> decoders;
+
+    ResponsePublisher(Function<org.apache.http.HttpResponse, StreamingResponseConsumer.ChunkDecoder<T>> decoders, Consumer<StreamingResponseConsumer<T>> exchange) {
+        this.decoders = decoders;
+        this.exchange = exchange;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(NoopSubscription.INSTANCE);
+            subscriber.onError(new IllegalStateException("Response publisher allows a single subscriber"));
+            return;
+        }
+        StreamingResponseConsumer<T> consumer = new StreamingResponseConsumer<>(subscriber, decoders);
+        subscriber.onSubscribe(consumer.subscription);
+        if (!consumer.isCancelled()) {
+            try {
+                exchange.accept(consumer);
+            } catch (Exception e) {
+                consumer.fail(e);
+            }
+        }
+    }
+
+    private enum NoopSubscription implements Subscription {
+        INSTANCE;
+
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+}
@@ -25,27 +25,64 @@ WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
 
 package io.joshworks.restclient.http;
 
+import io.joshworks.restclient.http.balancer.Endpoint;
+import io.joshworks.restclient.http.balancer.EndpointGroup;
+import io.joshworks.restclient.http.balancer.LoadBalancerPolicy;
+import io.joshworks.restclient.http.circuit.CircuitBreaker;
+import io.joshworks.restclient.http.circuit.CircuitBreakerPolicy;
+import io.joshworks.restclient.http.exceptions.RestClientException;
+import io.joshworks.restclient.http.fanout.FanOutPolicy;
+import io.joshworks.restclient.http.hedge.HedgePolicy;
+import io.joshworks.restclient.http.limit.ConcurrencyLimitPolicy;
+import io.joshworks.restclient.http.limit.ConcurrencyLimiter;
+import io.joshworks.restclient.http.compress.CompressionPolicy;
+import io.joshworks.restclient.http.mapper.MapperRegistry;
+import io.joshworks.restclient.http.pipeline.PipelinePolicy;
+import io.joshworks.restclient.http.ratelimit.RateLimitPolicy;
+import io.joshworks.restclient.http.ratelimit.RateLimiter;
+import io.joshworks.restclient.http.retry.RetryBudget;
+import io.joshworks.restclient.http.retry.RetryPolicy;
 import io.joshworks.restclient.http.utils.ClientStats;
+import io.joshworks.restclient.http.utils.RouteStats;
 import io.joshworks.restclient.request.GetRequest;
+import io.joshworks.restclient.request.HttpRequest;
 import io.joshworks.restclient.request.HttpRequestWithBody;
 import org.apache.http.client.CookieStore;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.CloseableHttpPipeliningClient;
 import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
 import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
 import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
 import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.nio.reactor.IOReactorStatus;
+import org.apache.http.pool.PoolStats;
 
 import java.io.Closeable;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.StringJoiner;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static io.joshworks.restclient.http.utils.Constants.PATH_SEPARATOR;
 
@@ -58,38 +95,108 @@ public class RestClient implements Closeable {
     private final Function<String, String> urlTransformer;
 
     private final String baseUrl;
+    final EndpointGroup endpoints;
     private final PoolingNHttpClientConnectionManager asyncConnectionManager;
     private final PoolingHttpClientConnectionManager syncConnectionManager;
+    private final DefaultConnectingIOReactor ioReactor;
 
-    private final Map<String, Object> defaultHeaders = new HashMap<>();
+    final Map<String, Object> defaultHeaders = new HashMap<>();
 
-    private final CloseableHttpAsyncClient asyncClient;
-    private final CloseableHttpClient syncClient;
+    final CloseableHttpAsyncClient asyncClient;
+    final CloseableHttpClient syncClient;
+    final CloseableHttpPipeliningClient pipeliningClient;
     private final CookieStore cookieStore;
+    final RequestConfig requestConfig;
+
+    final RetryPolicy retryPolicy;
+    final RetryBudget retryBudget;
+    final ClientMetrics metrics = new ClientMetrics();
+    final ScheduledExecutorService scheduler;
+    final ExecutorService uploads;
+    final HedgePolicy hedgePolicy;
+    final RetryBudget hedgeBudget;
+    final CircuitBreakerPolicy circuitBreakerPolicy;
+    final RateLimitPolicy rateLimitPolicy;
+    final RateLimiter rateLimiter;
+    final ConcurrencyLimitPolicy concurrencyLimitPolicy;
+    final PipelinePolicy pipelinePolicy;
+    final CompressionPolicy compressionPolicy;
+    final MapperRegistry mappers;
+    final boolean routeState;
+    private final ConcurrentMap<String, Route> routes = new ConcurrentHashMap<>();
 
     RestClient(String baseUrl,
+               List<String> baseUrls,
+               LoadBalancerPolicy loadBalancerPolicy,
                Map<String, Object> defaultHeaders,
                Function<String, String> urlTransformer,
                PoolingNHttpClientConnectionManager asyncConnectionManager,
                PoolingHttpClientConnectionManager syncConnectionManager,
+               DefaultConnectingIOReactor ioReactor,
                CloseableHttpAsyncClient asyncClient,
-               CloseableHttpClient syncClient, CookieStore cookieStore) {
+               CloseableHttpClient syncClient,
+               CookieStore cookieStore,
+               RequestConfig requestConfig,
+               RetryPolicy retryPolicy,
+               HedgePolicy hedgePolicy,
+               CircuitBreakerPolicy circuitBreakerPolicy,
+               RateLimitPolicy rateLimitPolicy,
+               ConcurrencyLimitPolicy concurrencyLimitPolicy,
+               PipelinePolicy pipelinePolicy,
+               CloseableHttpPipeliningClient pipeliningClient,
+               CompressionPolicy compressionPolicy,
+               MapperRegistry mappers) {
         this.baseUrl = baseUrl;
+        this.endpoints = baseUrls.isEmpty() ? null : new EndpointGroup(baseUrls, loadBalancerPolicy);
         this.urlTransformer = urlTransformer;
         this.asyncConnectionManager = asyncConnectionManager;
         this.syncConnectionManager = syncConnectionManager;
+        this.ioReactor = ioReactor;
         this.asyncClient = asyncClient;
         this.syncClient = syncClient;
         this.cookieStore = cookieStore;
+        this.requestConfig = requestConfig;
         this.defaultHeaders.putAll(defaultHeaders);
+        this.retryPolicy = retryPolicy;
+        this.retryBudget = retryPolicy != null ? new RetryBudget(retryPolicy.budgetRatio, retryPolicy.minRetriesPerSecond) : null;
+        this.hedgePolicy = hedgePolicy;
+        this.hedgeBudget = hedgePolicy != null ? new RetryBudget(hedgePolicy.maxRatio, 0) : null;
+        this.circuitBreakerPolicy = circuitBreakerPolicy;
+        this.rateLimitPolicy = rateLimitPolicy;
+        this.rateLimiter = rateLimitPolicy != null && !rateLimitPolicy.perRoute ? new RateLimiter(rateLimitPolicy) : null;
+        this.concurrencyLimitPolicy = concurrencyLimitPolicy;
+        this.pipelinePolicy = pipelinePolicy;
+        this.pipeliningClient = pipeliningClient;
+        this.compressionPolicy = compressionPolicy;
+        this.mappers = mappers;
+        this.routeState = hedgePolicy != null || circuitBreakerPolicy != null || (rateLimitPolicy != null && rateLimitPolicy.perRoute) || concurrencyLimitPolicy != null;
         this.id = newUUID();
+        this.scheduler = newScheduler();
+        this.uploads = newUploadExecutor();
     }
 
     private RestClient(HttpClientBuilder clientBuilder, HttpAsyncClientBuilder asyncClientBuilder) {
         this.id = newUUID();
         this.baseUrl = "";
+        this.endpoints = null;
         this.urlTransformer = url -> url;
         this.cookieStore = new BasicCookieStore();
+        this.retryPolicy = null;
+        this.retryBudget = null;
+        this.hedgePolicy = null;
+        this.hedgeBudget = null;
+        this.circuitBreakerPolicy = null;
+        this.rateLimitPolicy = null;
+        this.rateLimiter = null;
+        this.concurrencyLimitPolicy = null;
+        this.pipelinePolicy = null;
+        this.pipeliningClient = null;
+        this.compressionPolicy = null;
+        this.mappers = MapperRegistry.EMPTY;
+        this.requestConfig = RequestConfig.DEFAULT;
+        this.routeState = false;
+        this.scheduler = newScheduler();
+        this.uploads = newUploadExecutor();
 
         if (clientBuilder != null) {
             this.syncConnectionManager = new PoolingHttpClientConnectionManager();
@@ -103,11 +210,13 @@ public class RestClient implements Closeable {
 
         if (asyncClientBuilder != null) {
             try {
-                PoolingNHttpClientConnectionManager asyncConnManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor());
+                DefaultConnectingIOReactor reactor = new DefaultConnectingIOReactor();
+                PoolingNHttpClientConnectionManager asyncConnManager = new PoolingNHttpClientConnectionManager(reactor);
                 asyncClientBuilder.setConnectionManager(asyncConnManager);
                 asyncClientBuilder.setDefaultCookieStore(cookieStore);
                 this.asyncClient = asyncClientBuilder.build();
                 this.asyncConnectionManager = asyncConnManager;
+                this.ioReactor = reactor;
             } catch (IOReactorException e) {
                 throw new IllegalStateException("Failed to Async IO reactor", e);
 
@@ -115,6 +224,7 @@ public class RestClient implements Closeable {
         } else {
             this.asyncClient = null;
             this.asyncConnectionManager = null;
+            this.ioReactor = null;
         }
     }
 
@@ -131,31 +241,101 @@ public class RestClient implements Closeable {
     }
 
     public GetRequest get(String... url) {
-        return new GetRequest(new ClientRequest(HttpMethod.GET, resolveUrl(url), syncClient, asyncClient, defaultHeaders));
+        return new GetRequest(newRequest(HttpMethod.GET, url));
     }
 
     public GetRequest head(String... url) {
-        return new GetRequest(new ClientRequest(HttpMethod.HEAD, resolveUrl(url), syncClient, asyncClient, defaultHeaders));
+        return new GetRequest(newRequest(HttpMethod.HEAD, url));
     }
 
     public HttpRequestWithBody options(String... url) {
-        return new HttpRequestWithBody(new ClientRequest(HttpMethod.OPTIONS, resolveUrl(url), syncClient, asyncClient, defaultHeaders));
+        return new HttpRequestWithBody(newRequest(HttpMethod.OPTIONS, url));
     }
 
     public HttpRequestWithBody post(String... url) {
-        return new HttpRequestWithBody(new ClientRequest(HttpMethod.POST, resolveUrl(url), syncClient, asyncClient, defaultHeaders));
+        return new HttpRequestWithBody(newRequest(HttpMethod.POST, url));
     }
 
     public HttpRequestWithBody delete(String... url) {
-        return new HttpRequestWithBody(new ClientRequest(HttpMethod.DELETE, resolveUrl(url), syncClient, asyncClient, defaultHeaders));
+        return new HttpRequestWithBody(newRequest(HttpMethod.DELETE, url));
     }
 
     public HttpRequestWithBody patch(String... url) {
-        return new HttpRequestWithBody(new ClientRequest(HttpMethod.PATCH, resolveUrl(url), syncClient, asyncClient, defaultHeaders));
+        return new HttpRequestWithBody(newRequest(HttpMethod.PATCH, url));
     }
 
     public HttpRequestWithBody put(String... url) {
-        return new HttpRequestWithBody(new ClientRequest(HttpMethod.PUT, resolveUrl(url), syncClient, asyncClient, defaultHeaders));
+        return new HttpRequestWithBody(newRequest(HttpMethod.PUT, url));
+    }
+
+    /**
+     * Sends the requests with the async client, returning the responses in completion order.
+     * See {@link #executeAll(Iterable, int, Class, boolean)}
+     */
+    public Stream<BulkResponse<String>> executeAll(Iterable<? extends HttpRequest> requests, int parallelism) {
+        return executeAll(requests, parallelism, String.class, false);
+    }
+
+    /**
+     * Sends the requests with the async client, with at most {@code parallelism} requests outstanding.
+     * A request is outstanding until its result is consumed from the stream, requests are taken from the iterable
+     * only when there's room in the window, so the iterable can be lazy and larger than memory.
+     * The window is also limited to the max connections of the client.
+     * Closing the stream cancels the requests in flight.
+     *
+     * @param requests      The requests, ex: built lazily from a list of ids
+     * @param parallelism   Max number of outstanding requests
+     * @param responseClass The type of the response body
+     * @param ordered       True to return the responses in input order, false to return them as they complete
+     */
+    public <T> Stream<BulkResponse<T>> executeAll(Iterable<? extends HttpRequest> requests, int parallelism, Class<T> responseClass, boolean ordered) {
+        return new BulkExecution<>(requests, responseClass, window(parallelism), ordered).stream();
+    }
+
+    /**
+     * Same as {@link #executeAll(Iterable, int, Class, boolean)}, but the responses are handed to the consumer as they
+     * are available, one at a time, possibly from the async client threads, so the consumer must not block.
+     *
+     * @return A future completed when all the responses were consumed, cancelling it cancels the requests in flight
+     */
+    public <T> CompletableFuture<Void> executeAll(Iterable<? extends HttpRequest> requests, int parallelism, Class<T> responseClass, boolean ordered, Consumer<BulkResponse<T>> consumer) {
+        return new BulkExecution<>(requests, responseClass, window(parallelism), ordered).forEach(consumer);
+    }
+
+    /**
+     * Sends all the requests at once with the async client, and completes according to the policy: once all,
+     * a majority, or the first k requests succeeded, or when the deadline is reached. Requests still outstanding
+     * at that point are aborted, releasing their connections, and reported as ABORTED in the result.
+     *
+     * @param requests      The requests, one per shard
+     * @param responseClass The type of the response body
+     * @param policy        The completion policy and deadline
+     * @return The outcome of every request, in input order. Cancelling it aborts all the outstanding requests.
+     */
+    public <T> CompletableFuture<FanOutResult<T>> fanOut(Collection<? extends HttpRequest> requests, Class<T> responseClass, FanOutPolicy policy) {
+        return new FanOutExecution<T>(new ArrayList<>(requests), responseClass, policy).start(scheduler);
+    }
+
+    /**
+     * Sends the requests pipelined on a connection, in batches of at most the max depth of the pipeline policy,
+     * which saves a round trip per request on high latency links. All the requests must target the same route
+     * and use one of the pipelined methods. Requests left unanswered when the server closes the connection are
+     * sent again as regular requests, with the retry policy.
+     * Pipelined requests don't go through the client interceptors.
+     *
+     * @param requests      The requests, in the order they are written to the connection
+     * @param responseClass The type of the response body
+     * @return The responses, in input order
+     */
+    public <T> CompletableFuture<List<HttpResponse<T>>> executePipelined(List<? extends HttpRequest> requests, Class<T> responseClass) {
+        if (pipeliningClient == null) {
+            throw new RestClientException("Pipelining not configured");
+        }
+        return new PipelinedExecution<>(this, requests, responseClass).start();
+    }
+
+    private int window(int parallelism) {
+        return asyncConnectionManager != null ? Math.min(parallelism, asyncConnectionManager.getMaxTotal()) : parallelism;
     }
 
     public CookieStore cookieStore() {
@@ -163,10 +343,72 @@ public class RestClient implements Closeable {
     }
 
     public ClientStats stats() {
-        return new ClientStats(syncConnectionManager.getTotalStats(), asyncConnectionManager.getTotalStats());
+        PoolStats sync = syncConnectionManager != null ? syncConnectionManager.getTotalStats() : null;
+        PoolStats async = asyncConnectionManager != null ? asyncConnectionManager.getTotalStats() : null;
+        IOReactorStatus reactorStatus = ioReactor != null ? ioReactor.getStatus() : null;
+        int reactorErrors = ioReactor != null ? ioReactor.getAuditLog().size() : 0;
+
+        Map<String, RouteStats> routeStats = new HashMap<>();
+        for (Route route : routes.values()) {
+            ConcurrencyLimiter limiter = route.concurrencyLimiter;
+            routeStats.put(route.key, new RouteStats(
+                    route.circuitBreaker != null ? route.circuitBreaker.state() : null,
+                    limiter != null ? limiter.limit() : -1,
+                    limiter != null ? limiter.inFlight() : -1,
+                    route.uncompressedBytes.sum(),
+                    route.compressedBytes.sum(),
+                    TimeUnit.NANOSECONDS.toMillis(route.compressionTime.sum())));
+        }
+
+        return ClientStats.builder(sync, async)
+                .reactor(reactorStatus)
+                .reactorErrors(reactorErrors)
+                .retries(metrics.retries.sum())
+                .retriesRejected(metrics.retriesRejected.sum())
+                .hedges(metrics.hedges.sum())
+                .hedgesWon(metrics.hedgesWon.sum())
+                .circuitRejected(metrics.circuitRejected.sum())
+                .throttled(metrics.throttled.sum())
+                .throttleWait(TimeUnit.NANOSECONDS.toMillis(metrics.throttleWait.sum()))
+                .rateLimited(metrics.rateLimited.sum())
+                .concurrencyRejected(metrics.concurrencyRejected.sum())
+                .pipelines(metrics.pipelines.sum())
+                .pipelinedRequests(metrics.pipelinedRequests.sum())
+                .pipelineFallbacks(metrics.pipelineFallbacks.sum())
+                .routes(routeStats)
+                .build();
+    }
+
+    Route route(URI uri) {
+        String key = Route.key(uri);
+        Route route = routes.get(key);
+        if (route != null) {
+            return route;
+        }
+        return routes.computeIfAbsent(key, k -> new Route(k,
+                newLatencyWindow(),
+                circuitBreakerPolicy != null ? new CircuitBreaker(circuitBreakerPolicy) : null,
+                rateLimitPolicy != null && rateLimitPolicy.perRoute ? new RateLimiter(rateLimitPolicy) : null,
+                concurrencyLimitPolicy != null ? new ConcurrencyLimiter(concurrencyLimitPolicy, k) : null));
+    }
+
+    private LatencyWindow newLatencyWindow() {
+        return hedgePolicy != null && hedgePolicy.percentile > 0 ? new LatencyWindow(hedgePolicy.percentile) : null;
+    }
+
+    private ClientRequest newRequest(HttpMethod method, String... url) {
+        if (endpoints == null) {
+            return new ClientRequest(method, resolveUrl(url), this, null);
+        }
+        Endpoint endpoint = endpoints.select();
+        return new ClientRequest(method, resolveUrl(endpoint.url, url), this, endpoint);
     }
 
     String resolveUrl(String... paths) {
+        return resolveUrl(baseUrl, paths);
+    }
+
+    private String resolveUrl(String baseUrl, String... paths) {
         StringJoiner pathJoiner = new StringJoiner(PATH_SEPARATOR);
         for (String path : paths) {
             if(path != null && !path.trim().isEmpty()) {
@@ -206,9 +448,14 @@ public class RestClient implements Closeable {
                 syncConnectionManager.close();
             }
 
+            if (pipeliningClient != null && pipeliningClient.isRunning()) {
+                pipeliningClient.close();
+            }
             if (asyncClient != null && asyncClient.isRunning()) {
                 asyncClient.close();
             }
+            scheduler.shutdownNow();
+            uploads.shutdownNow();
         } catch (Exception ex) {
             throw new RuntimeException(ex);
         }
@@ -216,6 +463,28 @@ public class RestClient implements Closeable {
         ClientContainer.removeClient(this);
     }
 
+    private ScheduledExecutorService newScheduler() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "restclient-scheduler-" + id);
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * Threads writing streamed request bodies of the async client, see {@link StreamedRequestEntity}
+     */
+    private ExecutorService newUploadExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "restclient-upload-" + id + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
     private String newUUID() {
         return UUID.randomUUID().toString().substring(0, 8);
     }
@@ -0,0 +1,235 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.Constants;
+import io.joshworks.restclient.http.exceptions.RestClientException;
+import io.joshworks.restclient.http.mapper.MapperRegistry;
+import io.joshworks.restclient.request.HttpRequest;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Download to a file that survives failures: the body is written to a partial file next to the target, with a
+ * checkpoint holding the url and the validator (strong ETag or Last-Modified) of the body being downloaded.
+ * A later download of the same url to the same target asks only for the missing bytes, with {@code Range} and
+ * {@code If-Range}: a 206 response is appended to the partial file, a 200 (the file changed) starts it over.
+ * Once complete, the partial file is moved over the target and the checkpoint deleted.
+ * <p>
+ * Encoded bodies are downloaded as regular downloads, without a checkpoint, ranges would apply to the encoded bytes.
+ */
+final class ResumableDownload {
+
+    private static final String PART_SUFFIX = ".part";
+    private static final String CHECKPOINT_SUFFIX = ".part.checkpoint";
+    private static final String URL = "url";
+    private static final String VALIDATOR = "validator";
+    private static final String BYTES = "bytes ";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    final Path target;
+    private final Path part;
+    private final Path checkpoint;
+    private final MapperRegistry mappers;
+    private final AtomicBoolean writing = new AtomicBoolean();
+    private String url;
+    private volatile long written;
+
+    ResumableDownload(Path target, MapperRegistry mappers) {
+        this.target = target;
+        this.mappers = mappers;
+        String name = target.getFileName().toString();
+        this.part = target.resolveSibling(name + PART_SUFFIX);
+        this.checkpoint = target.resolveSibling(name + CHECKPOINT_SUFFIX);
+    }
+
+    /**
+     * Asks for the missing part of the body, when a partial file of the same url exists
+     */
+    void prepare(HttpRequest request) {
+        url = request.getUrl();
+        if (!request.getHeaders().containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, Constants.IDENTITY);
+        }
+        try {
+            String validator = validator();
+            long offset = Files.exists(part) ? Files.size(part) : 0;
+            if (validator != null && offset > 0) {
+                request.header(HttpHeaders.RANGE, "bytes=" + offset + "-");
+                request.header(HttpHeaders.IF_RANGE, validator);
+            }
+        } catch (IOException e) {
+            throw new RestClientException(e);
+        }
+    }
+
+    /**
+     * @return True if the body of the response is written to the partial file, false if it's handled as a regular
+     * download, or read in memory for non 2xx responses
+     */
+    boolean resumable(org.apache.http.HttpResponse response) {
+        return FileDownload.successful(response) && !DecodingInputStream.encoded(response);
+    }
+
+    /**
+     * Opens the partial file for the body of the response, positioned where the body starts: the start of the range
+     * of a 206 response, or the beginning of the file
+     */
+    FileChannel open(org.apache.http.HttpResponse response) throws IOException {
+        if (!writing.compareAndSet(false, true)) {
+            throw new IOException("Download to " + target + " already in progress");
+        }
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (response.getStatusLine().getStatusCode() == HttpStatus.SC_PARTIAL_CONTENT) {
+                long from = rangeStart(response);
+                if (from > channel.size()) {
+                    throw new IOException("Range starts at " + from + " past the end of the partial file " + channel.size());
+                }
+                channel.position(from);
+            } else {
+                channel.truncate(0);
+                checkpoint(response);
+            }
+            return channel;
+        } catch (IOException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            writing.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Ends the write of the partial file, the file is truncated at the end of the body
+     */
+    void close(FileChannel channel, long end, long written) throws IOException {
+        try {
+            channel.truncate(end);
+            channel.close();
+            this.written = written;
+        } finally {
+            writing.set(false);
+        }
+    }
+
+    void release() {
+        writing.set(false);
+    }
+
+    /**
+     * Completes the download of a response, its body is either still on the connection (sync) or already written
+     * to the partial file (async, see {@link ResumableResponseConsumer})
+     */
+    HttpFileResponse complete(org.apache.http.HttpResponse response) {
+        int status = response.getStatusLine().getStatusCode();
+        try {
+            if (status == HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE) {
+                //the partial file doesn't match the body anymore, the next download starts over
+                clear();
+            }
+            if (!FileDownload.successful(response)) {
+                return new HttpFileResponse(response, null, 0, mappers);
+            }
+            if (!resumable(response)) {
+                clear();
+                return FileDownload.complete(response, target, mappers);
+            }
+            if (response.getEntity() != null) {
+                write(response);
+            } else if (!Files.exists(part)) {
+                Files.createFile(part);
+            }
+            FileDownload.commit(part, target);
+            Files.deleteIfExists(checkpoint);
+            return new HttpFileResponse(response, target, written, mappers);
+        } catch (IOException e) {
+            throw new RestClientException(e);
+        }
+    }
+
+    private void write(org.apache.http.HttpResponse response) throws IOException {
+        HttpEntity entity = response.getEntity();
+        try (FileChannel channel = open(response)) {
+            long start = channel.position();
+            try (InputStream in = entity.getContent()) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                    while (chunk.hasRemaining()) {
+                        channel.write(chunk);
+                    }
+                }
+            } catch (IOException e) {
+                release();
+                throw e;
+            }
+            close(channel, channel.position(), channel.position() - start);
+        } finally {
+            response.setEntity(null);
+            EntityUtils.consumeQuietly(entity);
+        }
+    }
+
+    private String validator() throws IOException {
+        if (!Files.exists(checkpoint)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(checkpoint)) {
+            properties.load(in);
+        }
+        return url.equals(properties.getProperty(URL)) ? properties.getProperty(VALIDATOR) : null;
+    }
+
+    /**
+     * Saves the validator of a new body, a body without one can't be resumed
+     */
+    private void checkpoint(org.apache.http.HttpResponse response) throws IOException {
+        String validator = FileDownload.validator(response);
+        if (validator == null) {
+            Files.deleteIfExists(checkpoint);
+            return;
+        }
+        Properties properties = new Properties();
+        properties.setProperty(URL, url);
+        properties.setProperty(VALIDATOR, validator);
+        try (OutputStream out = Files.newOutputStream(checkpoint)) {
+            properties.store(out, null);
+        }
+    }
+
+    private void clear() throws IOException {
+        Files.deleteIfExists(part);
+        Files.deleteIfExists(checkpoint);
+    }
+
+    private static long rangeStart(org.apache.http.HttpResponse response) throws IOException {
+        Header range = response.getFirstHeader(HttpHeaders.CONTENT_RANGE);
+        String value = range != null ? range.getValue().trim() : "";
+        int dash = value.indexOf('-');
+        if (!value.startsWith(BYTES) || dash < 0) {
+            throw new IOException("Invalid content range: " + value);
+        }
+        try {
+            return Long.parseLong(value.substring(BYTES.length(), dash).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid content range: " + value);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.joshworks.restclient.http;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes the body of a successful response to the partial file of a {@link ResumableDownload}, where the body starts.
+ * Encoded and non 2xx responses are handled like {@link FileResponseConsumer}.
+ * What was written is kept when the exchange fails, for the next download to resume from.
+ */
+class ResumableResponseConsumer extends FileResponseConsumer {
+
+    private final ResumableDownload download;
+    private org.apache.http.HttpResponse response;
+    private FileChannel channel;
+    private long start;
+    private long position;
+
+    ResumableResponseConsumer(ResumableDownload download) {
+        super(download.target);
+        this.download = download;
+    }
+
+    @Override
+    protected void onResponseReceived(org.apache.http.HttpResponse response) {
+        super.onResponseReceived(response);
+        this.response = response;
+    }
+
+    @Override
+    protected void onEntityEnclosed(HttpEntity entity, ContentType contentType) throws IOException {
+        if (!download.resumable(response)) {
+            super.onEntityEnclosed(entity, contentType);
+            return;
+        }
+        channel = download.open(response);
+        start = channel.position();
+        position = start;
+    }
+
+    @Override
+    protected void onContentReceived(ContentDecoder decoder, IOControl ioControl) throws IOException {
+        if (channel == null) {
+            super.onContentReceived(decoder, ioControl);
+            return;
+        }
+        long transferred = FileDownload.transfer(decoder, channel, position, Integer.MAX_VALUE);
+        if (transferred > 0) {
+            position += transferred;
+        }
+    }
+
+    @Override
+    protected org.apache.http.HttpResponse buildResult(HttpContext context) throws IOException {
+        if (channel == null) {
+            return super.buildResult(context);
+        }
+        FileChannel written = channel;
+        channel = null;
+        download.close(written, position, position - start);
+        response.setEntity(null);
+        return response;
+    }
+
+    @Override
+    protected void releaseResources() {
+        super.releaseResources();
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignore) {
+            }
+            download.release();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.http.circuit.CircuitBreaker;
+import io.joshworks.restclient.http.limit.ConcurrencyLimiter;
+import io.joshworks.restclient.http.ratelimit.RateLimiter;
+import org.apache.http.HttpHost;
+import org.apache.http.client.utils.URIUtils;
+
+import java.net.URI;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * State kept per target host of a client, a route is identified by scheme, host and port
+ */
+class Route {
+
+    final String key;
+    final LatencyWindow latency;
+    final CircuitBreaker circuitBreaker;
+    final RateLimiter rateLimiter;
+    final ConcurrencyLimiter concurrencyLimiter;
+
+    final LongAdder uncompressedBytes = new LongAdder();
+    final LongAdder compressedBytes = new LongAdder();
+    final LongAdder compressionTime = new LongAdder();
+    //set when the route responds 415 to a compressed body
+    volatile boolean compressionRejected;
+
+    Route(String key, LatencyWindow latency, CircuitBreaker circuitBreaker, RateLimiter rateLimiter, ConcurrencyLimiter concurrencyLimiter) {
+        this.key = key;
+        this.latency = latency;
+        this.circuitBreaker = circuitBreaker;
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    static String key(URI uri) {
+        HttpHost host = URIUtils.extractHost(uri);
+        if (host == null) {
+            return String.valueOf(uri);
+        }
+        int port = host.getPort();
+        if (port < 0) {
+            port = "https".equalsIgnoreCase(host.getSchemeName()) ? 443 : 80;
+        }
+        return host.getSchemeName() + "://" + host.getHostName().toLowerCase() + ":" + port;
+    }
+}
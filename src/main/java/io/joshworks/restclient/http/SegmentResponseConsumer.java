@@ -0,0 +1,77 @@
+package io.joshworks.restclient.http;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes the body of a partial content (206) response at its offset in a file shared by all the segments of a
+ * download, with positional transfers. Any other response fails the exchange without reading the body, a server
+ * answering 200 sends the whole file.
+ */
+class SegmentResponseConsumer extends AbstractAsyncResponseConsumer<org.apache.http.HttpResponse> {
+
+    private final FileChannel channel;
+    private final SegmentedDownload.Segment segment;
+    private final long from;
+    private org.apache.http.HttpResponse response;
+    private long position;
+
+    SegmentResponseConsumer(FileChannel channel, SegmentedDownload.Segment segment, long from) {
+        this.channel = channel;
+        this.segment = segment;
+        this.from = from;
+        this.position = from;
+    }
+
+    @Override
+    protected void onResponseReceived(org.apache.http.HttpResponse response) {
+        this.response = response;
+    }
+
+    @Override
+    protected void onEntityEnclosed(HttpEntity entity, ContentType contentType) throws IOException {
+        int status = response.getStatusLine().getStatusCode();
+        if (status != HttpStatus.SC_PARTIAL_CONTENT) {
+            throw new IOException("Expected partial content for range " + from + "-" + segment.end + ", got status " + status);
+        }
+        Header range = response.getFirstHeader(HttpHeaders.CONTENT_RANGE);
+        if (range == null || !range.getValue().trim().startsWith("bytes " + from + "-")) {
+            throw new IOException("Unexpected content range for range " + from + "-" + segment.end + ": " + (range == null ? null : range.getValue()));
+        }
+    }
+
+    @Override
+    protected void onContentReceived(ContentDecoder decoder, IOControl ioControl) throws IOException {
+        long remaining = segment.end + 1 - position;
+        if (remaining <= 0) {
+            throw new IOException("Received more than the requested range " + from + "-" + segment.end);
+        }
+        long transferred = FileDownload.transfer(decoder, channel, position, remaining);
+        if (transferred > 0) {
+            position += transferred;
+            segment.advance(position);
+        }
+    }
+
+    @Override
+    protected org.apache.http.HttpResponse buildResult(HttpContext context) throws IOException {
+        if (position != segment.end + 1) {
+            throw new IOException("Range " + from + "-" + segment.end + " ended at " + position);
+        }
+        return response;
+    }
+
+    @Override
+    protected void releaseResources() {
+    }
+}
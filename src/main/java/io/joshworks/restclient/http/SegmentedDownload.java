@@ -0,0 +1,227 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.Constants;
+import io.joshworks.restclient.http.download.SegmentPolicy;
+import io.joshworks.restclient.request.GetRequest;
+import io.joshworks.restclient.request.HttpRequest;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Downloads a body in byte ranges fetched concurrently with the async client, see {@link SegmentPolicy}.
+ * A {@code HEAD} request tells the length and whether ranges are supported, then each segment is written at its offset
+ * in a temporary file next to the target, moved over the target once all the segments completed.
+ * Segments are requested with {@code If-Range}, so a file changed in the middle of a download fails it instead of
+ * mixing two versions.
+ */
+class SegmentedDownload {
+
+    private static final String BYTES = "bytes";
+
+    private final RestClient client;
+    private final HttpRequest request;
+    private final Path target;
+    private final SegmentPolicy policy;
+    private final CompletableFuture<HttpFileResponse> result = new CompletableFuture<>();
+    private final Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+    private final List<Segment> segments = new ArrayList<>();
+
+    private org.apache.http.HttpResponse head;
+    private long length;
+    private String validator;
+    private volatile Path file;
+    private volatile FileChannel channel;
+    private int completed;
+
+    SegmentedDownload(RestClient client, HttpRequest request, Path target, SegmentPolicy policy) {
+        this.client = client;
+        this.request = request;
+        this.target = target;
+        this.policy = policy;
+    }
+
+    CompletableFuture<HttpFileResponse> start() {
+        if (request.getHttpMethod() != HttpMethod.GET) {
+            return request.asFileAsync(target);
+        }
+        result.whenComplete((response, error) -> abort(error != null));
+
+        ClientRequest clientRequest = new ClientRequest(HttpMethod.HEAD, request.getUrl(), client, null);
+        HttpRequestBase headObj = clientRequest.prepareAsync(copy(clientRequest));
+        track(clientRequest.requestAsync(headObj, (attempt, callback) -> client.asyncClient.execute(attempt, callback), true, Function.identity()))
+                .whenComplete((response, error) -> {
+                    if (result.isDone()) {
+                        return;
+                    }
+                    if (error != null || !rangeable(response)) {
+                        singleStream();
+                    } else {
+                        split(response);
+                    }
+                });
+        return result;
+    }
+
+    private boolean rangeable(org.apache.http.HttpResponse response) {
+        if (!FileDownload.successful(response) || DecodingInputStream.encoded(response)) {
+            return false;
+        }
+        Header ranges = response.getFirstHeader(HttpHeaders.ACCEPT_RANGES);
+        Header contentLength = response.getFirstHeader(HttpHeaders.CONTENT_LENGTH);
+        if (ranges == null || !ranges.getValue().contains(BYTES) || contentLength == null) {
+            return false;
+        }
+        try {
+            length = Long.parseLong(contentLength.getValue().trim());
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        return policy.segments(length) > 1;
+    }
+
+    private void singleStream() {
+        track(request.asFileAsync(target)).whenComplete((response, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(response);
+            }
+        });
+    }
+
+    private void split(org.apache.http.HttpResponse response) {
+        head = response;
+        validator = FileDownload.validator(response);
+        try {
+            file = FileDownload.tempFile(target);
+            channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        int count = policy.segments(length);
+        long size = length / count;
+        for (int i = 0; i < count; i++) {
+            long start = i * size;
+            segments.add(new Segment(start, i == count - 1 ? length - 1 : start + size - 1));
+        }
+        for (Segment segment : segments) {
+            fetch(segment);
+        }
+    }
+
+    /**
+     * Requests the part of the segment not written yet
+     */
+    private void fetch(Segment segment) {
+        if (result.isDone()) {
+            return;
+        }
+        long from = segment.position.get();
+        ClientRequest clientRequest = new ClientRequest(HttpMethod.GET, request.getUrl(), client, null);
+        HttpRequest ranged = copy(clientRequest).header(HttpHeaders.RANGE, BYTES + "=" + from + "-" + segment.end);
+        if (validator != null) {
+            ranged.header(HttpHeaders.IF_RANGE, validator);
+        }
+        HttpRequestBase requestObj = clientRequest.prepareAsync(ranged);
+        track(clientRequest.requestAsync(requestObj, (attempt, callback) -> client.asyncClient.execute(HttpAsyncMethods.create(attempt), new SegmentResponseConsumer(channel, segment, from), callback),
+                true, Function.identity()))
+                .whenComplete((response, error) -> {
+                    if (error == null) {
+                        segmentCompleted();
+                    } else if (segment.retries++ < policy.retries) {
+                        fetch(segment);
+                    } else {
+                        result.completeExceptionally(error);
+                    }
+                });
+    }
+
+    private void segmentCompleted() {
+        synchronized (this) {
+            if (++completed < segments.size()) {
+                return;
+            }
+        }
+        try {
+            channel.close();
+            FileDownload.commit(file, target);
+            result.complete(new HttpFileResponse(head, target, length, client.mappers));
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Same url and headers as the original request, with the body requested as is, ranges apply to the encoded body
+     */
+    private HttpRequest copy(ClientRequest clientRequest) {
+        HttpRequest copy = new GetRequest(clientRequest);
+        for (Map.Entry<String, List<String>> header : request.getHeaders().entrySet()) {
+            String name = header.getKey();
+            if (name.equalsIgnoreCase(HttpHeaders.RANGE) || name.equalsIgnoreCase(HttpHeaders.IF_RANGE) || name.equalsIgnoreCase(HttpHeaders.ACCEPT_ENCODING)) {
+                continue;
+            }
+            for (String value : header.getValue()) {
+                copy.header(name, value);
+            }
+        }
+        return copy.header(HttpHeaders.ACCEPT_ENCODING, Constants.IDENTITY);
+    }
+
+    private <T> CompletableFuture<T> track(CompletableFuture<T> future) {
+        inFlight.add(future);
+        future.whenComplete((r, e) -> inFlight.remove(future));
+        return future;
+    }
+
+    private void abort(boolean failed) {
+        inFlight.forEach(future -> future.cancel(true));
+        if (failed && channel != null) {
+            try {
+                channel.close();
+                Files.deleteIfExists(file);
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    /**
+     * A byte range of the body, end inclusive
+     */
+    static class Segment {
+
+        final long end;
+        private final AtomicLong position;
+        private int retries;
+
+        private Segment(long start, long end) {
+            this.end = end;
+            this.position = new AtomicLong(start);
+        }
+
+        /**
+         * Attempts of the same segment (ex: hedged requests) write the same bytes, the segment is written up to the
+         * furthest one
+         */
+        void advance(long position) {
+            this.position.accumulateAndGet(position, Math::max);
+        }
+    }
+}
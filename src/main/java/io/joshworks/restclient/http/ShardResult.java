@@ -0,0 +1,59 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.request.HttpRequest;
+
+/**
+ * Outcome of a single request of a fan out
+ */
+public class ShardResult<T> {
+
+    public enum Status {
+        /**
+         * A response with a status lower than 500 was received
+         */
+        SUCCEEDED,
+        /**
+         * The request failed, or the response status was 5xx
+         */
+        FAILED,
+        /**
+         * The request was still outstanding when the fan out completed, and was aborted
+         */
+        ABORTED
+    }
+
+    /**
+     * Position of the request in the input, starting from zero
+     */
+    public final int index;
+    public final HttpRequest request;
+    public final Status status;
+
+    /**
+     * The response, null if no response was received
+     */
+    public final HttpResponse<T> response;
+
+    /**
+     * The failure, null if a response was received or the request was aborted
+     */
+    public final Exception error;
+
+    ShardResult(int index, HttpRequest request, Status status, HttpResponse<T> response, Exception error) {
+        this.index = index;
+        this.request = request;
+        this.status = status;
+        this.response = response;
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "ShardResult {" +
+                "INDEX=" + index +
+                ", STATUS=" + status +
+                ", RESPONSE_STATUS=" + (response != null ? response.getStatus() : null) +
+                ", ERROR=" + error +
+                '}';
+    }
+}
@@ -0,0 +1,189 @@
+package io.joshworks.restclient.http;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.entity.ContentOutputStream;
+import org.apache.http.nio.entity.HttpAsyncContentProducer;
+import org.apache.http.nio.entity.NByteArrayEntity;
+import org.apache.http.nio.util.HeapByteBufferAllocator;
+import org.apache.http.nio.util.SharedOutputBuffer;
+import org.apache.http.util.EntityUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Sends a blocking request entity (ex: multipart, streams, compressed bodies) with the async client without copying it
+ * into memory first: the entity writes itself on an upload thread into a bounded buffer, drained by the I/O dispatcher
+ * as the connection accepts more data. The upload thread blocks while the buffer is full.
+ * <p>
+ * Each attempt of a request (retries) writes the entity again, which only succeeds for repeatable entities.
+ */
+class StreamedRequestEntity extends HttpEntityWrapper implements HttpAsyncContentProducer {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Executor executor;
+    private Upload upload;
+
+    StreamedRequestEntity(HttpEntity entity, Executor executor) {
+        super(entity);
+        this.executor = executor;
+    }
+
+    /**
+     * @return An entity the async client can send without buffering it
+     */
+    static HttpEntity of(HttpEntity entity, Executor executor) throws IOException {
+        if (entity instanceof HttpAsyncContentProducer) {
+            return entity;
+        }
+        long length = entity.getContentLength();
+        if (entity.isRepeatable() && length >= 0 && length <= BUFFER_SIZE) {
+            //small bodies (ex: json, forms) are cheaper to copy than to hand over to another thread
+            HttpEntity copy = copy(entity, EntityUtils.toByteArray(entity));
+            if (entity instanceof Closeable) {
+                //pooled bodies give their buffer back once copied
+                ((Closeable) entity).close();
+            }
+            return copy;
+        }
+        HttpEntity sized = sized(entity);
+        if (sized != entity) {
+            return sized;
+        }
+        return new StreamedRequestEntity(entity, executor);
+    }
+
+    /**
+     * Bodies generated as they are written (ex: serialized objects) are usually small, they are tried in memory first
+     * so they can be sent with a Content-Length. Larger ones are written again as they are sent.
+     *
+     * @return A copy of the entity with its length, or the entity itself if it's larger than the buffer
+     */
+    static HttpEntity sized(HttpEntity entity) throws IOException {
+        if (entity.isRepeatable() && entity.getContentLength() < 0 && entity.getContentEncoding() == null) {
+            HttpEntity copy = inMemory(entity);
+            if (copy != null) {
+                return copy;
+            }
+        }
+        return entity;
+    }
+
+    /**
+     * Writes a repeatable entity of unknown length into a buffer
+     *
+     * @return A copy of the entity with its length, or null if it's larger than the buffer
+     */
+    static HttpEntity inMemory(HttpEntity entity) throws IOException {
+        BoundedOutputStream out = new BoundedOutputStream();
+        try {
+            entity.writeTo(out);
+            return copy(entity, out.toByteArray());
+        } catch (IOException | RuntimeException e) {
+            //larger bodies are written again as they are sent, the failure may have been wrapped by the writer
+            if (!out.overflowed) {
+                throw e;
+            }
+            return null;
+        }
+    }
+
+    private static HttpEntity copy(HttpEntity entity, byte[] content) {
+        NByteArrayEntity copy = new NByteArrayEntity(content);
+        copy.setContentType(entity.getContentType());
+        copy.setContentEncoding(entity.getContentEncoding());
+        return copy;
+    }
+
+    HttpEntity wrapped() {
+        return wrappedEntity;
+    }
+
+    @Override
+    public synchronized void produceContent(ContentEncoder encoder, IOControl ioctrl) throws IOException {
+        if (upload == null) {
+            upload = new Upload(ioctrl);
+            try {
+                executor.execute(upload);
+            } catch (RejectedExecutionException e) {
+                throw new IOException("Client closed", e);
+            }
+        }
+        if (upload.error != null) {
+            throw new IOException("Failed to write request body", upload.error);
+        }
+        upload.buffer.produceContent(encoder, ioctrl);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (upload != null) {
+            upload.buffer.shutdown();
+            upload = null;
+        }
+    }
+
+    /**
+     * Fails as soon as more than a buffer is written
+     */
+    private static class BoundedOutputStream extends OutputStream {
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+        private boolean overflowed;
+
+        @Override
+        public void write(int b) throws IOException {
+            ensure(1);
+            buffer.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ensure(len);
+            buffer.write(b, off, len);
+        }
+
+        private void ensure(int len) throws IOException {
+            if (buffer.size() + len > BUFFER_SIZE) {
+                overflowed = true;
+                throw new IOException("Body larger than " + BUFFER_SIZE + " bytes");
+            }
+        }
+
+        private byte[] toByteArray() {
+            return buffer.toByteArray();
+        }
+    }
+
+    private class Upload implements Runnable {
+
+        private final SharedOutputBuffer buffer;
+        private final IOControl ioctrl;
+        private volatile Throwable error;
+
+        private Upload(IOControl ioctrl) {
+            this.buffer = new SharedOutputBuffer(BUFFER_SIZE, ioctrl, HeapByteBufferAllocator.INSTANCE);
+            this.ioctrl = ioctrl;
+        }
+
+        @Override
+        public void run() {
+            try {
+                wrappedEntity.writeTo(new ContentOutputStream(buffer));
+                buffer.writeCompleted();
+            } catch (Throwable e) {
+                //the body is left incomplete, the exchange fails on the next output event
+                error = e;
+                ioctrl.requestOutput();
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.http.exceptions.RestClientException;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Consumes a response body as it arrives from the socket, reading only while the subscriber has outstanding demand.
+ * When there's no demand, input is suspended on the connection, so a slow subscriber holds at most one decoded chunk
+ * instead of the whole body. Reads happen on the I/O dispatcher thread, the {@link Subscription} may be used from
+ * any thread, signals to the subscriber are serialized by the drain loop.
+ */
+class StreamingResponseConsumer<T> extends AbstractAsyncResponseConsumer<Void> {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final Subscriber<? super T> subscriber;
+    private final Function<org.apache.http.HttpResponse, ChunkDecoder<T>> decoders;
+    private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private ChunkDecoder<T> decoder;
+    private ByteBuffer discard;
+    volatile org.apache.http.HttpResponse response;
+    private volatile IOControl ioControl;
+    private volatile Future<?> exchange;
+    private volatile Throwable error;
+    private volatile boolean done;
+    private volatile boolean cancelled;
+    private volatile boolean terminated;
+
+    final Subscription subscription = new Subscription() {
+        @Override
+        public void request(long n) {
+            StreamingResponseConsumer.this.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            cancelStream();
+        }
+    };
+
+    StreamingResponseConsumer(Subscriber<? super T> subscriber, Function<org.apache.http.HttpResponse, ChunkDecoder<T>> decoders) {
+        this.subscriber = subscriber;
+        this.decoders = decoders;
+    }
+
+    void exchange(Future<?> exchange) {
+        this.exchange = exchange;
+        if (cancelled) {
+            exchange.cancel(true);
+        }
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    private void request(long n) {
+        if (n <= 0) {
+            fail(new IllegalArgumentException("Requested elements must be positive, got " + n));
+            return;
+        }
+        long current;
+        do {
+            current = demand.get();
+            if (current == Long.MAX_VALUE) {
+                break;
+            }
+        } while (!demand.compareAndSet(current, current + n < 0 ? Long.MAX_VALUE : current + n));
+        drain();
+    }
+
+    private void cancelStream() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+        Future<?> current = exchange;
+        if (current != null) {
+            current.cancel(true);
+        }
+        drain();
+    }
+
+    void fail(Throwable e) {
+        if (error == null) {
+            error = e;
+        }
+        drain();
+        Future<?> current = exchange;
+        if (current != null) {
+            current.cancel(true);
+        }
+    }
+
+    @Override
+    protected void onResponseReceived(org.apache.http.HttpResponse response) {
+        this.response = response;
+        int status = response.getStatusLine().getStatusCode();
+        if (status >= 400) {
+            //the error body is discarded as it arrives, the connection can still be reused
+            error = new RestClientException("Unexpected response status: " + response.getStatusLine());
+            drain();
+            return;
+        }
+        try {
+            decoder = decoders.apply(response);
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    protected void onEntityEnclosed(HttpEntity entity, ContentType contentType) {
+        //content is consumed as it arrives
+    }
+
+    @Override
+    protected void onContentReceived(ContentDecoder in, IOControl ioControl) throws IOException {
+        this.ioControl = ioControl;
+        if (error != null || cancelled) {
+            //drops whatever is left, the exchange is being aborted
+            if (discard == null) {
+                discard = ByteBuffer.allocate(CHUNK_SIZE);
+            }
+            while (in.read(discard) > 0) {
+                discard.clear();
+            }
+            return;
+        }
+        try {
+            while (queue.isEmpty() && demand.get() > 0) {
+                ByteBuffer chunk = ByteBuffer.allocate(CHUNK_SIZE);
+                if (in.read(chunk) <= 0) {
+                    break;
+                }
+                chunk.flip();
+                decoder.decode(chunk, queue);
+            }
+        } catch (Exception e) {
+            fail(e);
+            return;
+        }
+        drain();
+        if (!in.isCompleted() && (demand.get() == 0 || !queue.isEmpty())) {
+            ioControl.suspendInput();
+            //demand may have arrived between the check and the suspension
+            if (demand.get() > 0 && queue.isEmpty()) {
+                ioControl.requestInput();
+            }
+        }
+    }
+
+    @Override
+    protected Void buildResult(HttpContext context) {
+        if (error == null && decoder != null) {
+            try {
+                decoder.finish(queue);
+            } catch (Exception e) {
+                fail(e);
+                return null;
+            }
+        }
+        done = true;
+        drain();
+        return null;
+    }
+
+    @Override
+    protected void releaseResources() {
+        discard = null;
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            emit();
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+
+        IOControl control = ioControl;
+        if (control != null && !done && !terminated && demand.get() > 0 && queue.isEmpty()) {
+            control.requestInput();
+        }
+    }
+
+    private void emit() {
+        while (!terminated) {
+            if (cancelled) {
+                queue.clear();
+                return;
+            }
+            if (error != null) {
+                terminated = true;
+                queue.clear();
+                subscriber.onError(error);
+                return;
+            }
+            if (queue.isEmpty()) {
+                if (done) {
+                    terminated = true;
+                    subscriber.onComplete();
+                }
+                return;
+            }
+            long requested = demand.get();
+            if (requested == 0) {
+                return;
+            }
+            T item = queue.poll();
+            if (requested != Long.MAX_VALUE) {
+                demand.decrementAndGet();
+            }
+            try {
+                subscriber.onNext(item);
+            } catch (Throwable e) {
+                cancelStream();
+                terminated = true;
+                subscriber.onError(e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Turns body chunks into the elements of the stream, called only from the I/O dispatcher thread
+     */
+    interface ChunkDecoder<T> {
+
+        void decode(ByteBuffer chunk, Queue<T> out) throws IOException;
+
+        default void finish(Queue<T> out) throws IOException {
+        }
+    }
+
+}
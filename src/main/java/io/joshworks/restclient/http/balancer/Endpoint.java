@@ -0,0 +1,80 @@
+package io.joshworks.restclient.http.balancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A base url of a client, with the load and health information used by the load balancer
+ */
+public class Endpoint {
+
+    //weight of a new response time in the moving average
+    private static final double ALPHA = 0.3;
+
+    public final String url;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile double latency;
+    private volatile long ejectedUntil;
+    volatile int ejections;
+
+    Endpoint(String url) {
+        this.url = url;
+    }
+
+    /**
+     * @return Number of requests sent to this endpoint waiting for a response
+     */
+    public int outstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * @return Moving average of the response times in nanoseconds, zero before the first response
+     */
+    public double latency() {
+        return latency;
+    }
+
+    /**
+     * @return Whether the endpoint is currently ejected because of consecutive failures
+     */
+    public boolean ejected() {
+        return ejected(System.nanoTime());
+    }
+
+    boolean ejected(long now) {
+        long until = ejectedUntil;
+        return until != 0 && until - now > 0;
+    }
+
+    void eject(long until) {
+        ejectedUntil = until;
+        ejections++;
+    }
+
+    void start() {
+        outstanding.incrementAndGet();
+    }
+
+    void release() {
+        outstanding.decrementAndGet();
+    }
+
+    synchronized void recordLatency(long rtt) {
+        latency = latency == 0 ? rtt : latency * (1 - ALPHA) + rtt * ALPHA;
+    }
+
+    int incrementFailures() {
+        return consecutiveFailures.incrementAndGet();
+    }
+
+    void resetFailures() {
+        consecutiveFailures.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return url;
+    }
+}
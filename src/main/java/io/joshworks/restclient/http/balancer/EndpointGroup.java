@@ -0,0 +1,106 @@
+package io.joshworks.restclient.http.balancer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The base urls of a client. Picks the endpoint of each request with the load balancer of the policy,
+ * and ejects endpoints failing consecutive requests until their ejection time elapses.
+ */
+public class EndpointGroup {
+
+    //an endpoint ejected repeatedly stays out at most this many times the ejection time
+    private static final int MAX_EJECTION_MULTIPLIER = 10;
+
+    private final LoadBalancerPolicy policy;
+    private final List<Endpoint> endpoints;
+    private final int maxEjected;
+
+    public EndpointGroup(List<String> urls, LoadBalancerPolicy policy) {
+        if (urls == null || urls.isEmpty()) {
+            throw new IllegalArgumentException("At least one url must be provided");
+        }
+        List<Endpoint> endpoints = new ArrayList<>();
+        for (String url : urls) {
+            endpoints.add(new Endpoint(url));
+        }
+        this.endpoints = Collections.unmodifiableList(endpoints);
+        this.policy = policy;
+        this.maxEjected = endpoints.size() * policy.maxEjectedPercent / 100;
+    }
+
+    /**
+     * Picks the endpoint of a request among the endpoints not ejected, or among all of them if all are ejected
+     */
+    public Endpoint select() {
+        long now = System.nanoTime();
+        List<Endpoint> admitted = endpoints;
+        for (int i = 0; i < endpoints.size(); i++) {
+            if (endpoints.get(i).ejected(now)) {
+                admitted = admitted(now);
+                break;
+            }
+        }
+        return policy.balancer.select(admitted.isEmpty() ? endpoints : admitted);
+    }
+
+    public void start(Endpoint endpoint) {
+        endpoint.start();
+    }
+
+    /**
+     * @param rtt    The response time in nanoseconds
+     * @param failed Whether the request failed with an I/O error, timeout, or 5xx response
+     */
+    public void complete(Endpoint endpoint, long rtt, boolean failed) {
+        endpoint.release();
+        endpoint.recordLatency(rtt);
+        if (!failed) {
+            endpoint.resetFailures();
+            if (endpoint.ejections != 0) {
+                endpoint.ejections = 0;
+            }
+            return;
+        }
+        if (policy.consecutiveFailures > 0 && endpoint.incrementFailures() >= policy.consecutiveFailures) {
+            eject(endpoint);
+        }
+    }
+
+    /**
+     * Releases an outstanding request without recording its outcome, ex: the request was cancelled
+     */
+    public void release(Endpoint endpoint) {
+        endpoint.release();
+    }
+
+    public List<Endpoint> endpoints() {
+        return endpoints;
+    }
+
+    private List<Endpoint> admitted(long now) {
+        List<Endpoint> admitted = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            if (!endpoint.ejected(now)) {
+                admitted.add(endpoint);
+            }
+        }
+        return admitted;
+    }
+
+    private synchronized void eject(Endpoint endpoint) {
+        long now = System.nanoTime();
+        if (endpoint.ejected(now)) {
+            return;
+        }
+        int ejected = endpoints.size() - admitted(now).size();
+        if (ejected >= maxEjected) {
+            return;
+        }
+        int multiplier = Math.min(endpoint.ejections + 1, MAX_EJECTION_MULTIPLIER);
+        endpoint.eject(now + TimeUnit.MILLISECONDS.toNanos(policy.ejectionTime * multiplier));
+        endpoint.resetFailures();
+    }
+}
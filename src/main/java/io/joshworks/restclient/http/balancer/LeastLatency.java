@@ -0,0 +1,24 @@
+package io.joshworks.restclient.http.balancer;
+
+import java.util.List;
+
+/**
+ * Picks the endpoint with the lowest expected latency, that is the moving average of its response times
+ * multiplied by the requests it already has outstanding. Endpoints without responses yet are picked first.
+ */
+public class LeastLatency implements LoadBalancer {
+
+    @Override
+    public Endpoint select(List<Endpoint> endpoints) {
+        Endpoint selected = null;
+        double lowest = Double.MAX_VALUE;
+        for (Endpoint endpoint : endpoints) {
+            double cost = endpoint.latency() * (endpoint.outstanding() + 1);
+            if (selected == null || cost < lowest) {
+                selected = endpoint;
+                lowest = cost;
+            }
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,17 @@
+package io.joshworks.restclient.http.balancer;
+
+import java.util.List;
+
+/**
+ * Strategy used to pick the endpoint of each request when a client has multiple base urls.
+ * Implementations must be thread safe.
+ */
+public interface LoadBalancer {
+
+    /**
+     * @param endpoints The endpoints currently admitted, never empty
+     * @return The endpoint to send the request to
+     */
+    Endpoint select(List<Endpoint> endpoints);
+
+}
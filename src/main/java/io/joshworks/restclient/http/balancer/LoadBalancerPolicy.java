@@ -0,0 +1,85 @@
+package io.joshworks.restclient.http.balancer;
+
+/**
+ * How requests are spread across the base urls of a client. Endpoints that fail consecutive requests
+ * (I/O errors, timeouts or 5xx responses) are ejected for the ejection time, multiplied by the number of times
+ * they were ejected in a row, and admitted again once it elapses.
+ */
+public class LoadBalancerPolicy {
+
+    public final LoadBalancer balancer;
+    public final int consecutiveFailures;
+    public final long ejectionTime;
+    public final int maxEjectedPercent;
+
+    private LoadBalancerPolicy(Builder builder) {
+        this.balancer = builder.balancer;
+        this.consecutiveFailures = builder.consecutiveFailures;
+        this.ejectionTime = builder.ejectionTime;
+        this.maxEjectedPercent = builder.maxEjectedPercent;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private LoadBalancer balancer = new RoundRobin();
+        private int consecutiveFailures = 5;
+        private long ejectionTime = 30000;
+        private int maxEjectedPercent = 50;
+
+        private Builder() {
+        }
+
+        public LoadBalancerPolicy build() {
+            return new LoadBalancerPolicy(this);
+        }
+
+        /**
+         * @param balancer The strategy used to pick the endpoint of each request, ex: {@link RoundRobin},
+         *                 {@link PowerOfTwoChoices} or {@link LeastLatency}. Default is round robin.
+         */
+        public Builder balancer(LoadBalancer balancer) {
+            if (balancer == null) {
+                throw new IllegalArgumentException("balancer must be provided");
+            }
+            this.balancer = balancer;
+            return this;
+        }
+
+        /**
+         * @param consecutiveFailures Number of failures in a row that eject an endpoint, zero disables ejection. Default is 5.
+         */
+        public Builder consecutiveFailures(int consecutiveFailures) {
+            if (consecutiveFailures < 0) {
+                throw new IllegalArgumentException("consecutiveFailures must not be negative");
+            }
+            this.consecutiveFailures = consecutiveFailures;
+            return this;
+        }
+
+        /**
+         * @param ejectionTime Base time an endpoint stays ejected, in milliseconds. Default is 30000.
+         */
+        public Builder ejectionTime(long ejectionTime) {
+            if (ejectionTime <= 0) {
+                throw new IllegalArgumentException("ejectionTime must be greater than zero");
+            }
+            this.ejectionTime = ejectionTime;
+            return this;
+        }
+
+        /**
+         * @param maxEjectedPercent Max percentage of the endpoints ejected at the same time. Default is 50.
+         */
+        public Builder maxEjectedPercent(int maxEjectedPercent) {
+            if (maxEjectedPercent < 0 || maxEjectedPercent > 100) {
+                throw new IllegalArgumentException("maxEjectedPercent must be between 0 and 100");
+            }
+            this.maxEjectedPercent = maxEjectedPercent;
+            return this;
+        }
+    }
+}
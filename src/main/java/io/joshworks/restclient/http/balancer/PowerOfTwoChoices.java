@@ -0,0 +1,28 @@
+package io.joshworks.restclient.http.balancer;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks two random endpoints and sends the request to the one with fewer outstanding requests.
+ * Avoids the herd behaviour of always picking the least loaded endpoint, with almost the same balance.
+ */
+public class PowerOfTwoChoices implements LoadBalancer {
+
+    @Override
+    public Endpoint select(List<Endpoint> endpoints) {
+        int size = endpoints.size();
+        if (size == 1) {
+            return endpoints.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        Endpoint a = endpoints.get(first);
+        Endpoint b = endpoints.get(second);
+        return a.outstanding() <= b.outstanding() ? a : b;
+    }
+}
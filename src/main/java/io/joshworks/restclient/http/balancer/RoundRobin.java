@@ -0,0 +1,17 @@
+package io.joshworks.restclient.http.balancer;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks the endpoints in turn
+ */
+public class RoundRobin implements LoadBalancer {
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    @Override
+    public Endpoint select(List<Endpoint> endpoints) {
+        return endpoints.get((next.getAndIncrement() & Integer.MAX_VALUE) % endpoints.size());
+    }
+}
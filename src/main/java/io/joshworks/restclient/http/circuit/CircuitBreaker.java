@@ -0,0 +1,198 @@
+package io.joshworks.restclient.http.circuit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock free circuit breaker, see {@link CircuitBreakerPolicy} for the state transitions.
+ * Every permitted call must be followed by either {@link #onSuccess(Permit, long)}, {@link #onFailure(Permit, long)}
+ * or {@link #release(Permit)} with the permit it was granted.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final CircuitBreakerPolicy policy;
+    private final long openDurationNanos;
+    private final AtomicReference<Transition> current = new AtomicReference<>(new Transition(State.CLOSED, System.nanoTime()));
+    private final AtomicInteger probes = new AtomicInteger();
+    private final AtomicInteger probeSuccesses = new AtomicInteger();
+    private final Window window;
+
+    public CircuitBreaker(CircuitBreakerPolicy policy) {
+        this.policy = policy;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(policy.openDuration);
+        this.window = new Window(policy.windowSize);
+    }
+
+    public State state() {
+        return current.get().state;
+    }
+
+    /**
+     * @return The permit of the call, or null if the circuit is open or all the half open probes are in progress
+     */
+    public Permit tryAcquire() {
+        Transition transition = current.get();
+        switch (transition.state) {
+            case CLOSED:
+                return transition.permit;
+            case OPEN:
+                if (System.nanoTime() - transition.time < openDurationNanos) {
+                    return null;
+                }
+                transition(transition, State.HALF_OPEN);
+                return tryAcquire();
+            default:
+                int taken;
+                do {
+                    taken = probes.get();
+                    if (taken >= policy.halfOpenCalls) {
+                        return null;
+                    }
+                } while (!probes.compareAndSet(taken, taken + 1));
+                return transition.permit;
+        }
+    }
+
+    public void onSuccess(Permit permit, long durationMillis) {
+        onResult(permit, false, durationMillis);
+    }
+
+    public void onFailure(Permit permit, long durationMillis) {
+        onResult(permit, true, durationMillis);
+    }
+
+    /**
+     * Releases a permitted call that finished without a result, ex: the call was cancelled
+     */
+    public void release(Permit permit) {
+        if (isProbe(permit, current.get())) {
+            probes.decrementAndGet();
+        }
+    }
+
+    private void onResult(Permit permit, boolean failure, long durationMillis) {
+        boolean slow = durationMillis >= policy.slowCallDuration;
+        Transition transition = current.get();
+        switch (transition.state) {
+            case CLOSED:
+                window.record(failure, slow);
+                if (window.exceeds(policy)) {
+                    transition(transition, State.OPEN);
+                }
+                break;
+            case HALF_OPEN:
+                //only the probes of this half open state decide it, calls started before are ignored
+                if (!isProbe(permit, transition)) {
+                    break;
+                }
+                if (failure || slow) {
+                    transition(transition, State.OPEN);
+                } else if (probeSuccesses.incrementAndGet() >= policy.halfOpenCalls) {
+                    transition(transition, State.CLOSED);
+                }
+                break;
+            default:
+                //calls started before the circuit opened are ignored
+                break;
+        }
+    }
+
+    private static boolean isProbe(Permit permit, Transition transition) {
+        return transition.state == State.HALF_OPEN && permit == transition.permit;
+    }
+
+    private void transition(Transition from, State to) {
+        if (!current.compareAndSet(from, new Transition(to, System.nanoTime()))) {
+            return;
+        }
+        if (to == State.OPEN) {
+            probes.set(0);
+            probeSuccesses.set(0);
+        } else if (to == State.CLOSED) {
+            window.reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return state().name();
+    }
+
+    private static final class Transition {
+        private final State state;
+        private final long time;
+        private final Permit permit = new Permit();
+
+        private Transition(State state, long time) {
+            this.state = state;
+            this.time = time;
+        }
+    }
+
+    /**
+     * Ties a permitted call to the state transition it was granted under, so a call permitted while closed
+     * is never taken for a half open probe
+     */
+    public static final class Permit {
+        private Permit() {
+        }
+    }
+
+    /**
+     * Outcome of the last calls, the counters are updated as slots are overwritten
+     */
+    private static final class Window {
+
+        private static final int RECORDED = 1;
+        private static final int FAILURE = 2;
+        private static final int SLOW = 4;
+
+        private final AtomicIntegerArray outcomes;
+        private final AtomicLong index = new AtomicLong();
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicInteger slowCalls = new AtomicInteger();
+
+        private Window(int size) {
+            this.outcomes = new AtomicIntegerArray(size);
+        }
+
+        private void record(boolean failure, boolean slow) {
+            int outcome = RECORDED | (failure ? FAILURE : 0) | (slow ? SLOW : 0);
+            int slot = (int) (index.getAndIncrement() % outcomes.length());
+            update(outcomes.getAndSet(slot, outcome), outcome);
+        }
+
+        private void reset() {
+            for (int i = 0; i < outcomes.length(); i++) {
+                update(outcomes.getAndSet(i, 0), 0);
+            }
+        }
+
+        private void update(int previous, int outcome) {
+            calls.addAndGet(flag(outcome, RECORDED) - flag(previous, RECORDED));
+            failures.addAndGet(flag(outcome, FAILURE) - flag(previous, FAILURE));
+            slowCalls.addAndGet(flag(outcome, SLOW) - flag(previous, SLOW));
+        }
+
+        private boolean exceeds(CircuitBreakerPolicy policy) {
+            int total = calls.get();
+            if (total < policy.minimumCalls) {
+                return false;
+            }
+            return failures.get() * 100 >= policy.failureRateThreshold * total
+                    || slowCalls.get() * 100 >= policy.slowCallRateThreshold * total;
+        }
+
+        private static int flag(int outcome, int flag) {
+            return (outcome & flag) != 0 ? 1 : 0;
+        }
+    }
+}
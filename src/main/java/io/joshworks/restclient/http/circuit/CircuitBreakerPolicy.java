@@ -0,0 +1,120 @@
+package io.joshworks.restclient.http.circuit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration of the circuit breakers of a client, each route (scheme, host and port) has its own circuit breaker.
+ * <p>
+ * The failure rate and the slow call rate are computed over the last calls of the route (sliding window).
+ * A call fails when it throws an exception or the response status is 5xx, and is slow when it takes longer than the
+ * slow call duration. When either rate reaches its threshold the circuit opens and requests fail immediately.
+ * After the open duration, a limited number of probe calls are let through (half open), the circuit closes if all
+ * of them succeed, or opens again otherwise.
+ */
+public class CircuitBreakerPolicy {
+
+    public final int failureRateThreshold;
+    public final int slowCallRateThreshold;
+    public final long slowCallDuration;
+    public final int windowSize;
+    public final int minimumCalls;
+    public final long openDuration;
+    public final int halfOpenCalls;
+
+    private CircuitBreakerPolicy(Builder builder) {
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.slowCallDuration = builder.slowCallDuration;
+        this.windowSize = builder.windowSize;
+        this.minimumCalls = builder.minimumCalls;
+        this.openDuration = builder.openDuration;
+        this.halfOpenCalls = builder.halfOpenCalls;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private int failureRateThreshold = 50;
+        private int slowCallRateThreshold = 100;
+        private long slowCallDuration = Long.MAX_VALUE;
+        private int windowSize = 100;
+        private int minimumCalls = 20;
+        private long openDuration = TimeUnit.SECONDS.toMillis(30);
+        private int halfOpenCalls = 5;
+
+        private Builder() {
+        }
+
+        public CircuitBreakerPolicy build() {
+            return new CircuitBreakerPolicy(this);
+        }
+
+        /**
+         * @param percentage Failure rate that opens the circuit. Default is 50.
+         */
+        public Builder failureRateThreshold(int percentage) {
+            this.failureRateThreshold = percentage(percentage);
+            return this;
+        }
+
+        /**
+         * Calls that take longer than the given duration are slow. Slow calls are not tracked by default.
+         *
+         * @param percentage Slow call rate that opens the circuit
+         * @param duration   Duration after which a call is slow, in milliseconds
+         */
+        public Builder slowCalls(int percentage, long duration) {
+            if (duration <= 0) {
+                throw new IllegalArgumentException("duration must be greater than zero");
+            }
+            this.slowCallRateThreshold = percentage(percentage);
+            this.slowCallDuration = duration;
+            return this;
+        }
+
+        /**
+         * @param windowSize   Number of recent calls used to compute the failure and slow call rates. Default is 100.
+         * @param minimumCalls Number of calls required before the circuit can open. Default is 20.
+         */
+        public Builder slidingWindow(int windowSize, int minimumCalls) {
+            if (windowSize < 1 || minimumCalls < 1 || minimumCalls > windowSize) {
+                throw new IllegalArgumentException("windowSize and minimumCalls must be positive, and minimumCalls not greater than windowSize");
+            }
+            this.windowSize = windowSize;
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * @param openDuration Time the circuit stays open before letting probe calls through, in milliseconds. Default is 30000.
+         */
+        public Builder openDuration(long openDuration) {
+            if (openDuration < 0) {
+                throw new IllegalArgumentException("openDuration must not be negative");
+            }
+            this.openDuration = openDuration;
+            return this;
+        }
+
+        /**
+         * @param halfOpenCalls Number of probe calls allowed while half open, all of them must succeed to close the circuit. Default is 5.
+         */
+        public Builder halfOpenCalls(int halfOpenCalls) {
+            if (halfOpenCalls < 1) {
+                throw new IllegalArgumentException("halfOpenCalls must be at least 1");
+            }
+            this.halfOpenCalls = halfOpenCalls;
+            return this;
+        }
+
+        private static int percentage(int value) {
+            if (value < 1 || value > 100) {
+                throw new IllegalArgumentException("Percentage must be between 1 and 100");
+            }
+            return value;
+        }
+    }
+}
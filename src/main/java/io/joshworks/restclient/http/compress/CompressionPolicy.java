@@ -0,0 +1,111 @@
+package io.joshworks.restclient.http.compress;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses request bodies larger than a threshold while they are written to the connection, setting the
+ * Content-Encoding header. Bodies of unknown length (ex: streams) are always compressed, bodies that already have a
+ * Content-Encoding are never compressed.
+ * <p>
+ * Only routes known to accept compressed bodies are compressed: all routes, or the configured ones. A route that
+ * responds 415 (Unsupported Media Type) to a compressed body is no longer compressed.
+ */
+public class CompressionPolicy {
+
+    public enum Encoding {
+        GZIP("gzip"),
+        DEFLATE("deflate");
+
+        public final String value;
+
+        Encoding(String value) {
+            this.value = value;
+        }
+    }
+
+    public final Encoding encoding;
+    public final long threshold;
+    public final int level;
+
+    private final Set<String> routes;
+
+    private CompressionPolicy(Builder builder) {
+        this.encoding = builder.encoding;
+        this.threshold = builder.threshold;
+        this.level = builder.level;
+        this.routes = new HashSet<>(builder.routes);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param route The route key, scheme://host:port
+     */
+    public boolean compresses(String route) {
+        return routes.isEmpty() || routes.contains(route);
+    }
+
+    public static class Builder {
+
+        private Encoding encoding = Encoding.GZIP;
+        private long threshold = 1024;
+        private int level = Deflater.DEFAULT_COMPRESSION;
+        private final Set<String> routes = new HashSet<>();
+
+        private Builder() {
+        }
+
+        public CompressionPolicy build() {
+            return new CompressionPolicy(this);
+        }
+
+        /**
+         * @param encoding The Content-Encoding of compressed bodies. Default is GZIP.
+         */
+        public Builder encoding(Encoding encoding) {
+            if (encoding == null) {
+                throw new IllegalArgumentException("encoding must be provided");
+            }
+            this.encoding = encoding;
+            return this;
+        }
+
+        /**
+         * @param threshold Minimum body size to compress, in bytes. Default is 1024.
+         */
+        public Builder threshold(long threshold) {
+            if (threshold < 0) {
+                throw new IllegalArgumentException("threshold must not be negative");
+            }
+            this.threshold = threshold;
+            return this;
+        }
+
+        /**
+         * @param level Compression level from 1 (fastest) to 9 (smallest). Default is the zlib default (6).
+         */
+        public Builder level(int level) {
+            if (level < 1 || level > 9) {
+                throw new IllegalArgumentException("level must be between 1 and 9");
+            }
+            this.level = level;
+            return this;
+        }
+
+        /**
+         * Restricts compression to the given routes, ex: "https://my-api.com:443". Default is all routes.
+         */
+        public Builder routes(String... routes) {
+            for (String route : Arrays.asList(routes)) {
+                this.routes.add(route.toLowerCase(Locale.ROOT));
+            }
+            return this;
+        }
+    }
+}
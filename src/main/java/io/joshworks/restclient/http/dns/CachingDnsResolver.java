@@ -0,0 +1,233 @@
+package io.joshworks.restclient.http.dns;
+
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DnsResolver that caches the addresses of each host for its own ttl, independently of the JVM DNS cache.
+ * Entries are refreshed in the background before they expire, so requests only block on the first lookup of a host.
+ * Each lookup returns all the addresses of the host, starting from a different one every time, and addresses that
+ * failed to connect are moved out of the result until their quarantine ends.
+ * It can be shared by multiple clients.
+ */
+public class CachingDnsResolver implements DnsResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(CachingDnsResolver.class);
+
+    private final DnsResolver upstream;
+    private final long ttl;
+    private final long refreshAfter;
+    private final long quarantine;
+    private final ConcurrentMap<String, Entry> cache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<InetAddress, Long> quarantined = new ConcurrentHashMap<>();
+    private final Executor refresher;
+
+    private CachingDnsResolver(Builder builder) {
+        this.upstream = builder.upstream;
+        this.ttl = TimeUnit.MILLISECONDS.toNanos(builder.ttl);
+        this.refreshAfter = (long) (ttl * builder.refreshAhead);
+        this.quarantine = TimeUnit.MILLISECONDS.toNanos(builder.quarantine);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "restclient-dns-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        this.refresher = executor;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+        long now = System.nanoTime();
+        Entry entry = cache.computeIfAbsent(host.toLowerCase(), Entry::new);
+        InetAddress[] addresses = entry.addresses;
+        if (addresses == null || now - entry.expiresAt >= 0) {
+            addresses = load(entry);
+        } else if (now - entry.refreshAt >= 0 && entry.refreshing.compareAndSet(false, true)) {
+            refresher.execute(() -> refresh(entry));
+        }
+        return order(addresses, entry.rotation.getAndIncrement() & Integer.MAX_VALUE, now);
+    }
+
+    /**
+     * Moves the address to the end of the lookup results until the quarantine ends, ex: it failed to connect
+     */
+    public void quarantine(InetAddress address) {
+        if (quarantine > 0) {
+            quarantined.put(address, System.nanoTime() + quarantine);
+        }
+    }
+
+    public boolean quarantined(InetAddress address) {
+        return quarantined(address, System.nanoTime());
+    }
+
+    /**
+     * Removes all the cached addresses
+     */
+    public void clear() {
+        cache.clear();
+        quarantined.clear();
+    }
+
+    private InetAddress[] load(Entry entry) throws UnknownHostException {
+        synchronized (entry) {
+            InetAddress[] addresses = entry.addresses;
+            if (addresses != null && System.nanoTime() - entry.expiresAt < 0) {
+                return addresses;
+            }
+            return update(entry);
+        }
+    }
+
+    private void refresh(Entry entry) {
+        try {
+            synchronized (entry) {
+                update(entry);
+            }
+        } catch (Exception e) {
+            //keeps the current addresses until they expire
+            logger.warn("Failed to refresh addresses of " + entry.host, e);
+        } finally {
+            entry.refreshing.set(false);
+        }
+    }
+
+    private InetAddress[] update(Entry entry) throws UnknownHostException {
+        InetAddress[] addresses = upstream.resolve(entry.host);
+        if (addresses == null || addresses.length == 0) {
+            throw new UnknownHostException(entry.host);
+        }
+        long now = System.nanoTime();
+        entry.expiresAt = now + ttl;
+        entry.refreshAt = now + refreshAfter;
+        entry.addresses = addresses;
+        return addresses;
+    }
+
+    //rotated addresses, the quarantined ones last
+    private InetAddress[] order(InetAddress[] addresses, int rotation, long now) {
+        int size = addresses.length;
+        if (size == 1) {
+            return addresses.clone();
+        }
+        List<InetAddress> available = new ArrayList<>(size);
+        List<InetAddress> failed = new ArrayList<>(0);
+        for (int i = 0; i < size; i++) {
+            InetAddress address = addresses[(rotation + i) % size];
+            if (quarantined.isEmpty() || !quarantined(address, now)) {
+                available.add(address);
+            } else {
+                failed.add(address);
+            }
+        }
+        available.addAll(failed);
+        return available.toArray(new InetAddress[size]);
+    }
+
+    private boolean quarantined(InetAddress address, long now) {
+        Long until = quarantined.get(address);
+        if (until == null) {
+            return false;
+        }
+        if (until - now > 0) {
+            return true;
+        }
+        quarantined.remove(address, until);
+        return false;
+    }
+
+    private static class Entry {
+        private final String host;
+        private final AtomicInteger rotation = new AtomicInteger();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile InetAddress[] addresses;
+        private volatile long expiresAt;
+        private volatile long refreshAt;
+
+        private Entry(String host) {
+            this.host = host;
+        }
+    }
+
+    public static class Builder {
+
+        private DnsResolver upstream = SystemDefaultDnsResolver.INSTANCE;
+        private long ttl = 60000;
+        private double refreshAhead = 0.8;
+        private long quarantine = 30000;
+
+        private Builder() {
+        }
+
+        public CachingDnsResolver build() {
+            return new CachingDnsResolver(this);
+        }
+
+        /**
+         * @param upstream The resolver used to look up the hosts, ex: an InMemoryDnsResolver for tests.
+         *                 Default is the system resolver.
+         */
+        public Builder upstream(DnsResolver upstream) {
+            if (upstream == null) {
+                throw new IllegalArgumentException("upstream must be provided");
+            }
+            this.upstream = upstream;
+            return this;
+        }
+
+        /**
+         * @param ttl Time the addresses of a host are cached, in milliseconds. Default is 60000.
+         */
+        public Builder ttl(long ttl) {
+            if (ttl <= 0) {
+                throw new IllegalArgumentException("ttl must be greater than zero");
+            }
+            this.ttl = ttl;
+            return this;
+        }
+
+        /**
+         * @param refreshAhead Fraction of the ttl after which a lookup triggers a background refresh of the host,
+         *                     between 0 and 1. Default is 0.8.
+         */
+        public Builder refreshAhead(double refreshAhead) {
+            if (refreshAhead <= 0 || refreshAhead > 1) {
+                throw new IllegalArgumentException("refreshAhead must be greater than 0 and at most 1");
+            }
+            this.refreshAhead = refreshAhead;
+            return this;
+        }
+
+        /**
+         * @param quarantine Time an address that failed to connect is moved to the end of the lookup results,
+         *                   in milliseconds, zero disables quarantine. Default is 30000.
+         */
+        public Builder quarantine(long quarantine) {
+            if (quarantine < 0) {
+                throw new IllegalArgumentException("quarantine must not be negative");
+            }
+            this.quarantine = quarantine;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package io.joshworks.restclient.http.dns;
+
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.nio.reactor.SessionRequest;
+import org.apache.http.nio.reactor.SessionRequestCallback;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+/**
+ * Async client I/O reactor that quarantines the addresses it fails to connect to,
+ * so the next connection of the host uses another address
+ */
+public class QuarantiningIOReactor extends DefaultConnectingIOReactor {
+
+    private final CachingDnsResolver resolver;
+
+    public QuarantiningIOReactor(CachingDnsResolver resolver) throws IOReactorException {
+        this.resolver = resolver;
+    }
+
+    @Override
+    public SessionRequest connect(SocketAddress remoteAddress, SocketAddress localAddress, Object attachment, SessionRequestCallback callback) {
+        return super.connect(remoteAddress, localAddress, attachment, new SessionRequestCallback() {
+            @Override
+            public void completed(SessionRequest request) {
+                if (callback != null) {
+                    callback.completed(request);
+                }
+            }
+
+            @Override
+            public void failed(SessionRequest request) {
+                quarantine(remoteAddress);
+                if (callback != null) {
+                    callback.failed(request);
+                }
+            }
+
+            @Override
+            public void timeout(SessionRequest request) {
+                quarantine(remoteAddress);
+                if (callback != null) {
+                    callback.timeout(request);
+                }
+            }
+
+            @Override
+            public void cancelled(SessionRequest request) {
+                if (callback != null) {
+                    callback.cancelled(request);
+                }
+            }
+        });
+    }
+
+    private void quarantine(SocketAddress remoteAddress) {
+        if (remoteAddress instanceof InetSocketAddress && ((InetSocketAddress) remoteAddress).getAddress() != null) {
+            resolver.quarantine(((InetSocketAddress) remoteAddress).getAddress());
+        }
+    }
+}
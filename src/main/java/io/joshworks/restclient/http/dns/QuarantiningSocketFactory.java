@@ -0,0 +1,48 @@
+package io.joshworks.restclient.http.dns;
+
+import org.apache.http.HttpHost;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.LayeredConnectionSocketFactory;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Sync client socket factory that quarantines the addresses it fails to connect to,
+ * the connection manager then tries the next address of the host
+ */
+public class QuarantiningSocketFactory implements LayeredConnectionSocketFactory {
+
+    private final ConnectionSocketFactory delegate;
+    private final CachingDnsResolver resolver;
+
+    public QuarantiningSocketFactory(ConnectionSocketFactory delegate, CachingDnsResolver resolver) {
+        this.delegate = delegate;
+        this.resolver = resolver;
+    }
+
+    @Override
+    public Socket createSocket(HttpContext context) throws IOException {
+        return delegate.createSocket(context);
+    }
+
+    @Override
+    public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress, InetSocketAddress localAddress, HttpContext context) throws IOException {
+        try {
+            return delegate.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+        } catch (IOException e) {
+            resolver.quarantine(remoteAddress.getAddress());
+            throw e;
+        }
+    }
+
+    @Override
+    public Socket createLayeredSocket(Socket socket, String target, int port, HttpContext context) throws IOException {
+        if (!(delegate instanceof LayeredConnectionSocketFactory)) {
+            throw new IOException("Socket factory does not support layered sockets: " + delegate.getClass().getName());
+        }
+        return ((LayeredConnectionSocketFactory) delegate).createLayeredSocket(socket, target, port, context);
+    }
+}
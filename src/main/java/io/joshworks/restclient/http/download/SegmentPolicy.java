@@ -0,0 +1,81 @@
+package io.joshworks.restclient.http.download;
+
+/**
+ * Downloads a file in byte ranges fetched concurrently, each on its own connection, and written at their offset in the
+ * file. Useful when the throughput is limited per connection rather than by the link.
+ * <p>
+ * The server must advertise range support ({@code Accept-Ranges: bytes}) and the length of the body in the response
+ * of a {@code HEAD} request, otherwise the file is downloaded in a single stream. A segment that fails is fetched again
+ * from where it stopped, without affecting the other segments.
+ */
+public class SegmentPolicy {
+
+    public final int segments;
+    public final long minSegmentSize;
+    public final int retries;
+
+    private SegmentPolicy(Builder builder) {
+        this.segments = builder.segments;
+        this.minSegmentSize = builder.minSegmentSize;
+        this.retries = builder.retries;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return Number of segments a body of the given length is split into, at least one
+     */
+    public int segments(long length) {
+        long bySize = Math.max(1, length / minSegmentSize);
+        return (int) Math.min(segments, bySize);
+    }
+
+    public static class Builder {
+
+        private int segments = 4;
+        private long minSegmentSize = 8 * 1024 * 1024;
+        private int retries = 3;
+
+        private Builder() {
+        }
+
+        public SegmentPolicy build() {
+            return new SegmentPolicy(this);
+        }
+
+        /**
+         * @param segments Maximum number of ranges fetched concurrently. Default is 4.
+         */
+        public Builder segments(int segments) {
+            if (segments < 1) {
+                throw new IllegalArgumentException("segments must be greater than zero");
+            }
+            this.segments = segments;
+            return this;
+        }
+
+        /**
+         * @param minSegmentSize Minimum size of a segment in bytes, smaller bodies are split in fewer segments. Default is 8MB.
+         */
+        public Builder minSegmentSize(long minSegmentSize) {
+            if (minSegmentSize < 1) {
+                throw new IllegalArgumentException("minSegmentSize must be greater than zero");
+            }
+            this.minSegmentSize = minSegmentSize;
+            return this;
+        }
+
+        /**
+         * @param retries Number of times a failed segment is fetched again before the download fails. Default is 3.
+         */
+        public Builder retries(int retries) {
+            if (retries < 0) {
+                throw new IllegalArgumentException("retries must not be negative");
+            }
+            this.retries = retries;
+            return this;
+        }
+    }
+}
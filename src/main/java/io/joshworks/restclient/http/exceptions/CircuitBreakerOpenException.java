@@ -0,0 +1,8 @@
+package io.joshworks.restclient.http.exceptions;
+
+public class CircuitBreakerOpenException extends RestClientException {
+
+    public CircuitBreakerOpenException(String route) {
+        super("Circuit breaker open for " + route);
+    }
+}
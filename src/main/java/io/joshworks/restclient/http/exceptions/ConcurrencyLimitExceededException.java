@@ -0,0 +1,8 @@
+package io.joshworks.restclient.http.exceptions;
+
+public class ConcurrencyLimitExceededException extends RestClientException {
+
+    public ConcurrencyLimitExceededException(String route) {
+        super("Concurrency limit exceeded for " + route);
+    }
+}
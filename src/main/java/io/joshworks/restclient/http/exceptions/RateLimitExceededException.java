@@ -0,0 +1,8 @@
+package io.joshworks.restclient.http.exceptions;
+
+public class RateLimitExceededException extends RestClientException {
+
+    public RateLimitExceededException(String route) {
+        super("Rate limit exceeded for " + route);
+    }
+}
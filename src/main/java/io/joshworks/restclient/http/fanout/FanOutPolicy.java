@@ -0,0 +1,79 @@
+package io.joshworks.restclient.http.fanout;
+
+/**
+ * When a fan out completes: once all, a majority, or the first k requests succeeded, or when the deadline is reached,
+ * whichever happens first. A request succeeds when a response with a status lower than 500 is received.
+ * The requests still outstanding when the fan out completes are aborted, releasing their connections.
+ */
+public class FanOutPolicy {
+
+    public enum Completion {
+        ALL, QUORUM, FIRST_K
+    }
+
+    public final Completion completion;
+    public final int k;
+    public final long deadline;
+
+    private FanOutPolicy(Builder builder) {
+        this.completion = builder.completion;
+        this.k = builder.k;
+        this.deadline = builder.deadline;
+    }
+
+    public static Builder all() {
+        return new Builder(Completion.ALL, 0);
+    }
+
+    public static Builder quorum() {
+        return new Builder(Completion.QUORUM, 0);
+    }
+
+    public static Builder firstK(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be greater than zero");
+        }
+        return new Builder(Completion.FIRST_K, k);
+    }
+
+    /**
+     * @return Number of successful requests needed to complete a fan out of the given size
+     */
+    public int required(int requests) {
+        switch (completion) {
+            case QUORUM:
+                return requests / 2 + 1;
+            case FIRST_K:
+                return Math.min(k, requests);
+            default:
+                return requests;
+        }
+    }
+
+    public static class Builder {
+
+        private final Completion completion;
+        private final int k;
+        private long deadline;
+
+        private Builder(Completion completion, int k) {
+            this.completion = completion;
+            this.k = k;
+        }
+
+        public FanOutPolicy build() {
+            return new FanOutPolicy(this);
+        }
+
+        /**
+         * @param deadline Max time to wait for the responses, in milliseconds, zero for no deadline. Default is 0.
+         */
+        public Builder deadline(long deadline) {
+            if (deadline < 0) {
+                throw new IllegalArgumentException("deadline must not be negative");
+            }
+            this.deadline = deadline;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.joshworks.restclient.http.hedge;
+
+import io.joshworks.restclient.http.HttpMethod;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Sends a second copy of a request when no response arrived within a delay, the first response wins and the other
+ * request is cancelled. Only requests without a body using one of the hedged methods are hedged.
+ * <p>
+ * The delay is either fixed, or the observed percentile of the route response times. The fixed delay is used until
+ * enough responses were received from the route. The number of hedged requests is capped to a ratio of the requests.
+ */
+public class HedgePolicy {
+
+    public final long delay;
+    public final double percentile;
+    public final double maxRatio;
+
+    private final Set<HttpMethod> methods;
+
+    private HedgePolicy(Builder builder) {
+        this.delay = builder.delay;
+        this.percentile = builder.percentile;
+        this.maxRatio = builder.maxRatio;
+        this.methods = EnumSet.copyOf(builder.methods);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean hedgeable(HttpMethod method) {
+        return methods.contains(method);
+    }
+
+    public static class Builder {
+
+        private long delay = 100;
+        private double percentile;
+        private double maxRatio = 0.05;
+        private final Set<HttpMethod> methods = EnumSet.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+        private Builder() {
+        }
+
+        public HedgePolicy build() {
+            return new HedgePolicy(this);
+        }
+
+        /**
+         * @param delay Time to wait for a response before sending the hedged request, in milliseconds. Default is 100.
+         */
+        public Builder delay(long delay) {
+            if (delay < 0) {
+                throw new IllegalArgumentException("delay must not be negative");
+            }
+            this.delay = delay;
+            return this;
+        }
+
+        /**
+         * Use the observed percentile of the route response times as delay, ex: 95 for the p95.
+         * The fixed delay is used until enough responses were received. Disabled by default.
+         */
+        public Builder percentile(double percentile) {
+            if (percentile <= 0 || percentile > 100) {
+                throw new IllegalArgumentException("percentile must be between 0 and 100");
+            }
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * @param maxRatio Maximum number of hedged requests per request, ex: 0.05 allows 5% extra traffic. Default is 0.05.
+         */
+        public Builder maxRatio(double maxRatio) {
+            if (maxRatio < 0) {
+                throw new IllegalArgumentException("maxRatio must not be negative");
+            }
+            this.maxRatio = maxRatio;
+            return this;
+        }
+
+        /**
+         * Replaces the hedged methods, only idempotent methods should be used. Default is GET, HEAD and OPTIONS.
+         */
+        public Builder methods(HttpMethod... methods) {
+            this.methods.clear();
+            this.methods.addAll(Arrays.asList(methods));
+            return this;
+        }
+    }
+}
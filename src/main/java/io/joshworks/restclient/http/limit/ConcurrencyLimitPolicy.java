@@ -0,0 +1,123 @@
+package io.joshworks.restclient.http.limit;
+
+/**
+ * Adaptive limit of in flight requests per route (scheme, host and port).
+ * The limit is adjusted from the response times and failures of the route:
+ * <ul>
+ * <li>AIMD: the limit grows by one while the route is busy and responses succeed, and shrinks by the backoff ratio
+ * when a request fails, times out, or the server responds with 429 or 503</li>
+ * <li>GRADIENT: the limit follows the ratio between the long term and the recent response times, so it shrinks as soon
+ * as the server starts queueing requests, before failures happen</li>
+ * </ul>
+ * Requests above the limit wait up to the queue timeout for a slot, and fail with ConcurrencyLimitExceededException
+ * otherwise. Requests are limited before a connection is leased from the pool.
+ */
+public class ConcurrencyLimitPolicy {
+
+    public enum Algorithm {
+        AIMD, GRADIENT
+    }
+
+    public final Algorithm algorithm;
+    public final int initialLimit;
+    public final int minLimit;
+    public final int maxLimit;
+    public final long queueTimeout;
+    public final double backoffRatio;
+    public final double rttTolerance;
+
+    private ConcurrencyLimitPolicy(Builder builder) {
+        this.algorithm = builder.algorithm;
+        this.initialLimit = builder.initialLimit;
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.queueTimeout = builder.queueTimeout;
+        this.backoffRatio = builder.backoffRatio;
+        this.rttTolerance = builder.rttTolerance;
+    }
+
+    public static Builder builder(Algorithm algorithm) {
+        return new Builder(algorithm);
+    }
+
+    public static class Builder {
+
+        private final Algorithm algorithm;
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 200;
+        private long queueTimeout;
+        private double backoffRatio = 0.9;
+        private double rttTolerance = 1.5;
+
+        private Builder(Algorithm algorithm) {
+            if (algorithm == null) {
+                throw new IllegalArgumentException("algorithm must be provided");
+            }
+            this.algorithm = algorithm;
+        }
+
+        public ConcurrencyLimitPolicy build() {
+            if (initialLimit < minLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException("initialLimit must be between minLimit and maxLimit");
+            }
+            return new ConcurrencyLimitPolicy(this);
+        }
+
+        /**
+         * @param initialLimit The limit before any response is received. Default is 20.
+         */
+        public Builder initialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        /**
+         * @param minLimit The lowest the limit can go. Default is 1.
+         * @param maxLimit The highest the limit can go. Default is 200.
+         */
+        public Builder limits(int minLimit, int maxLimit) {
+            if (minLimit < 1 || maxLimit < minLimit) {
+                throw new IllegalArgumentException("minLimit must be at least 1 and not greater than maxLimit");
+            }
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * @param queueTimeout Time a request waits for a slot when the limit is reached, in milliseconds.
+         *                     Zero rejects the request immediately. Default is 0.
+         */
+        public Builder queueTimeout(long queueTimeout) {
+            if (queueTimeout < 0) {
+                throw new IllegalArgumentException("queueTimeout must not be negative");
+            }
+            this.queueTimeout = queueTimeout;
+            return this;
+        }
+
+        /**
+         * @param backoffRatio AIMD only, the limit is multiplied by this ratio when a request fails. Default is 0.9.
+         */
+        public Builder backoffRatio(double backoffRatio) {
+            if (backoffRatio <= 0 || backoffRatio >= 1) {
+                throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+            }
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        /**
+         * @param rttTolerance GRADIENT only, how much the recent response time can exceed the long term one before
+         *                     the limit is reduced, ex: 1.5 tolerates 50% slower responses. Default is 1.5.
+         */
+        public Builder rttTolerance(double rttTolerance) {
+            if (rttTolerance < 1) {
+                throw new IllegalArgumentException("rttTolerance must be at least 1");
+            }
+            this.rttTolerance = rttTolerance;
+            return this;
+        }
+    }
+}
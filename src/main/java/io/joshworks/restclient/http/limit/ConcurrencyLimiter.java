@@ -0,0 +1,160 @@
+package io.joshworks.restclient.http.limit;
+
+import io.joshworks.restclient.http.exceptions.ConcurrencyLimitExceededException;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive in flight limit of a single route. Slots are taken with a compare and set on the in flight counter,
+ * requests that find the limit reached wait in a queue and are handed a slot when another request completes.
+ * The limit itself is updated with every completed request.
+ */
+public class ConcurrencyLimiter {
+
+    private static final CompletableFuture<Void> ACQUIRED = CompletableFuture.completedFuture(null);
+
+    //Gradient: weight of new samples in the long term response time and in the limit
+    private static final double LONG_RTT_WEIGHT = 2.0 / 101;
+    private static final double SMOOTHING = 0.2;
+
+    private final ConcurrencyLimitPolicy policy;
+    private final String route;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Queue<CompletableFuture<Void>> waiters = new ConcurrentLinkedQueue<>();
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRtt;
+
+    public ConcurrencyLimiter(ConcurrencyLimitPolicy policy, String route) {
+        this.policy = policy;
+        this.route = route;
+        this.limit = policy.initialLimit;
+        this.estimatedLimit = policy.initialLimit;
+    }
+
+    /**
+     * Takes a slot if the limit was not reached, without waiting
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Takes a slot, waiting up to the queue timeout of the policy
+     *
+     * @param scheduler Used to expire waiting requests
+     * @return A future completed when the slot is taken, or completed with ConcurrencyLimitExceededException
+     * if no slot became available in time. A waiting request can be abandoned by cancelling the future,
+     * if the cancellation fails, the slot was already taken and must be released.
+     */
+    public CompletableFuture<Void> acquire(ScheduledExecutorService scheduler) {
+        if (tryAcquire()) {
+            return ACQUIRED;
+        }
+        CompletableFuture<Void> waiter = new CompletableFuture<>();
+        if (policy.queueTimeout == 0) {
+            waiter.completeExceptionally(new ConcurrencyLimitExceededException(route));
+            return waiter;
+        }
+        try {
+            ScheduledFuture<?> timeout = scheduler.schedule(() -> waiter.completeExceptionally(new ConcurrencyLimitExceededException(route)), policy.queueTimeout, TimeUnit.MILLISECONDS);
+            //a waiter that got a slot (or was cancelled) no longer needs to expire
+            waiter.whenComplete((r, e) -> timeout.cancel(false));
+        } catch (RejectedExecutionException e) {
+            waiter.completeExceptionally(e);
+            return waiter;
+        }
+        waiters.add(waiter);
+        //a slot may have been released before the waiter was queued
+        drain();
+        return waiter;
+    }
+
+    /**
+     * Releases a slot of a completed request and updates the limit
+     *
+     * @param rtt     The response time in nanoseconds
+     * @param dropped Whether the request failed in a way that indicates overload
+     */
+    public void release(long rtt, boolean dropped) {
+        update(rtt, dropped, inFlight.get());
+        release();
+    }
+
+    /**
+     * Releases a slot without updating the limit, ex: the request was cancelled
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private void drain() {
+        while (!waiters.isEmpty() && tryAcquire()) {
+            CompletableFuture<Void> waiter = waiters.poll();
+            if (waiter == null || !waiter.complete(null)) {
+                //nobody to hand the slot to, the waiter expired or was cancelled
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private synchronized void update(long rtt, boolean dropped, int inFlight) {
+        double newLimit;
+        if (policy.algorithm == ConcurrencyLimitPolicy.Algorithm.AIMD) {
+            if (dropped) {
+                newLimit = estimatedLimit * policy.backoffRatio;
+            } else if (inFlight * 2 >= estimatedLimit) {
+                newLimit = estimatedLimit + 1;
+            } else {
+                //not enough load to tell whether the route can take more requests
+                newLimit = estimatedLimit;
+            }
+        } else {
+            newLimit = gradient(rtt, dropped, inFlight);
+        }
+        estimatedLimit = Math.max(policy.minLimit, Math.min(policy.maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    private double gradient(long rtt, boolean dropped, int inFlight) {
+        if (longRtt == 0) {
+            longRtt = rtt;
+        } else {
+            longRtt = longRtt * (1 - LONG_RTT_WEIGHT) + rtt * LONG_RTT_WEIGHT;
+        }
+        //recovering from a slow period, let the long term response time catch up faster
+        if (longRtt / rtt > 2) {
+            longRtt *= 0.95;
+        }
+        double gradient = dropped ? 0.5 : Math.max(0.5, Math.min(1.0, policy.rttTolerance * longRtt / Math.max(1, rtt)));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        //not enough load to tell whether the route can take more requests, but slower responses still reduce the limit
+        return inFlight * 2 < estimatedLimit ? Math.min(newLimit, estimatedLimit) : newLimit;
+    }
+}
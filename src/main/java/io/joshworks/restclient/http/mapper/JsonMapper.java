@@ -1,13 +1,28 @@
 package io.joshworks.restclient.http.mapper;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
 import io.joshworks.restclient.http.exceptions.JsonParsingException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * Created by Josh Gontijo on 5/5/17.
  */
 public class JsonMapper implements ObjectMapper {
-    private final Gson gson = new Gson();
+    private final Gson gson;
+
+    public JsonMapper() {
+        this(new Gson());
+    }
+
+    /**
+     * @param gson A configured instance, ex: with custom TypeAdapters or without html escaping
+     */
+    public JsonMapper(Gson gson) {
+        this.gson = gson;
+    }
 
     @Override
     public <T> T readValue(String value, Class<T> valueType) {
@@ -27,4 +42,22 @@ public class JsonMapper implements ObjectMapper {
         }
 
     }
+
+    @Override
+    public void writeValue(Object value, OutputStream out) throws IOException {
+        Utf8Writer writer = new Utf8Writer(out);
+        try {
+            gson.toJson(value, writer);
+        } catch (JsonIOException e) {
+            //failed writing to the connection, not serializing
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new JsonParsingException("Failed to create json of " + value, e);
+        } catch (Exception e) {
+            throw new JsonParsingException("Failed to create json of " + value, e);
+        }
+        //the stream is flushed by its owner, ex: once per record or at the end of the body
+        writer.finish();
+    }
 }
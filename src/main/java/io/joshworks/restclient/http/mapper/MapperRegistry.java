@@ -0,0 +1,91 @@
+package io.joshworks.restclient.http.mapper;
+
+import io.joshworks.restclient.http.MediaType;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable set of ObjectMappers by media type. Registering a mapper returns a new registry, so registries can be
+ * shared between threads and swapped (copy-on-write) without locking. The mapper resolved for each type/subtype looked
+ * up is cached in the registry, parameters (ex: charset) don't change the mapper. The cache is cleared when it reaches
+ * its maximum size, so arbitrary Content-Types can't grow it.
+ */
+public final class MapperRegistry {
+
+    public static final MapperRegistry EMPTY = new MapperRegistry(Collections.emptyMap());
+
+    private static final int MAX_ENTRIES = 256;
+
+    private final Map<MediaType, ObjectMapper> mappers;
+    private final Map<MediaType, Optional<ObjectMapper>> resolved = new ConcurrentHashMap<>();
+
+    private MapperRegistry(Map<MediaType, ObjectMapper> mappers) {
+        this.mappers = mappers;
+    }
+
+    /**
+     * @return A new registry with the mapper registered for the media type, replacing the existing one
+     */
+    public MapperRegistry with(MediaType mediaType, ObjectMapper mapper) {
+        Objects.requireNonNull(mediaType, "MediaType must be provided");
+        Objects.requireNonNull(mapper, "ObjectMapper must provided");
+        Map<MediaType, ObjectMapper> copy = new LinkedHashMap<>(mappers);
+        copy.put(mediaType, mapper);
+        return new MapperRegistry(Collections.unmodifiableMap(copy));
+    }
+
+    /**
+     * @return The mapper registered for the type/subtype of the media type, or for a compatible one
+     * (ex: application/json for application/json; charset=UTF-8), null if none
+     */
+    public ObjectMapper find(MediaType type) {
+        if (mappers.isEmpty()) {
+            return null;
+        }
+        MediaType key = type.getParameters().isEmpty() ? type : new MediaType(type.getType(), type.getSubtype());
+        Optional<ObjectMapper> mapper = resolved.get(key);
+        if (mapper == null) {
+            mapper = resolve(key);
+            if (resolved.size() >= MAX_ENTRIES) {
+                resolved.clear();
+            }
+            resolved.put(key, mapper);
+        }
+        return mapper.orElse(null);
+    }
+
+    /**
+     * @return The mapper of this registry for the media type, or the one registered globally in {@link ObjectMappers}
+     */
+    public ObjectMapper getMapper(MediaType type) {
+        ObjectMapper mapper = find(type);
+        return mapper != null ? mapper : ObjectMappers.getMapper(type);
+    }
+
+    public boolean isEmpty() {
+        return mappers.isEmpty();
+    }
+
+    /**
+     * @return Number of media types whose mapper lookup is cached
+     */
+    public int cachedLookups() {
+        return resolved.size();
+    }
+
+    private Optional<ObjectMapper> resolve(MediaType type) {
+        ObjectMapper mapper = mappers.get(type);
+        if (mapper != null) {
+            return Optional.of(mapper);
+        }
+        return mappers.entrySet().stream()
+                .filter(kv -> kv.getKey().isCompatible(type))
+                .map(Map.Entry::getValue)
+                .findFirst();
+    }
+}
@@ -1,8 +1,21 @@
 package io.joshworks.restclient.http.mapper;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
 public interface ObjectMapper {
 
     <T> T readValue(String value, Class<T> valueType);
 
     String writeValue(Object value);
+
+    /**
+     * Writes the serialized value to the stream, used to send request bodies without building them in memory first.
+     * The stream must not be closed. Defaults to writing the UTF-8 bytes of {@link #writeValue(Object)}, mappers able
+     * to serialize incrementally should override it.
+     */
+    default void writeValue(Object value, OutputStream out) throws IOException {
+        out.write(writeValue(value).getBytes(StandardCharsets.UTF_8));
+    }
 }
@@ -2,42 +2,50 @@ package io.joshworks.restclient.http.mapper;
 
 import io.joshworks.restclient.http.MediaType;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Mappers shared by all clients, used when a client has no mapper of its own for a media type
+ * (see {@link io.joshworks.restclient.http.ClientBuilder#objectMapper(MediaType, ObjectMapper)}).
+ * The registry is an immutable snapshot replaced on each registration, lookups never lock.
+ */
 public class ObjectMappers {
 
-    private static final Map<MediaType, ObjectMapper> mappers = new HashMap<>();
+    private static final AtomicReference<MapperRegistry> registry = new AtomicReference<>(defaults());
 
     private ObjectMappers() {
     }
 
     public static void register(MediaType mediaType, ObjectMapper mapper) {
-        Objects.requireNonNull(mediaType, "MediaType must be provided");
-        Objects.requireNonNull(mapper, "ObjectMapper must provided");
-        mappers.put(mediaType, mapper);
+        registry.updateAndGet(current -> current.with(mediaType, mapper));
     }
 
+    /**
+     * Removes the registered mappers, only the default text and json mappers are kept
+     */
     public static void clear() {
-        mappers.clear();
+        registry.set(defaults());
     }
 
+    /**
+     * @return The mapper registered for the media type, or for a compatible one (ex: application/json for
+     * application/json; charset=UTF-8), null if none
+     */
     public static ObjectMapper getMapper(MediaType type) {
-        if (mappers.isEmpty()) {
-            synchronized (mappers) {
-                if (mappers.isEmpty()) {
-                    //default mappers
-                    ObjectMappers.register(MediaType.TEXT_PLAIN_TYPE, new TextPlainMapper());
-                    ObjectMappers.register(MediaType.APPLICATION_JSON_TYPE, new JsonMapper());
-                }
-            }
-        }
-        ObjectMapper mapper = mappers.get(type);
-        if (mapper == null) {
-            mapper = mappers.entrySet().stream().filter(kv -> kv.getKey().isCompatible(type)).map(Map.Entry::getValue).findFirst().get();
-        }
-        return mapper;
+        return registry.get().find(type);
+    }
+
+    /**
+     * @return The current mappers, later registrations don't change the returned registry
+     */
+    public static MapperRegistry registry() {
+        return registry.get();
+    }
+
+    private static MapperRegistry defaults() {
+        return MapperRegistry.EMPTY
+                .with(MediaType.TEXT_PLAIN_TYPE, new TextPlainMapper())
+                .with(MediaType.APPLICATION_JSON_TYPE, new JsonMapper());
     }
 
 }
@@ -0,0 +1,132 @@
+package io.joshworks.restclient.http.mapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * Encodes characters as UTF-8 into a small buffer flushed to the stream, for serializing straight into a request body.
+ * An {@link java.io.OutputStreamWriter} allocates an 8KB buffer per writer, more than most bodies. Unpaired surrogates
+ * are written as '?', as {@link String#getBytes(java.nio.charset.Charset)} does. Closing the writer doesn't close the
+ * stream.
+ */
+final class Utf8Writer extends Writer {
+
+    private static final int BUFFER_SIZE = 512;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int count;
+    private char highSurrogate;
+
+    Utf8Writer(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        encode((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            encode(cbuf[i]);
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            encode(str.charAt(i));
+        }
+    }
+
+    @Override
+    public Writer append(CharSequence csq, int start, int end) throws IOException {
+        CharSequence chars = csq == null ? "null" : csq;
+        for (int i = start; i < end; i++) {
+            encode(chars.charAt(i));
+        }
+        return this;
+    }
+
+    @Override
+    public Writer append(CharSequence csq) throws IOException {
+        CharSequence chars = csq == null ? "null" : csq;
+        return append(chars, 0, chars.length());
+    }
+
+    private void encode(char c) throws IOException {
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                ensure(4);
+                buffer[count++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[count++] = (byte) (0x80 | (codePoint & 0x3F));
+                return;
+            }
+            ensure(1);
+            buffer[count++] = '?';
+        }
+        if (c < 0x80) {
+            ensure(1);
+            buffer[count++] = (byte) c;
+        } else if (c < 0x800) {
+            ensure(2);
+            buffer[count++] = (byte) (0xC0 | (c >> 6));
+            buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            ensure(1);
+            buffer[count++] = '?';
+        } else {
+            ensure(3);
+            buffer[count++] = (byte) (0xE0 | (c >> 12));
+            buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (count + bytes > buffer.length) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    /**
+     * Writes the buffered bytes to the stream without flushing it, a pending high surrogate is written as '?' since
+     * nothing can follow it
+     */
+    void finish() throws IOException {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            ensure(1);
+            buffer[count++] = '?';
+        }
+        drain();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        finish();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+}
@@ -0,0 +1,68 @@
+package io.joshworks.restclient.http.pipeline;
+
+import io.joshworks.restclient.http.HttpMethod;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Sends batches of requests to the same route pipelined on a single connection (HTTP/1.1 pipelining), without waiting
+ * for each response before sending the next request. Only requests using one of the pipelined methods can be pipelined.
+ * <p>
+ * The server must support pipelining. When the connection is closed before all the responses were received, the
+ * unanswered requests are sent again as regular requests.
+ */
+public class PipelinePolicy {
+
+    public final int maxDepth;
+
+    private final Set<HttpMethod> methods;
+
+    private PipelinePolicy(Builder builder) {
+        this.maxDepth = builder.maxDepth;
+        this.methods = EnumSet.copyOf(builder.methods);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean pipelineable(HttpMethod method) {
+        return methods.contains(method);
+    }
+
+    public static class Builder {
+
+        private int maxDepth = 8;
+        private final Set<HttpMethod> methods = EnumSet.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.PUT, HttpMethod.DELETE);
+
+        private Builder() {
+        }
+
+        public PipelinePolicy build() {
+            return new PipelinePolicy(this);
+        }
+
+        /**
+         * @param maxDepth Maximum number of requests sent on a connection before their responses are received,
+         *                 larger batches are split across connections. Default is 8.
+         */
+        public Builder maxDepth(int maxDepth) {
+            if (maxDepth < 1) {
+                throw new IllegalArgumentException("maxDepth must be greater than zero");
+            }
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        /**
+         * Replaces the pipelined methods, only idempotent methods should be used. Default is GET, HEAD, OPTIONS, PUT and DELETE.
+         */
+        public Builder methods(HttpMethod... methods) {
+            this.methods.clear();
+            this.methods.addAll(Arrays.asList(methods));
+            return this;
+        }
+    }
+}
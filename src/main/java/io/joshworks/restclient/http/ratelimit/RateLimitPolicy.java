@@ -0,0 +1,77 @@
+package io.joshworks.restclient.http.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the rate of requests sent by a client, either per route (scheme, host and port) or for all routes.
+ * Sync requests block the calling thread until a permit is available, async requests are submitted once a permit is
+ * available, without blocking the caller. Requests that would wait longer than the max wait fail with RateLimitExceededException.
+ * Each attempt (retries and hedged requests included) takes a permit.
+ */
+public class RateLimitPolicy {
+
+    public final double permitsPerSecond;
+    public final int burst;
+    public final long maxWait;
+    public final boolean perRoute;
+
+    private RateLimitPolicy(Builder builder) {
+        this.permitsPerSecond = builder.permitsPerSecond;
+        this.burst = builder.burst;
+        this.maxWait = builder.maxWait;
+        this.perRoute = builder.perRoute;
+    }
+
+    public static Builder builder(double permitsPerSecond) {
+        return new Builder(permitsPerSecond);
+    }
+
+    public static class Builder {
+
+        private final double permitsPerSecond;
+        private int burst = 1;
+        private long maxWait = TimeUnit.SECONDS.toMillis(30);
+        private boolean perRoute = true;
+
+        private Builder(double permitsPerSecond) {
+            if (permitsPerSecond <= 0) {
+                throw new IllegalArgumentException("permitsPerSecond must be greater than zero");
+            }
+            this.permitsPerSecond = permitsPerSecond;
+        }
+
+        public RateLimitPolicy build() {
+            return new RateLimitPolicy(this);
+        }
+
+        /**
+         * @param burst Number of requests that can be sent at once after the client was idle. Default is 1.
+         */
+        public Builder burst(int burst) {
+            if (burst < 1) {
+                throw new IllegalArgumentException("burst must be at least 1");
+            }
+            this.burst = burst;
+            return this;
+        }
+
+        /**
+         * @param maxWait Maximum time a request waits for a permit, in milliseconds. Default is 30000.
+         */
+        public Builder maxWait(long maxWait) {
+            if (maxWait < 0) {
+                throw new IllegalArgumentException("maxWait must not be negative");
+            }
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        /**
+         * @param perRoute True to have one limit per route, false to share a single limit across all routes. Default is true.
+         */
+        public Builder perRoute(boolean perRoute) {
+            this.perRoute = perRoute;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package io.joshworks.restclient.http.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock free token bucket. Instead of counting tokens, it keeps the time at which the next permit becomes available,
+ * so a permit is reserved with a single compare and set, and the caller is told how long to wait for it.
+ */
+public class RateLimiter {
+
+    private final long interval;
+    private final long burstCredit;
+    private final long maxWait;
+    private final AtomicLong nextPermit;
+
+    public RateLimiter(RateLimitPolicy policy) {
+        this.interval = (long) (TimeUnit.SECONDS.toNanos(1) / policy.permitsPerSecond);
+        this.burstCredit = interval * (policy.burst - 1);
+        this.maxWait = TimeUnit.MILLISECONDS.toNanos(policy.maxWait);
+        this.nextPermit = new AtomicLong(System.nanoTime() - burstCredit);
+    }
+
+    /**
+     * Reserves a permit
+     *
+     * @return The time to wait for the reserved permit in nanoseconds, zero if it is available now,
+     * or -1 if the wait would exceed the max wait, in which case nothing is reserved
+     */
+    public long reserve() {
+        while (true) {
+            long now = System.nanoTime();
+            long next = nextPermit.get();
+            long permit = Math.max(next, now - burstCredit);
+            long wait = Math.max(0, permit - now);
+            if (wait > maxWait) {
+                return -1;
+            }
+            if (nextPermit.compareAndSet(next, permit + interval)) {
+                return wait;
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package io.joshworks.restclient.http.retry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket that limits retries to a ratio of the requests.
+ * Every request deposits a fraction of a token and every retry withdraws a whole token, additionally the bucket is
+ * refilled at a fixed rate, so clients with low traffic can still retry.
+ * The bucket holds at most ten seconds worth of the fixed rate, or ten tokens, whichever is bigger.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double minPerSecond;
+    private final double capacity;
+
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+
+    public RetryBudget(double ratio, int minRetriesPerSecond) {
+        this.ratio = ratio;
+        this.minPerSecond = minRetriesPerSecond;
+        this.capacity = Math.max(10, minRetriesPerSecond * 10);
+        this.tokens = minRetriesPerSecond;
+    }
+
+    public synchronized void deposit() {
+        refill();
+        tokens = Math.min(capacity, tokens + ratio);
+    }
+
+    public synchronized boolean tryWithdraw() {
+        refill();
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        double elapsedSeconds = (double) (now - lastRefill) / TimeUnit.SECONDS.toNanos(1);
+        tokens = Math.min(capacity, tokens + elapsedSeconds * minPerSecond);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,167 @@
+package io.joshworks.restclient.http.retry;
+
+import io.joshworks.restclient.http.HttpMethod;
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.conn.ConnectTimeoutException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Defines which failed requests are retried and how long to wait between attempts.
+ * Delays use decorrelated jitter: each delay is a random value between the base delay and three times the previous
+ * delay, capped at the max delay.
+ * <p>
+ * Only idempotent methods are retried, unless the connection could not be established, in which case the request
+ * was never sent. Requests with a non repeatable body (ex: InputStream) are never retried.
+ * The number of retries is also limited by a {@link RetryBudget}, so retries cannot multiply the load of a failing server.
+ */
+public class RetryPolicy {
+
+    public final int maxAttempts;
+    public final long baseDelay;
+    public final long maxDelay;
+    public final double budgetRatio;
+    public final int minRetriesPerSecond;
+
+    private final Set<HttpMethod> methods;
+    private final Set<Integer> statusCodes;
+    private final List<Class<? extends IOException>> exceptions;
+
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.baseDelay = builder.baseDelay;
+        this.maxDelay = builder.maxDelay;
+        this.budgetRatio = builder.budgetRatio;
+        this.minRetriesPerSecond = builder.minRetriesPerSecond;
+        this.methods = EnumSet.copyOf(builder.methods);
+        this.statusCodes = new HashSet<>(builder.statusCodes);
+        this.exceptions = new ArrayList<>(builder.exceptions);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean retryable(HttpMethod method, int status) {
+        return methods.contains(method) && statusCodes.contains(status);
+    }
+
+    public boolean retryable(HttpMethod method, Exception exception) {
+        if (exception instanceof ConnectException || exception instanceof ConnectTimeoutException) {
+            return true;
+        }
+        if (!methods.contains(method)) {
+            return false;
+        }
+        for (Class<? extends IOException> type : exceptions) {
+            if (type.isInstance(exception)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param previousDelay The delay used before the previous attempt, zero for the first retry
+     * @return The delay in milliseconds before the next attempt
+     */
+    public long nextDelay(long previousDelay) {
+        long upper = Math.max(baseDelay, previousDelay * 3);
+        long delay = upper > baseDelay ? ThreadLocalRandom.current().nextLong(baseDelay, upper + 1) : baseDelay;
+        return Math.min(maxDelay, delay);
+    }
+
+    public static class Builder {
+
+        private int maxAttempts = 3;
+        private long baseDelay = 50;
+        private long maxDelay = 2000;
+        private double budgetRatio = 0.1;
+        private int minRetriesPerSecond = 10;
+        private final Set<HttpMethod> methods = EnumSet.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.PUT, HttpMethod.DELETE);
+        private final Set<Integer> statusCodes = new HashSet<>(Arrays.asList(502, 503, 504));
+        private final List<Class<? extends IOException>> exceptions = new ArrayList<>(Arrays.asList(
+                NoHttpResponseException.class,
+                SocketTimeoutException.class));
+
+        private Builder() {
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+
+        /**
+         * @param maxAttempts The total number of attempts, including the first one. Default is 3.
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("maxAttempts must be at least 1");
+            }
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * @param baseDelay The minimum delay between two attempts, in milliseconds. Default is 50.
+         * @param maxDelay  The maximum delay between two attempts, in milliseconds. Default is 2000.
+         */
+        public Builder backoff(long baseDelay, long maxDelay) {
+            if (baseDelay < 0 || maxDelay < baseDelay) {
+                throw new IllegalArgumentException("Invalid backoff: baseDelay must be positive and not greater than maxDelay");
+            }
+            this.baseDelay = baseDelay;
+            this.maxDelay = maxDelay;
+            return this;
+        }
+
+        /**
+         * Replaces the retryable methods. Default is GET, HEAD, OPTIONS, PUT and DELETE.
+         */
+        public Builder methods(HttpMethod... methods) {
+            this.methods.clear();
+            this.methods.addAll(Arrays.asList(methods));
+            return this;
+        }
+
+        /**
+         * Replaces the retryable response status codes. Default is 502, 503 and 504.
+         */
+        public Builder statusCodes(Integer... statusCodes) {
+            this.statusCodes.clear();
+            this.statusCodes.addAll(Arrays.asList(statusCodes));
+            return this;
+        }
+
+        /**
+         * Adds a retryable exception type. NoHttpResponseException and SocketTimeoutException are retryable by default.
+         * Connection failures are always retryable.
+         */
+        public Builder retryOn(Class<? extends IOException> exception) {
+            this.exceptions.add(exception);
+            return this;
+        }
+
+        /**
+         * @param ratio               The number of retries allowed per request, ex: 0.1 allows 10% extra traffic from retries. Default is 0.1.
+         * @param minRetriesPerSecond Retries always allowed per second, regardless of the traffic. Default is 10.
+         */
+        public Builder budget(double ratio, int minRetriesPerSecond) {
+            if (ratio < 0 || minRetriesPerSecond < 0) {
+                throw new IllegalArgumentException("Retry budget values must not be negative");
+            }
+            this.budgetRatio = ratio;
+            this.minRetriesPerSecond = minRetriesPerSecond;
+            return this;
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package io.joshworks.restclient.http.utils;
 
+import org.apache.http.nio.reactor.IOReactorStatus;
 import org.apache.http.pool.PoolStats;
 
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * Created by Josh Gontijo on 3/21/18.
  */
@@ -10,9 +14,110 @@ public class ClientStats {
     public final PoolStats sync;
     public final PoolStats async;
 
+    /**
+     * Status of the async client I/O reactor, null if the async client is not configured
+     */
+    public final IOReactorStatus reactor;
+
+    /**
+     * Number of exceptions logged by the I/O reactor since it was started
+     */
+    public final int reactorErrors;
+
+    /**
+     * Number of requests retried by the retry policy
+     */
+    public final long retries;
+
+    /**
+     * Number of retries not attempted because the retry budget was exhausted
+     */
+    public final long retriesRejected;
+
+    /**
+     * Number of hedged requests sent
+     */
+    public final long hedges;
+
+    /**
+     * Number of hedged requests that responded before the original request
+     */
+    public final long hedgesWon;
+
+    /**
+     * Number of requests rejected because the circuit breaker of the route was open
+     */
+    public final long circuitRejected;
+
+    /**
+     * Number of requests delayed by the rate limiter
+     */
+    public final long throttled;
+
+    /**
+     * Total time requests waited for a rate limiter permit, in milliseconds
+     */
+    public final long throttleWait;
+
+    /**
+     * Number of requests rejected because they would wait for a rate limiter permit longer than the max wait
+     */
+    public final long rateLimited;
+
+    /**
+     * Number of requests rejected because the concurrency limit of the route was reached
+     */
+    public final long concurrencyRejected;
+
+    /**
+     * Number of pipelines sent, each one a batch of requests written to a connection before reading the responses
+     */
+    public final long pipelines;
+
+    /**
+     * Number of requests sent in pipelines, the average pipeline depth is pipelinedRequests / pipelines
+     */
+    public final long pipelinedRequests;
+
+    /**
+     * Number of pipelined requests sent again as regular requests because the connection was closed before their response
+     */
+    public final long pipelineFallbacks;
+
+    /**
+     * Stats per route (scheme://host:port), only available when a per route feature (ex: circuit breaker) is enabled
+     */
+    public final Map<String, RouteStats> routes;
+
     public ClientStats(PoolStats sync, PoolStats async) {
-        this.sync = sync;
-        this.async = async;
+        this(builder(sync, async));
+    }
+
+    private ClientStats(Builder builder) {
+        this.sync = builder.sync;
+        this.async = builder.async;
+        this.reactor = builder.reactor;
+        this.reactorErrors = builder.reactorErrors;
+        this.retries = builder.retries;
+        this.retriesRejected = builder.retriesRejected;
+        this.hedges = builder.hedges;
+        this.hedgesWon = builder.hedgesWon;
+        this.circuitRejected = builder.circuitRejected;
+        this.throttled = builder.throttled;
+        this.throttleWait = builder.throttleWait;
+        this.rateLimited = builder.rateLimited;
+        this.concurrencyRejected = builder.concurrencyRejected;
+        this.pipelines = builder.pipelines;
+        this.pipelinedRequests = builder.pipelinedRequests;
+        this.pipelineFallbacks = builder.pipelineFallbacks;
+        this.routes = Collections.unmodifiableMap(builder.routes);
+    }
+
+    /**
+     * Stats with the given pool stats, the other stats are zero (or null) unless set
+     */
+    public static Builder builder(PoolStats sync, PoolStats async) {
+        return new Builder(sync, async);
     }
 
     @Override
@@ -20,6 +125,126 @@ public class ClientStats {
         return "ClientStats {" +
                 "SYNC=" + sync +
                 ", ASYNC=" + async +
+                ", REACTOR=" + reactor +
+                ", REACTOR_ERRORS=" + reactorErrors +
+                ", RETRIES=" + retries +
+                ", RETRIES_REJECTED=" + retriesRejected +
+                ", HEDGES=" + hedges +
+                ", HEDGES_WON=" + hedgesWon +
+                ", CIRCUIT_REJECTED=" + circuitRejected +
+                ", THROTTLED=" + throttled +
+                ", THROTTLE_WAIT=" + throttleWait +
+                ", RATE_LIMITED=" + rateLimited +
+                ", CONCURRENCY_REJECTED=" + concurrencyRejected +
+                ", PIPELINES=" + pipelines +
+                ", PIPELINED_REQUESTS=" + pipelinedRequests +
+                ", PIPELINE_FALLBACKS=" + pipelineFallbacks +
+                ", ROUTES=" + routes +
                 '}';
     }
+
+    public static class Builder {
+
+        private final PoolStats sync;
+        private final PoolStats async;
+        private IOReactorStatus reactor;
+        private int reactorErrors;
+        private long retries;
+        private long retriesRejected;
+        private long hedges;
+        private long hedgesWon;
+        private long circuitRejected;
+        private long throttled;
+        private long throttleWait;
+        private long rateLimited;
+        private long concurrencyRejected;
+        private long pipelines;
+        private long pipelinedRequests;
+        private long pipelineFallbacks;
+        private Map<String, RouteStats> routes = Collections.emptyMap();
+
+        private Builder(PoolStats sync, PoolStats async) {
+            this.sync = sync;
+            this.async = async;
+        }
+
+        public ClientStats build() {
+            return new ClientStats(this);
+        }
+
+        public Builder reactor(IOReactorStatus reactor) {
+            this.reactor = reactor;
+            return this;
+        }
+
+        public Builder reactorErrors(int reactorErrors) {
+            this.reactorErrors = reactorErrors;
+            return this;
+        }
+
+        public Builder retries(long retries) {
+            this.retries = retries;
+            return this;
+        }
+
+        public Builder retriesRejected(long retriesRejected) {
+            this.retriesRejected = retriesRejected;
+            return this;
+        }
+
+        public Builder hedges(long hedges) {
+            this.hedges = hedges;
+            return this;
+        }
+
+        public Builder hedgesWon(long hedgesWon) {
+            this.hedgesWon = hedgesWon;
+            return this;
+        }
+
+        public Builder circuitRejected(long circuitRejected) {
+            this.circuitRejected = circuitRejected;
+            return this;
+        }
+
+        public Builder throttled(long throttled) {
+            this.throttled = throttled;
+            return this;
+        }
+
+        public Builder throttleWait(long throttleWait) {
+            this.throttleWait = throttleWait;
+            return this;
+        }
+
+        public Builder rateLimited(long rateLimited) {
+            this.rateLimited = rateLimited;
+            return this;
+        }
+
+        public Builder concurrencyRejected(long concurrencyRejected) {
+            this.concurrencyRejected = concurrencyRejected;
+            return this;
+        }
+
+        public Builder pipelines(long pipelines) {
+            this.pipelines = pipelines;
+            return this;
+        }
+
+        public Builder pipelinedRequests(long pipelinedRequests) {
+            this.pipelinedRequests = pipelinedRequests;
+            return this;
+        }
+
+        public Builder pipelineFallbacks(long pipelineFallbacks) {
+            this.pipelineFallbacks = pipelineFallbacks;
+            return this;
+        }
+
+        public Builder routes(Map<String, RouteStats> routes) {
+            this.routes = routes;
+            return this;
+        }
+    }
 }
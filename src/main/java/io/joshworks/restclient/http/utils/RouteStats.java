@@ -0,0 +1,64 @@
+package io.joshworks.restclient.http.utils;
+
+import io.joshworks.restclient.http.circuit.CircuitBreaker;
+
+public class RouteStats {
+
+    /**
+     * State of the route circuit breaker, null if no circuit breaker is configured
+     */
+    public final CircuitBreaker.State circuit;
+
+    /**
+     * Current adaptive concurrency limit of the route, -1 if no concurrency limit is configured
+     */
+    public final int concurrencyLimit;
+
+    /**
+     * Requests of the route holding a concurrency limit slot, -1 if no concurrency limit is configured
+     */
+    public final int inFlight;
+
+    /**
+     * Size of the request bodies compressed for the route, before compression
+     */
+    public final long uncompressedBytes;
+
+    /**
+     * Size of the request bodies compressed for the route, after compression
+     */
+    public final long compressedBytes;
+
+    /**
+     * Time spent compressing request bodies for the route, in milliseconds
+     */
+    public final long compressionTime;
+
+    public RouteStats(CircuitBreaker.State circuit, int concurrencyLimit, int inFlight, long uncompressedBytes, long compressedBytes, long compressionTime) {
+        this.circuit = circuit;
+        this.concurrencyLimit = concurrencyLimit;
+        this.inFlight = inFlight;
+        this.uncompressedBytes = uncompressedBytes;
+        this.compressedBytes = compressedBytes;
+        this.compressionTime = compressionTime;
+    }
+
+    /**
+     * Uncompressed to compressed size ratio of the request bodies compressed for the route, 0 if none was compressed
+     */
+    public double compressionRatio() {
+        return compressedBytes == 0 ? 0 : (double) uncompressedBytes / compressedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "RouteStats {" +
+                "CIRCUIT=" + circuit +
+                ", CONCURRENCY_LIMIT=" + concurrencyLimit +
+                ", IN_FLIGHT=" + inFlight +
+                ", UNCOMPRESSED_BYTES=" + uncompressedBytes +
+                ", COMPRESSED_BYTES=" + compressedBytes +
+                ", COMPRESSION_TIME=" + compressionTime +
+                '}';
+    }
+}
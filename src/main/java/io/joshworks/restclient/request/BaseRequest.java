@@ -27,11 +27,16 @@ package io.joshworks.restclient.request;
 
 import com.google.gson.reflect.TypeToken;
 import io.joshworks.restclient.http.ClientRequest;
+import io.joshworks.restclient.http.HttpFileResponse;
 import io.joshworks.restclient.http.HttpResponse;
 import io.joshworks.restclient.http.JsonNode;
 import io.joshworks.restclient.http.async.Callback;
+import io.joshworks.restclient.http.download.SegmentPolicy;
+import org.reactivestreams.Publisher;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Queue;
 import java.util.Set;
@@ -114,4 +119,45 @@ public abstract class BaseRequest {
         return clientRequest.requestAsync(httpRequest, InputStream.class, callback);
     }
 
+    /**
+     * Downloads the body to the target file, written to a temporary file in the same directory and moved over the
+     * target once complete. The file is left untouched when the response is not successful.
+     */
+    public HttpFileResponse asFile(Path target) {
+        return clientRequest.requestFile(httpRequest, target);
+    }
+
+    public CompletableFuture<HttpFileResponse> asFileAsync(Path target) {
+        return clientRequest.requestFileAsync(httpRequest, target);
+    }
+
+    /**
+     * Downloads the body to the target file, keeping what was received when the download fails. Downloading the same
+     * url to the same target again only requests the missing bytes, as long as the server supports ranges and the
+     * body didn't change (same ETag or Last-Modified).
+     */
+    public HttpFileResponse asResumableFile(Path target) {
+        return clientRequest.requestResumableFile(httpRequest, target);
+    }
+
+    public CompletableFuture<HttpFileResponse> asResumableFileAsync(Path target) {
+        return clientRequest.requestResumableFileAsync(httpRequest, target);
+    }
+
+    /**
+     * Downloads the body to the target file in byte ranges fetched concurrently, on separate connections.
+     * Falls back to a single stream when the server doesn't support ranges, see {@link SegmentPolicy}.
+     */
+    public CompletableFuture<HttpFileResponse> asFileAsync(Path target, SegmentPolicy policy) {
+        return clientRequest.requestFileAsync(httpRequest, target, policy);
+    }
+
+    public Publisher<ByteBuffer> asPublisher() {
+        return clientRequest.publisher(httpRequest);
+    }
+
+    public <T> Publisher<T> asPublisherOf(Class<T> elementClass) {
+        return clientRequest.publisher(httpRequest, elementClass);
+    }
+
 }
@@ -27,8 +27,10 @@ package io.joshworks.restclient.request;
 
 import io.joshworks.restclient.Constants;
 import io.joshworks.restclient.http.ClientRequest;
+import io.joshworks.restclient.http.Headers;
 import io.joshworks.restclient.http.HttpMethod;
 import io.joshworks.restclient.http.MediaType;
+import io.joshworks.restclient.http.ParsedContentType;
 import io.joshworks.restclient.http.utils.Base64Coder;
 import io.joshworks.restclient.http.utils.MimeMappings;
 import io.joshworks.restclient.http.utils.URLParamEncoder;
@@ -37,13 +39,9 @@ import org.apache.http.HttpHeaders;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -53,7 +51,7 @@ public class HttpRequest extends BaseRequest {
 
     private String url;
     protected Body body;
-    private Map<String, List<String>> headers = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+    private final Headers headers = new Headers();
     private HttpMethod httpMethod;
 
     public HttpRequest(ClientRequest clientRequest) {
@@ -95,12 +93,7 @@ public class HttpRequest extends BaseRequest {
     }
 
     public HttpRequest header(String name, String value) {
-        List<String> list = this.headers.get(name.trim());
-        if (list == null) {
-            list = new ArrayList<>();
-        }
-        list.add(value);
-        this.headers.put(name.trim(), list);
+        this.headers.add(name.trim(), value);
         return this;
     }
 
@@ -182,9 +175,7 @@ public class HttpRequest extends BaseRequest {
         return url;
     }
 
-    public Map<String, List<String>> getHeaders() {
-        if (headers == null)
-            return new HashMap<>();
+    public Headers getHeaders() {
         return headers;
     }
 
@@ -192,14 +183,16 @@ public class HttpRequest extends BaseRequest {
         return body;
     }
 
+    /**
+     * @return The media type of the Content-Type, without parameters (ex: charset), as used to look up mappers
+     */
     protected MediaType getContentType() {
-        List<String> types = this.headers.get(HttpHeaders.CONTENT_TYPE);
-        if (types == null || types.isEmpty()) {
+        //Content-type is always a single value
+        String type = this.headers.getFirst(HttpHeaders.CONTENT_TYPE);
+        if (type == null) {
             throw new IllegalStateException("Content-Type not specified");
         }
-        //Content-type is always a single value
-        String type = types.get(0);
-        return MediaType.valueOf(type);
+        return ParsedContentType.of(type).baseType();
     }
 
 }
@@ -29,28 +29,50 @@ import io.joshworks.restclient.http.ClientRequest;
 import io.joshworks.restclient.http.JsonNode;
 import io.joshworks.restclient.http.MediaType;
 import io.joshworks.restclient.http.mapper.ObjectMapper;
-import io.joshworks.restclient.http.mapper.ObjectMappers;
+import io.joshworks.restclient.request.body.BodyWriter;
 import io.joshworks.restclient.request.body.FormEncodedBody;
 import io.joshworks.restclient.request.body.MultipartBody;
 import io.joshworks.restclient.request.body.RawBody;
 import io.joshworks.restclient.request.body.RequestBodyEntity;
+import io.joshworks.restclient.request.body.StreamingBody;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.io.File;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.stream.Stream;
 
 public class HttpRequestWithBody extends HttpRequest {
 
     private final ClientRequest config;
+    private Boolean compress;
 
     public HttpRequestWithBody(ClientRequest clientRequest) {
         super(clientRequest);
         this.config = clientRequest;
     }
 
+    /**
+     * Overrides the client compression policy for this request. When enabled without a client policy,
+     * bodies are gzip compressed with the default threshold.
+     */
+    public HttpRequestWithBody compress(boolean compress) {
+        this.compress = compress;
+        return this;
+    }
+
+    /**
+     * @return Whether the body should be compressed, or null to use the client compression policy
+     */
+    public Boolean getCompress() {
+        return compress;
+    }
+
     @Override
     public HttpRequestWithBody routeParam(String name, String value) {
         super.routeParam(name, value);
@@ -262,14 +284,20 @@ public class HttpRequestWithBody extends HttpRequest {
         return b;
     }
 
+    /**
+     * Serializes the object with the ObjectMapper of the client (or the global one) for the Content-Type of the request, written straight to
+     * the connection as the body is sent.
+     */
     public RequestBodyEntity body(Object body) {
         MediaType mediaType = getContentType();
-        ObjectMapper mapper = ObjectMappers.getMapper(mediaType);
+        ObjectMapper mapper = config.getMapper(mediaType);
         if (mapper == null) {
             throw new RuntimeException("Cannot serialize object. No ObjectMapper implementation for type: " + mediaType.toString());
         }
 
-        return body(mapper.writeValue(body));
+        RequestBodyEntity b = new RequestBodyEntity(this, config).body(body, mapper);
+        this.body = b;
+        return b;
     }
 
     public RawBody body(byte[] body) {
@@ -278,6 +306,77 @@ public class HttpRequestWithBody extends HttpRequest {
         return b;
     }
 
+    /**
+     * Streams the body from the stream, sent chunked. The stream is read as the body is sent, and can't be resent on retries.
+     */
+    public RawBody body(InputStream body) {
+        return body(body, -1);
+    }
+
+    /**
+     * Streams the body from the stream, the given number of bytes is sent.
+     * The stream is read as the body is sent, and can't be resent on retries.
+     */
+    public RawBody body(InputStream body, long length) {
+        RawBody b = new RawBody(this, config).body(body, length);
+        this.body = b;
+        return b;
+    }
+
+    /**
+     * Streams the body from the file, read again on retries.
+     */
+    public RawBody body(Path body) {
+        RawBody b = new RawBody(this, config).body(body);
+        this.body = b;
+        return b;
+    }
+
+    /**
+     * Sends the remaining bytes of the buffer, without copying them. The position of the buffer isn't changed.
+     */
+    public RawBody body(ByteBuffer body) {
+        RawBody b = new RawBody(this, config).body(body);
+        this.body = b;
+        return b;
+    }
+
+    /**
+     * Body written by the writer as it's sent, chunked. The writer runs once, the request isn't retried.
+     */
+    public StreamingBody body(BodyWriter writer) {
+        StreamingBody b = new StreamingBody(this, config).body(writer);
+        this.body = b;
+        return b;
+    }
+
+    /**
+     * Sends the records as newline delimited json (application/x-ndjson), chunked, each record serialized with the
+     * json ObjectMapper as it's sent. Records are read once, the request isn't retried.
+     */
+    public StreamingBody records(Iterator<?> records) {
+        StreamingBody b = new StreamingBody(this, config).records(records, jsonMapper());
+        this.body = b;
+        return b;
+    }
+
+    /**
+     * Same as {@link #records(Iterator)}, the stream is closed once sent
+     */
+    public StreamingBody records(Stream<?> records) {
+        StreamingBody b = new StreamingBody(this, config).records(records, jsonMapper());
+        this.body = b;
+        return b;
+    }
+
+    private ObjectMapper jsonMapper() {
+        ObjectMapper mapper = config.getMapper(MediaType.APPLICATION_JSON_TYPE);
+        if (mapper == null) {
+            throw new RuntimeException("Cannot serialize records. No ObjectMapper implementation for type: " + MediaType.APPLICATION_JSON);
+        }
+        return mapper;
+    }
+
     /**
      * Sugar method for body operation
      *
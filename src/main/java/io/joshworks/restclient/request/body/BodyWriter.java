@@ -0,0 +1,14 @@
+package io.joshworks.restclient.request.body;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a request body as it's sent. The stream must not be closed, the body ends when the method returns.
+ */
+@FunctionalInterface
+public interface BodyWriter {
+
+    void writeTo(OutputStream out) throws IOException;
+
+}
@@ -0,0 +1,52 @@
+package io.joshworks.restclient.request.body;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Growable buffers used to serialize bodies that must be sent with a Content-Length. Serializing into a new stream
+ * regrows its array from scratch for every body, released buffers are reset and kept for the next body, up to a bound.
+ * Buffers grown past {@link #MAX_RETAINED_SIZE} are dropped so a single large body doesn't stay in memory.
+ */
+final class BufferPool {
+
+    private static final int MAX_POOLED = 16;
+    private static final int INITIAL_SIZE = 8 * 1024;
+    private static final int MAX_RETAINED_SIZE = 1024 * 1024;
+
+    private static final BlockingQueue<Buffer> POOL = new ArrayBlockingQueue<>(MAX_POOLED);
+
+    private BufferPool() {
+    }
+
+    static Buffer borrow() {
+        Buffer buffer = POOL.poll();
+        return buffer != null ? buffer : new Buffer();
+    }
+
+    static void release(Buffer buffer) {
+        if (buffer.capacity() <= MAX_RETAINED_SIZE) {
+            buffer.reset();
+            POOL.offer(buffer);
+        }
+    }
+
+    static final class Buffer extends ByteArrayOutputStream {
+
+        private Buffer() {
+            super(INITIAL_SIZE);
+        }
+
+        private int capacity() {
+            return buf.length;
+        }
+
+        /**
+         * @return The backing array, valid up to {@link #size()} until the buffer is released
+         */
+        byte[] array() {
+            return buf;
+        }
+    }
+}
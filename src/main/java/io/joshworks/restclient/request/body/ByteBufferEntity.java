@@ -0,0 +1,97 @@
+package io.joshworks.restclient.request.body;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.nio.ContentEncoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.entity.HttpAsyncContentProducer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Entity sending the remaining bytes of a buffer, heap, direct or memory mapped. The async client writes the buffer
+ * straight to the connection, the position of the buffer is never changed so the entity is repeatable.
+ */
+class ByteBufferEntity extends AbstractHttpEntity implements HttpAsyncContentProducer {
+
+    private final ByteBuffer content;
+    private ByteBuffer pending;
+
+    ByteBufferEntity(ByteBuffer content) {
+        this.content = content.duplicate();
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return content.remaining();
+    }
+
+    @Override
+    public InputStream getContent() {
+        ByteBuffer buffer = content.duplicate();
+        return new InputStream() {
+            @Override
+            public int read() {
+                return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (!buffer.hasRemaining()) {
+                    return -1;
+                }
+                int read = Math.min(len, buffer.remaining());
+                buffer.get(b, off, read);
+                return read;
+            }
+
+            @Override
+            public int available() {
+                return buffer.remaining();
+            }
+        };
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        ByteBuffer buffer = content.duplicate();
+        if (buffer.hasArray()) {
+            outStream.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            return;
+        }
+        WritableByteChannel channel = Channels.newChannel(outStream);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    @Override
+    public synchronized void produceContent(ContentEncoder encoder, IOControl ioctrl) throws IOException {
+        if (pending == null) {
+            pending = content.duplicate();
+        }
+        encoder.write(pending);
+        if (!pending.hasRemaining()) {
+            encoder.complete();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        pending = null;
+    }
+}
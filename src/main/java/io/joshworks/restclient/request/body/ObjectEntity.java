@@ -0,0 +1,129 @@
+package io.joshworks.restclient.request.body;
+
+import io.joshworks.restclient.http.mapper.ObjectMapper;
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.AbstractHttpEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Entity serializing an object with its mapper straight into the connection stream as it's sent, chunked, so the
+ * serialized body is never held in memory. The object is serialized again for each attempt, the entity is repeatable.
+ * <p>
+ * The client first serializes it into a 64KB buffer, so small objects are sent with their length. Larger objects are
+ * serialized twice: the first attempt stops when the buffer is full, and the object is then serialized again as it's sent.
+ */
+class ObjectEntity extends AbstractHttpEntity {
+
+    private final Object value;
+    private final ObjectMapper mapper;
+
+    ObjectEntity(Object value, ObjectMapper mapper) {
+        this.value = value;
+        this.mapper = mapper;
+        setChunked(true);
+    }
+
+    /**
+     * @return An entity with the serialized object and its length, sent from the pooled buffer it was serialized into.
+     * The buffer goes back to the pool when the entity is closed.
+     */
+    static HttpEntity buffered(Object value, ObjectMapper mapper) throws IOException {
+        BufferPool.Buffer buffer = BufferPool.borrow();
+        try {
+            mapper.writeValue(value, buffer);
+        } catch (IOException | RuntimeException e) {
+            BufferPool.release(buffer);
+            throw e;
+        }
+        return new Buffered(buffer);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        BufferPool.Buffer buffer = BufferPool.borrow();
+        try {
+            mapper.writeValue(value, buffer);
+            return new ByteArrayInputStream(buffer.toByteArray());
+        } finally {
+            BufferPool.release(buffer);
+        }
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        mapper.writeValue(value, outStream);
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    /**
+     * Serialized object in a pooled buffer, repeatable until closed. Closing it more than once is a no op.
+     */
+    private static final class Buffered extends AbstractHttpEntity implements Closeable {
+
+        private BufferPool.Buffer buffer;
+
+        private Buffered(BufferPool.Buffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return true;
+        }
+
+        @Override
+        public synchronized long getContentLength() {
+            return buffer().size();
+        }
+
+        @Override
+        public synchronized InputStream getContent() {
+            BufferPool.Buffer buffer = buffer();
+            return new ByteArrayInputStream(buffer.array(), 0, buffer.size());
+        }
+
+        @Override
+        public synchronized void writeTo(OutputStream outStream) throws IOException {
+            buffer().writeTo(outStream);
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return false;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (buffer != null) {
+                BufferPool.release(buffer);
+                buffer = null;
+            }
+        }
+
+        private BufferPool.Buffer buffer() {
+            if (buffer == null) {
+                throw new IllegalStateException("Entity closed");
+            }
+            return buffer;
+        }
+    }
+}
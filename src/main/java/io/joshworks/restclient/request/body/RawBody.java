@@ -29,11 +29,17 @@ import io.joshworks.restclient.http.ClientRequest;
 import io.joshworks.restclient.request.BaseRequest;
 import io.joshworks.restclient.request.HttpRequest;
 import org.apache.http.HttpEntity;
-import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.nio.entity.NByteArrayEntity;
+import org.apache.http.nio.entity.NFileEntity;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 
 public class RawBody extends BaseRequest implements Body {
 
-    private byte[] body;
+    private HttpEntity entity;
 
     public RawBody(HttpRequest httpRequest, ClientRequest config) {
         super(config);
@@ -41,12 +47,30 @@ public class RawBody extends BaseRequest implements Body {
     }
 
     public RawBody body(byte[] body) {
-        this.body = body;
+        this.entity = new NByteArrayEntity(body);
+        return this;
+    }
+
+    /**
+     * @param length The length of the body, or -1 if unknown, in which case the body is sent chunked
+     */
+    public RawBody body(InputStream body, long length) {
+        this.entity = new InputStreamEntity(body, length);
+        return this;
+    }
+
+    public RawBody body(Path body) {
+        this.entity = new NFileEntity(body.toFile());
+        return this;
+    }
+
+    public RawBody body(ByteBuffer body) {
+        this.entity = new ByteBufferEntity(body);
         return this;
     }
 
     public HttpEntity getEntity() {
-        return new ByteArrayEntity(body);
+        return entity;
     }
 
     @Override
@@ -28,14 +28,20 @@ package io.joshworks.restclient.request.body;
 import io.joshworks.restclient.Constants;
 import io.joshworks.restclient.http.JsonNode;
 import io.joshworks.restclient.http.ClientRequest;
+import io.joshworks.restclient.http.exceptions.RestClientException;
+import io.joshworks.restclient.http.mapper.ObjectMapper;
 import io.joshworks.restclient.request.BaseRequest;
 import io.joshworks.restclient.request.HttpRequest;
 import org.apache.http.HttpEntity;
 import org.apache.http.entity.StringEntity;
 
+import java.io.IOException;
+
 public class RequestBodyEntity extends BaseRequest implements Body {
 
     private Object body;
+    private ObjectMapper mapper;
+    private boolean contentLength;
 
     public RequestBodyEntity(HttpRequest httpRequest, ClientRequest config) {
         super(config);
@@ -52,12 +58,40 @@ public class RequestBodyEntity extends BaseRequest implements Body {
         return this;
     }
 
+    /**
+     * The object is serialized with the mapper while the body is sent, see {@link #contentLength()}
+     */
+    public RequestBodyEntity body(Object body, ObjectMapper mapper) {
+        this.body = body;
+        this.mapper = mapper;
+        return this;
+    }
+
+    /**
+     * Serializes the object before sending it, so the request has a Content-Length instead of being sent chunked.
+     * For servers that don't accept chunked bodies, the serialized body is held in memory.
+     */
+    public RequestBodyEntity contentLength() {
+        this.contentLength = true;
+        return this;
+    }
+
     public Object getBody() {
         return body;
     }
 
     public HttpEntity getEntity() {
-        return new StringEntity(body.toString(), Constants.UTF_8);
+        if (mapper == null) {
+            return new StringEntity(body.toString(), Constants.UTF_8);
+        }
+        if (!contentLength) {
+            return new ObjectEntity(body, mapper);
+        }
+        try {
+            return ObjectEntity.buffered(body, mapper);
+        } catch (IOException e) {
+            throw new RestClientException(e);
+        }
     }
 
     @Override
@@ -0,0 +1,74 @@
+package io.joshworks.restclient.request.body;
+
+import io.joshworks.restclient.http.ClientRequest;
+import io.joshworks.restclient.http.MediaType;
+import io.joshworks.restclient.http.mapper.ObjectMapper;
+import io.joshworks.restclient.request.BaseRequest;
+import io.joshworks.restclient.request.HttpRequest;
+import org.apache.http.HttpEntity;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Body generated while it's sent, by a {@link BodyWriter} or from records serialized one at a time, so only the record
+ * being written is held in memory.
+ */
+public class StreamingBody extends BaseRequest implements Body {
+
+    private static final byte NEW_LINE = '\n';
+
+    private WriterEntity entity;
+
+    public StreamingBody(HttpRequest httpRequest, ClientRequest config) {
+        super(config);
+        super.httpRequest = httpRequest;
+    }
+
+    public StreamingBody body(BodyWriter writer) {
+        this.entity = new WriterEntity(writer);
+        return this;
+    }
+
+    /**
+     * Newline delimited records (NDJSON), each serialized with the given mapper. Sent as application/x-ndjson unless
+     * the request has a Content-Type.
+     */
+    public StreamingBody records(Iterator<?> records, ObjectMapper mapper) {
+        this.entity = new WriterEntity(out -> write(records, mapper, out));
+        this.entity.setContentType(MediaType.APPLICATION_NDJSON);
+        return this;
+    }
+
+    /**
+     * Same as {@link #records(Iterator, ObjectMapper)}, the stream is closed once written
+     */
+    public StreamingBody records(Stream<?> records, ObjectMapper mapper) {
+        this.entity = new WriterEntity(out -> {
+            try (Stream<?> stream = records) {
+                write(stream.iterator(), mapper, out);
+            }
+        });
+        this.entity.setContentType(MediaType.APPLICATION_NDJSON);
+        return this;
+    }
+
+    private static void write(Iterator<?> records, ObjectMapper mapper, OutputStream out) throws IOException {
+        while (records.hasNext()) {
+            mapper.writeValue(records.next(), out);
+            out.write(NEW_LINE);
+        }
+    }
+
+    @Override
+    public HttpEntity getEntity() {
+        return entity;
+    }
+
+    @Override
+    public boolean implicitContentType() {
+        return false;
+    }
+}
@@ -0,0 +1,47 @@
+package io.joshworks.restclient.request.body;
+
+import org.apache.http.entity.AbstractHttpEntity;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Entity produced by a {@link BodyWriter}, sent chunked as it's written. The writer runs once, the entity isn't
+ * repeatable. With the async client the writer runs on an upload thread and blocks while the connection doesn't accept
+ * more data, so a writer never gets ahead of the socket by more than a buffer.
+ */
+class WriterEntity extends AbstractHttpEntity {
+
+    private final BodyWriter writer;
+
+    WriterEntity(BodyWriter writer) {
+        this.writer = writer;
+        setChunked(true);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return false;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public InputStream getContent() {
+        throw new UnsupportedOperationException("Written content is only available through writeTo");
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        writer.writeTo(outStream);
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+}
@@ -1,5 +1,6 @@
 package io.joshworks.restclient.helper;
 
+import com.google.gson.Gson;
 import io.joshworks.snappy.Exchange;
 import io.joshworks.snappy.SnappyServer;
 import io.joshworks.snappy.http.MediaType;
@@ -8,17 +9,30 @@ import io.joshworks.snappy.http.multipart.Part;
 import io.joshworks.snappy.parser.JsonParser;
 import io.joshworks.snappy.parser.Parsers;
 import io.undertow.server.handlers.CookieImpl;
+import io.undertow.util.HeaderValues;
 import io.undertow.util.HttpString;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import static io.joshworks.snappy.SnappyServer.delete;
 import static io.joshworks.snappy.SnappyServer.enableTracer;
@@ -38,6 +52,10 @@ public class TestServer {
 
     public static final String contentType = "application/custom-type";
 
+    private static final Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicInteger> rangeRequests = new ConcurrentHashMap<>();
+    private static final AtomicInteger delayed = new AtomicInteger();
+
     public static void start() {
 
         //see RestclientTest#customObjectMapper
@@ -96,6 +114,96 @@ public class TestServer {
         get("/gzip", exchange -> exchange.send(new TestData("yolo")));
 
         get("/hang", exchange -> TimeUnit.MINUTES.sleep(1));
+        //responds after the delay with the number of delayed responses sent so far, including this one
+        get("/delay/{millis}", exchange -> {
+            TimeUnit.MILLISECONDS.sleep(Long.parseLong(exchange.pathParameter("millis")));
+            exchange.send(String.valueOf(delayed.incrementAndGet()), "txt");
+        });
+
+        //fails with 503 until the number of failures for the given id is reached, then returns the attempt number
+        get("/flaky/{id}/{failures}", TestServer::flaky);
+        post("/flaky/{id}/{failures}", TestServer::flaky);
+        put("/flaky/{id}/{failures}", TestServer::flaky);
+        //same as flaky, echoing the request body once it succeeds
+        put("/flaky/echo/{id}/{failures}", exchange -> {
+            String body = exchange.body().asString();
+            int attempt = attempts.computeIfAbsent(exchange.pathParameter("id"), id -> new AtomicInteger()).incrementAndGet();
+            if (attempt <= Integer.parseInt(exchange.pathParameter("failures"))) {
+                exchange.status(503);
+            } else {
+                exchange.send(body, "txt");
+            }
+        });
+
+        //the first request for the given id takes one second, the following ones respond immediately with the attempt number
+        get("/slowFirst/{id}", TestServer::slowFirst);
+        post("/slowFirst/{id}", TestServer::slowFirst);
+
+        //echoes the content type and transfer encoding (or content length) of the request, then the body
+        post("/records", exchange -> {
+            HeaderValues chunked = exchange.header("Transfer-Encoding");
+            String framing = chunked != null ? chunked.getFirst() : "length=" + exchange.header("Content-Length").getFirst();
+            exchange.send(exchange.header("Content-Type").getFirst() + ";" + framing + ";" + exchange.body().asString(), "txt");
+        });
+        post("/compressed/echo", exchange -> exchange.send(contentEncoding(exchange) + ":" + decompress(exchange), "txt"));
+        post("/compressed/reject", exchange -> {
+            if (exchange.header("Content-Encoding") != null) {
+                exchange.status(415);
+            } else {
+                exchange.send("accepted", "txt");
+            }
+        });
+
+        //chunked responses, compressed without the server compression
+        get("/encoded/{coding}/{size}", exchange -> {
+            byte[] content = encodedContent(Integer.parseInt(exchange.pathParameter("size"))).getBytes(StandardCharsets.UTF_8);
+            String coding = exchange.pathParameter("coding");
+            exchange.header("Content-Type", "text/plain");
+            exchange.header("Content-Encoding", coding.startsWith("gzip") ? "gzip" : coding.startsWith("deflate") ? "deflate" : coding);
+            exchange.header("Transfer-Encoding", "chunked");
+            exchange.stream(new ByteArrayInputStream(encode(coding, content)));
+        });
+        get("/encoded/empty", exchange -> exchange.status(204).header("Content-Encoding", "gzip").end());
+        get("/download/missing", exchange -> exchange.status(404).send("missing", "txt"));
+
+        //ranged downloads, ids starting with "flaky" fail the first request of each range, "norange" ignore ranges
+        head("/ranged/{id}/{size}", exchange -> {
+            int size = Integer.parseInt(exchange.pathParameter("size"));
+            if (!exchange.pathParameter("id").startsWith("norange")) {
+                exchange.header("Accept-Ranges", "bytes");
+            }
+            //the body of a HEAD response is discarded, the length is kept
+            exchange.header("ETag", "\"v1\"").header("Content-Length", size);
+            exchange.stream(new ByteArrayInputStream(new byte[size]));
+        });
+        get("/ranged/{id}/{size}", TestServer::ranged);
+        //resumable downloads, the first response is cut in half, ids starting with "changed" change the ETag afterwards
+        get("/resumable/{id}/{size}", TestServer::resumable);
+
+        //the server closes the connection after responding
+        get("/closeConnection", exchange -> exchange.header("Connection", "close").send("closed", "txt"));
+
+        //streamed without content length, each element has commas, brackets and quotes inside strings
+        get("/stream/array/{count}", exchange -> {
+            exchange.header("Content-Type", "application/json");
+            List<TestData> items = new ArrayList<>();
+            for (int i = 0; i < Integer.parseInt(exchange.pathParameter("count")); i++) {
+                items.add(new TestData("item, [" + i + "] {\"x\"}"));
+            }
+            exchange.stream(new ByteArrayInputStream(new Gson().toJson(items).getBytes(StandardCharsets.UTF_8)));
+        });
+        get("/stream/ndjson/{count}", exchange -> {
+            exchange.header("Content-Type", "application/x-ndjson");
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < Integer.parseInt(exchange.pathParameter("count")); i++) {
+                sb.append(new Gson().toJson(new TestData("item-" + i))).append("\n");
+            }
+            exchange.stream(new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8)));
+        });
+        get("/stream/bytes/{size}", exchange -> {
+            exchange.header("Content-Type", "application/octet-stream");
+            exchange.stream(new ByteArrayInputStream(new byte[Integer.parseInt(exchange.pathParameter("size"))]));
+        });
 
         get("/set-cookie", exchange -> {
             for (Map.Entry<String, Deque<String>> entry : exchange.queryParameters().entrySet()) {
@@ -108,6 +216,154 @@ public class TestServer {
         SnappyServer.start();
     }
 
+    public static String encodedContent(int size) {
+        StringBuilder sb = new StringBuilder(size);
+        for (int i = 0; sb.length() < size; i++) {
+            sb.append("line-").append(i).append('\n');
+        }
+        return sb.substring(0, size);
+    }
+
+    private static byte[] encode(String coding, byte[] content) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            switch (coding) {
+                case "gzip":
+                    try (OutputStream gzip = new GZIPOutputStream(out)) {
+                        gzip.write(content);
+                    }
+                    break;
+                case "gzip-members":
+                    int half = content.length / 2;
+                    try (OutputStream gzip = new GZIPOutputStream(out)) {
+                        gzip.write(content, 0, half);
+                    }
+                    try (OutputStream gzip = new GZIPOutputStream(out)) {
+                        gzip.write(content, half, content.length - half);
+                    }
+                    break;
+                case "gzip-corrupt":
+                    try (OutputStream gzip = new GZIPOutputStream(out)) {
+                        gzip.write(content);
+                    }
+                    byte[] corrupt = out.toByteArray();
+                    corrupt[corrupt.length / 2] ^= 0x55;
+                    return corrupt;
+                case "deflate":
+                    try (OutputStream deflate = new DeflaterOutputStream(out)) {
+                        deflate.write(content);
+                    }
+                    break;
+                case "deflate-raw":
+                    try (OutputStream deflate = new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, true))) {
+                        deflate.write(content);
+                    }
+                    break;
+                default:
+                    return content;
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String contentEncoding(Exchange exchange) {
+        return exchange.header("Content-Encoding") != null ? exchange.header("Content-Encoding").getFirst() : "identity";
+    }
+
+    private static String decompress(Exchange exchange) {
+        try {
+            InputStream body = exchange.body().asBinary();
+            String encoding = contentEncoding(exchange);
+            if ("gzip".equals(encoding)) {
+                body = new GZIPInputStream(body);
+            } else if ("deflate".equals(encoding)) {
+                body = new InflaterInputStream(body);
+            }
+            return TestUtils.toString(body);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void ranged(Exchange exchange) {
+        String id = exchange.pathParameter("id");
+        byte[] content = encodedContent(Integer.parseInt(exchange.pathParameter("size"))).getBytes(StandardCharsets.UTF_8);
+        HeaderValues range = exchange.header("Range");
+        if (range == null || id.startsWith("norange")) {
+            exchange.header("Content-Length", content.length);
+            exchange.stream(new ByteArrayInputStream(content));
+            return;
+        }
+        String[] bounds = range.getFirst().substring("bytes=".length()).split("-");
+        int from = Integer.parseInt(bounds[0]);
+        int to = Integer.parseInt(bounds[1]);
+        int attempt = attempts.computeIfAbsent(id + ":" + from, key -> new AtomicInteger()).incrementAndGet();
+        rangeRequests.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+        if (id.startsWith("flaky") && attempt == 1) {
+            exchange.status(503).end();
+            return;
+        }
+        exchange.status(206);
+        exchange.header("Content-Range", "bytes " + from + "-" + to + "/" + content.length);
+        exchange.header("Content-Length", to - from + 1);
+        exchange.stream(new ByteArrayInputStream(content, from, to - from + 1));
+    }
+
+    private static void resumable(Exchange exchange) throws IOException {
+        String id = exchange.pathParameter("id");
+        byte[] content = encodedContent(Integer.parseInt(exchange.pathParameter("size"))).getBytes(StandardCharsets.UTF_8);
+        int attempt = attempts.computeIfAbsent("resumable:" + id, key -> new AtomicInteger()).incrementAndGet();
+        String etag = id.startsWith("changed") && attempt > 1 ? "\"v2\"" : "\"v1\"";
+        exchange.header("ETag", etag).header("Accept-Ranges", "bytes");
+
+        HeaderValues range = exchange.header("Range");
+        HeaderValues ifRange = exchange.header("If-Range");
+        if (range != null) {
+            rangeRequests.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+        }
+        if (range != null && ifRange != null && etag.equals(ifRange.getFirst())) {
+            int from = Integer.parseInt(range.getFirst().substring("bytes=".length(), range.getFirst().indexOf('-')));
+            exchange.status(206);
+            exchange.header("Content-Range", "bytes " + from + "-" + (content.length - 1) + "/" + content.length);
+            exchange.header("Content-Length", content.length - from);
+            exchange.stream(new ByteArrayInputStream(content, from, content.length - from));
+            return;
+        }
+        exchange.header("Content-Length", content.length);
+        if (attempt == 1) {
+            OutputStream out = exchange.exchange().getOutputStream();
+            out.write(content, 0, content.length / 2);
+            out.flush();
+            exchange.exchange().getConnection().close();
+            return;
+        }
+        exchange.stream(new ByteArrayInputStream(content));
+    }
+
+    public static int rangeRequests(String id) {
+        AtomicInteger count = rangeRequests.get(id);
+        return count == null ? 0 : count.get();
+    }
+
+    private static void flaky(Exchange exchange) {
+        int attempt = attempts.computeIfAbsent(exchange.pathParameter("id"), id -> new AtomicInteger()).incrementAndGet();
+        if (attempt <= Integer.parseInt(exchange.pathParameter("failures"))) {
+            exchange.status(503);
+        } else {
+            exchange.send(String.valueOf(attempt), "txt");
+        }
+    }
+
+    private static void slowFirst(Exchange exchange) throws InterruptedException {
+        int attempt = attempts.computeIfAbsent(exchange.pathParameter("id"), id -> new AtomicInteger()).incrementAndGet();
+        if (attempt == 1) {
+            TimeUnit.SECONDS.sleep(1);
+        }
+        exchange.send(String.valueOf(attempt), "txt");
+    }
+
     private static Map<String, Object> getRequestData(Exchange exchange) {
         Map<String, Object> echoResponse = new HashMap<>();
         echoResponse.put("headers", extractHeaders(exchange));
@@ -0,0 +1,118 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.helper.TestData;
+import io.joshworks.restclient.helper.TestServer;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Fails when the bytes allocated by the calling thread for a single request go over the budget defined in
+ * allocation-budget.properties. Only sync requests are measured, since all the work happens in the calling thread.
+ * If a change legitimately increases the allocation of a request path, update the budget file along with the change.
+ */
+public class AllocationBudgetTest {
+
+    private static final String BASE_URL = "http://localhost:9000";
+    private static final int WARMUP = 2000;
+    private static final int ITERATIONS = 500;
+
+    private static final com.sun.management.ThreadMXBean threadMXBean = threadMXBean();
+    private static final Properties budget = new Properties();
+
+    private static RestClient client;
+
+    @BeforeClass
+    public static void setUp() throws IOException {
+        Assume.assumeTrue("Thread allocation measurement not supported", threadMXBean != null);
+        try (InputStream is = AllocationBudgetTest.class.getResourceAsStream("/allocation-budget.properties")) {
+            budget.load(is);
+        }
+        TestServer.start();
+        client = RestClient.builder().build();
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        if (client != null) {
+            client.close();
+        }
+        TestServer.stop();
+    }
+
+    @Test
+    public void get_asString() {
+        assertWithinBudget("get.asString", () -> {
+            HttpResponse<String> response = client.get(BASE_URL + "/hello").asString();
+            assertEquals(200, response.getStatus());
+            assertNotNull(response.body());
+        });
+    }
+
+    @Test
+    public void post_body_asObject() {
+        TestData data = new TestData("yolo");
+        assertWithinBudget("post.asObject", () -> {
+            HttpResponse<TestData> response = client.post(BASE_URL + "/echoJson")
+                    .header("Content-Type", "application/json")
+                    .body(data)
+                    .asObject(TestData.class);
+            assertEquals(200, response.getStatus());
+            assertEquals(data, response.body());
+        });
+    }
+
+    @Test
+    public void multipart_asString() {
+        byte[] file = "some file content".getBytes(StandardCharsets.UTF_8);
+        assertWithinBudget("multipart.asString", () -> {
+            HttpResponse<String> response = client.post(BASE_URL + "/echoMultipart")
+                    .part("name", "value")
+                    .part("file", file, "file.txt")
+                    .asString();
+            assertEquals(200, response.getStatus());
+            assertNotNull(response.body());
+        });
+    }
+
+    private static void assertWithinBudget(String key, Runnable request) {
+        long max = Long.parseLong(budget.getProperty(key));
+        for (int i = 0; i < WARMUP; i++) {
+            request.run();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            request.run();
+        }
+        long perRequest = (threadMXBean.getThreadAllocatedBytes(threadId) - before) / ITERATIONS;
+
+        assertTrue(String.format("%s allocated %d bytes per request, budget is %d bytes", key, perRequest, max), perRequest <= max);
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        try {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            if (!bean.isThreadAllocatedMemorySupported()) {
+                return null;
+            }
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        } catch (ClassCastException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+}
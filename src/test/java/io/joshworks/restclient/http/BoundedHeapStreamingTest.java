@@ -0,0 +1,291 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.helper.TestUtils;
+import io.joshworks.restclient.http.hedge.HedgePolicy;
+import io.joshworks.snappy.SnappyServer;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static io.joshworks.snappy.SnappyServer.get;
+import static io.joshworks.snappy.SnappyServer.multipart;
+import static io.joshworks.snappy.SnappyServer.post;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Pushes payloads many times larger than the heap through every request body and response type.
+ * This test runs in a forked JVM with a 64mb heap (see the bounded-heap-test execution in the pom), so any path that
+ * buffers a whole payload fails with an OutOfMemoryError.
+ * <p>
+ * Payloads that must be in memory by definition (byte[], form fields) are sized as a fraction of the heap and sent
+ * repeatedly, so a single extra full copy of the payload is enough to exhaust the heap.
+ */
+public class BoundedHeapStreamingTest {
+
+    private static final String BASE_URL = "http://localhost:9000";
+    private static final long STREAM_SIZE = 256 * 1024 * 1024L;
+    private static final int IN_MEMORY_SIZE = (int) (Runtime.getRuntime().maxMemory() * 0.4);
+    private static final int FORM_FIELD_SIZE = IN_MEMORY_SIZE / 16;
+    private static final int RECORD_SIZE = 4096;
+    private static final int TIMEOUT = 120000;
+
+    private static File largeFile;
+    private static File gzipFile;
+    private static RestClient client;
+    private static RestClient hedgedClient;
+
+    @BeforeClass
+    public static void setUp() throws IOException {
+        largeFile = sparseFile(STREAM_SIZE);
+        gzipFile = gzipFile(STREAM_SIZE);
+
+        post("/stream/upload", exchange -> exchange.send(TestUtils.streamSize(exchange.body().asBinary()), "txt"));
+        multipart("/stream/multipart", exchange -> exchange.send(TestUtils.streamSize(exchange.part("file").file().stream()), "txt"));
+        get("/stream/download", exchange -> {
+            try (InputStream is = new FileInputStream(largeFile)) {
+                exchange.stream(is);
+            }
+        });
+        get("/stream/gzip", exchange -> {
+            exchange.header("Content-Encoding", "gzip");
+            try (InputStream is = new FileInputStream(gzipFile)) {
+                exchange.stream(is);
+            }
+        });
+        SnappyServer.start();
+
+        client = RestClient.builder().build();
+        hedgedClient = RestClient.builder().hedgePolicy(HedgePolicy.builder().build()).build();
+    }
+
+    @AfterClass
+    public static void shutdown() throws IOException {
+        if (client != null) {
+            client.close();
+        }
+        if (hedgedClient != null) {
+            hedgedClient.close();
+        }
+        SnappyServer.stop();
+        Files.deleteIfExists(largeFile.toPath());
+        Files.deleteIfExists(gzipFile.toPath());
+    }
+
+    //------------------- request bodies
+
+    @Test(timeout = TIMEOUT)
+    public void rawBody_sync() {
+        byte[] payload = new byte[IN_MEMORY_SIZE];
+        for (long sent = 0; sent < STREAM_SIZE; sent += payload.length) {
+            HttpResponse<String> response = client.post(BASE_URL + "/stream/upload").body(payload).asString();
+            assertEquals(200, response.getStatus());
+            assertEquals(payload.length, Long.parseLong(response.body()));
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void rawBody_async() throws Exception {
+        byte[] payload = new byte[IN_MEMORY_SIZE];
+        for (long sent = 0; sent < STREAM_SIZE; sent += payload.length) {
+            HttpResponse<String> response = client.post(BASE_URL + "/stream/upload").body(payload).asStringAsync().get();
+            assertEquals(200, response.getStatus());
+            assertEquals(payload.length, Long.parseLong(response.body()));
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void formBody_sync() {
+        String value = formValue();
+        for (long sent = 0; sent < STREAM_SIZE; sent += value.length()) {
+            HttpResponse<String> response = client.post(BASE_URL + "/stream/upload").field("field", value).asString();
+            assertEquals(200, response.getStatus());
+            assertEquals("field=".length() + value.length(), Long.parseLong(response.body()));
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void formBody_async() throws Exception {
+        String value = formValue();
+        for (long sent = 0; sent < STREAM_SIZE; sent += value.length()) {
+            HttpResponse<String> response = client.post(BASE_URL + "/stream/upload").field("field", value).asStringAsync().get();
+            assertEquals(200, response.getStatus());
+            assertEquals("field=".length() + value.length(), Long.parseLong(response.body()));
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void multipartFile_sync() {
+        HttpResponse<String> response = client.post(BASE_URL + "/stream/multipart").part("file", largeFile).asString();
+        assertEquals(200, response.getStatus());
+        assertEquals(STREAM_SIZE, Long.parseLong(response.body()));
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void multipartFile_async() throws Exception {
+        HttpResponse<String> response = client.post(BASE_URL + "/stream/multipart").part("file", largeFile).asStringAsync().get();
+        assertEquals(200, response.getStatus());
+        assertEquals(STREAM_SIZE, Long.parseLong(response.body()));
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void multipartInputStream_sync() throws Exception {
+        try (InputStream stream = new FileInputStream(largeFile)) {
+            HttpResponse<String> response = client.post(BASE_URL + "/stream/multipart").part("file", stream, "file.bin").asString();
+            assertEquals(200, response.getStatus());
+            assertEquals(STREAM_SIZE, Long.parseLong(response.body()));
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void multipartInputStream_async() throws Exception {
+        try (InputStream stream = new FileInputStream(largeFile)) {
+            HttpResponse<String> response = client.post(BASE_URL + "/stream/multipart").part("file", stream, "file.bin").asStringAsync().get();
+            assertEquals(200, response.getStatus());
+            assertEquals(STREAM_SIZE, Long.parseLong(response.body()));
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void multipartBytes_sync() {
+        byte[] payload = new byte[IN_MEMORY_SIZE];
+        for (long sent = 0; sent < STREAM_SIZE; sent += payload.length) {
+            HttpResponse<String> response = client.post(BASE_URL + "/stream/multipart").part("file", payload, "file.bin").asString();
+            assertEquals(200, response.getStatus());
+            assertEquals(payload.length, Long.parseLong(response.body()));
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void multipartBytes_async() throws Exception {
+        byte[] payload = new byte[IN_MEMORY_SIZE];
+        for (long sent = 0; sent < STREAM_SIZE; sent += payload.length) {
+            HttpResponse<String> response = client.post(BASE_URL + "/stream/multipart").part("file", payload, "file.bin").asStringAsync().get();
+            assertEquals(200, response.getStatus());
+            assertEquals(payload.length, Long.parseLong(response.body()));
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void records_sync() {
+        HttpResponse<String> response = client.post(BASE_URL + "/stream/upload").records(records()).asString();
+        assertEquals(200, response.getStatus());
+        assertEquals(recordsSize(), Long.parseLong(response.body()));
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void records_async() throws Exception {
+        HttpResponse<String> response = client.post(BASE_URL + "/stream/upload").records(records()).asStringAsync().get();
+        assertEquals(200, response.getStatus());
+        assertEquals(recordsSize(), Long.parseLong(response.body()));
+    }
+
+    //------------------- responses
+
+    @Test(timeout = TIMEOUT)
+    public void asBinary_identity_sync() {
+        try (HttpResponse<InputStream> response = client.get(BASE_URL + "/stream/download").asBinary()) {
+            assertEquals(200, response.getStatus());
+            assertEquals(STREAM_SIZE, TestUtils.streamSize(response.body()));
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void asBinary_identity_async() throws Exception {
+        try (HttpResponse<InputStream> response = client.get(BASE_URL + "/stream/download").asBinaryAsync().get()) {
+            assertEquals(200, response.getStatus());
+            assertEquals(STREAM_SIZE, TestUtils.streamSize(response.body()));
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void asBinary_gzip_sync() {
+        try (HttpResponse<InputStream> response = client.get(BASE_URL + "/stream/gzip").asBinary()) {
+            assertEquals(200, response.getStatus());
+            assertEquals(STREAM_SIZE, TestUtils.streamSize(response.body()));
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void asBinary_gzip_async() throws Exception {
+        try (HttpResponse<InputStream> response = client.get(BASE_URL + "/stream/gzip").asBinaryAsync().get()) {
+            assertEquals(200, response.getStatus());
+            assertEquals(STREAM_SIZE, TestUtils.streamSize(response.body()));
+        }
+    }
+
+    //hedgeable sync requests run on the async client, with the response consumer of the async request
+
+    @Test(timeout = TIMEOUT)
+    public void asBinary_hedged_sync() {
+        try (HttpResponse<InputStream> response = hedgedClient.get(BASE_URL + "/stream/download").asBinary()) {
+            assertEquals(200, response.getStatus());
+            assertEquals(STREAM_SIZE, TestUtils.streamSize(response.body()));
+        }
+    }
+
+    @Test(timeout = TIMEOUT)
+    public void asFile_hedged_sync() throws IOException {
+        Path target = Files.createTempFile("bounded-heap", ".download");
+        try {
+            HttpFileResponse response = hedgedClient.get(BASE_URL + "/stream/download").asFile(target);
+            assertEquals(200, response.getStatus());
+            assertEquals(STREAM_SIZE, Files.size(target));
+        } finally {
+            Files.deleteIfExists(target);
+        }
+    }
+
+    /**
+     * Json strings of RECORD_SIZE characters, totalling STREAM_SIZE, each serialized with quotes and a new line
+     */
+    private static Stream<String> records() {
+        char[] value = new char[RECORD_SIZE];
+        Arrays.fill(value, 'a');
+        String record = new String(value);
+        return Stream.generate(() -> record).limit(STREAM_SIZE / RECORD_SIZE);
+    }
+
+    private static long recordsSize() {
+        return (STREAM_SIZE / RECORD_SIZE) * (RECORD_SIZE + 3);
+    }
+
+    private static String formValue() {
+        char[] chars = new char[FORM_FIELD_SIZE];
+        Arrays.fill(chars, 'a');
+        return new String(chars);
+    }
+
+    private static File sparseFile(long length) throws IOException {
+        File file = File.createTempFile("bounded-heap", ".bin");
+        file.deleteOnExit();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(length);
+        }
+        return file;
+    }
+
+    private static File gzipFile(long uncompressedLength) throws IOException {
+        File file = File.createTempFile("bounded-heap", ".gz");
+        file.deleteOnExit();
+        byte[] chunk = new byte[8192];
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file.toPath()))) {
+            for (long written = 0; written < uncompressedLength; written += chunk.length) {
+                out.write(chunk);
+            }
+        }
+        return file;
+    }
+
+}
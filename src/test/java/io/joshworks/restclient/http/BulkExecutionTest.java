@@ -0,0 +1,197 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.helper.TestServer;
+import io.joshworks.restclient.request.HttpRequest;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BulkExecutionTest {
+
+    private static final String BASE_URL = "http://localhost:9000";
+
+    private RestClient client;
+
+    @BeforeClass
+    public static void startServer() {
+        TestServer.start();
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        TestServer.stop();
+    }
+
+    @After
+    public void closeClient() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    public void stream_returnsAllResponses() {
+        client = RestClient.builder().build();
+
+        List<BulkResponse<String>> responses = client.executeAll(requests(50, new AtomicInteger()), 4).collect(Collectors.toList());
+
+        assertEquals(50, responses.size());
+        for (BulkResponse<String> response : responses) {
+            assertNull(response.error);
+            assertEquals(200, response.response.getStatus());
+        }
+        assertEquals(50, responses.stream().map(r -> r.index).distinct().count());
+    }
+
+    @Test
+    public void ordered_returnsResponsesInInputOrder() {
+        client = RestClient.builder().build();
+
+        List<Long> indexes = client.executeAll(slowFirst(10), 4, String.class, true)
+                .map(r -> r.index)
+                .collect(Collectors.toList());
+
+        List<Long> expected = sequence(10);
+        assertEquals(expected, indexes);
+    }
+
+    @Test
+    public void unordered_returnsResponsesAsTheyComplete() {
+        client = RestClient.builder().build();
+
+        List<Long> indexes = client.executeAll(slowFirst(10), 4, String.class, false)
+                .map(r -> r.index)
+                .collect(Collectors.toList());
+
+        assertEquals(10, indexes.size());
+        assertNotEquals(0L, (long) indexes.get(0));
+    }
+
+    @Test
+    public void unordered_bufferedResponsesKeepCompletionOrder() {
+        client = RestClient.builder().build();
+        List<HttpRequest> requests = new ArrayList<>();
+        //completion times stay apart however the requests share connections
+        requests.add(client.get(BASE_URL + "/delay/1500"));
+        requests.add(client.get(BASE_URL + "/delay/1000"));
+        requests.add(client.get(BASE_URL + "/delay/400"));
+        requests.add(client.get(BASE_URL + "/delay/0"));
+        List<Integer> completions = new ArrayList<>();
+
+        client.executeAll(requests, 4, String.class, false).forEach(r -> {
+            if (completions.isEmpty()) {
+                //the others complete while this one is consumed
+                sleep(2500);
+            }
+            completions.add(Integer.parseInt(r.response.body()));
+        });
+
+        List<Integer> sorted = new ArrayList<>(completions);
+        Collections.sort(sorted);
+        assertEquals(sorted, completions);
+    }
+
+    @Test
+    public void window_boundsPendingRequests() {
+        client = RestClient.builder().build();
+        AtomicInteger pulled = new AtomicInteger();
+        AtomicInteger consumed = new AtomicInteger();
+
+        try (Stream<BulkResponse<String>> responses = client.executeAll(requests(200, pulled), 5)) {
+            responses.forEach(r -> {
+                assertTrue("Pending: " + (pulled.get() - consumed.get()), pulled.get() - consumed.get() <= 5);
+                consumed.incrementAndGet();
+            });
+        }
+        assertEquals(200, consumed.get());
+    }
+
+    @Test
+    public void window_isLimitedByPoolSize() {
+        client = RestClient.builder().concurrency(3).build();
+        AtomicInteger pulled = new AtomicInteger();
+        AtomicInteger consumed = new AtomicInteger();
+
+        client.executeAll(requests(50, pulled), 1000).forEach(r -> {
+            assertTrue(pulled.get() - consumed.get() <= 3);
+            consumed.incrementAndGet();
+        });
+        assertEquals(50, consumed.get());
+    }
+
+    @Test
+    public void consumer_receivesAllResponses() throws Exception {
+        client = RestClient.builder().build();
+        List<Long> indexes = Collections.synchronizedList(new ArrayList<>());
+
+        client.executeAll(slowFirst(10), 4, String.class, true, r -> indexes.add(r.index)).get(10, TimeUnit.SECONDS);
+
+        assertEquals(sequence(10), indexes);
+    }
+
+    @Test
+    public void failures_areReturnedAsResponses() {
+        client = RestClient.builder().build();
+        List<HttpRequest> requests = new ArrayList<>();
+        requests.add(client.get(BASE_URL + "/hello"));
+        requests.add(client.get("http://localhost:9001/hello"));
+
+        List<BulkResponse<String>> responses = client.executeAll(requests, 2, String.class, true).collect(Collectors.toList());
+
+        assertEquals(200, responses.get(0).response.getStatus());
+        assertTrue(responses.get(1).failed());
+        assertNull(responses.get(1).response);
+    }
+
+    private Iterable<HttpRequest> requests(int count, AtomicInteger pulled) {
+        return () -> IntStream.range(0, count)
+                .mapToObj(i -> {
+                    pulled.incrementAndGet();
+                    return (HttpRequest) client.get(BASE_URL + "/hello");
+                })
+                .iterator();
+    }
+
+    //the first request takes one second, the others respond immediately
+    private Iterable<HttpRequest> slowFirst(int count) {
+        List<HttpRequest> requests = new ArrayList<>();
+        requests.add(client.get(BASE_URL + "/slowFirst/" + UUID.randomUUID()));
+        for (int i = 1; i < count; i++) {
+            requests.add(client.get(BASE_URL + "/hello"));
+        }
+        return requests;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<Long> sequence(int count) {
+        List<Long> values = new ArrayList<>();
+        for (long i = 0; i < count; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+
+}
@@ -0,0 +1,187 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.helper.TestServer;
+import io.joshworks.restclient.http.circuit.CircuitBreaker;
+import io.joshworks.restclient.http.circuit.CircuitBreakerPolicy;
+import io.joshworks.restclient.http.exceptions.CircuitBreakerOpenException;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CircuitBreakerTest {
+
+    private static final String BASE_URL = "http://localhost:9000";
+    private static final String ROUTE = "http://localhost:9000";
+
+    private RestClient client;
+
+    @BeforeClass
+    public static void startServer() {
+        TestServer.start();
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        TestServer.stop();
+    }
+
+    @After
+    public void closeClient() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    public void failures_openTheCircuit() {
+        client = newClient(60000);
+        trip();
+
+        try {
+            client.get(BASE_URL + "/hello").asString();
+            fail("Expected open circuit");
+        } catch (CircuitBreakerOpenException e) {
+            assertEquals(1, client.stats().circuitRejected);
+            assertEquals(CircuitBreaker.State.OPEN, client.stats().routes.get(ROUTE).circuit);
+        }
+    }
+
+    @Test
+    public void openCircuit_failsAsyncRequests() throws Exception {
+        client = newClient(60000);
+        trip();
+
+        try {
+            client.get(BASE_URL + "/hello").asStringAsync().get();
+            fail("Expected open circuit");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CircuitBreakerOpenException);
+        }
+    }
+
+    @Test
+    public void openCircuit_doesNotAffectOtherRoutes() {
+        client = newClient(60000);
+        trip();
+
+        HttpResponse<String> response = client.get("http://127.0.0.1:9000/hello").asString();
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    public void successfulProbes_closeTheCircuit() throws Exception {
+        client = newClient(100);
+        trip();
+        Thread.sleep(150);
+
+        assertEquals(200, client.get(BASE_URL + "/hello").asString().getStatus());
+        assertEquals(200, client.get(BASE_URL + "/hello").asString().getStatus());
+
+        assertEquals(CircuitBreaker.State.CLOSED, client.stats().routes.get(ROUTE).circuit);
+    }
+
+    @Test
+    public void failedProbe_opensTheCircuit() throws Exception {
+        client = newClient(100);
+        trip();
+        Thread.sleep(150);
+
+        assertEquals(500, client.get(BASE_URL + "/500").asString().getStatus());
+
+        assertEquals(CircuitBreaker.State.OPEN, client.stats().routes.get(ROUTE).circuit);
+    }
+
+    @Test
+    public void slowCalls_openTheCircuit() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(CircuitBreakerPolicy.builder()
+                .slidingWindow(10, 4)
+                .slowCalls(50, 100)
+                .build());
+
+        circuitBreaker.onSuccess(circuitBreaker.tryAcquire(), 10);
+        circuitBreaker.onSuccess(circuitBreaker.tryAcquire(), 10);
+        circuitBreaker.onSuccess(circuitBreaker.tryAcquire(), 200);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+
+        circuitBreaker.onSuccess(circuitBreaker.tryAcquire(), 200);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+    }
+
+    @Test
+    public void halfOpen_limitsProbes() throws Exception {
+        CircuitBreaker circuitBreaker = halfOpenAfter(10);
+
+        circuitBreaker.onFailure(circuitBreaker.tryAcquire(), 1);
+        circuitBreaker.onFailure(circuitBreaker.tryAcquire(), 1);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+        Thread.sleep(20);
+
+        CircuitBreaker.Permit probe = circuitBreaker.tryAcquire();
+        assertNotNull(probe);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.state());
+        assertNull(circuitBreaker.tryAcquire());
+
+        circuitBreaker.release(probe);
+        assertNotNull(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    public void callsPermittedBeforeOpening_areNotProbes() throws Exception {
+        CircuitBreaker circuitBreaker = halfOpenAfter(10);
+
+        CircuitBreaker.Permit cancelled = circuitBreaker.tryAcquire();
+        CircuitBreaker.Permit succeeded = circuitBreaker.tryAcquire();
+        circuitBreaker.onFailure(circuitBreaker.tryAcquire(), 1);
+        circuitBreaker.onFailure(circuitBreaker.tryAcquire(), 1);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+        Thread.sleep(20);
+
+        CircuitBreaker.Permit probe = circuitBreaker.tryAcquire();
+        assertNotNull(probe);
+
+        //neither frees a probe slot nor closes the circuit
+        circuitBreaker.release(cancelled);
+        assertNull(circuitBreaker.tryAcquire());
+        circuitBreaker.onSuccess(succeeded, 1);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.state());
+
+        circuitBreaker.onSuccess(probe, 1);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+    }
+
+    private static CircuitBreaker halfOpenAfter(long openDuration) {
+        return new CircuitBreaker(CircuitBreakerPolicy.builder()
+                .slidingWindow(2, 2)
+                .openDuration(openDuration)
+                .halfOpenCalls(1)
+                .build());
+    }
+
+    private void trip() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(500, client.get(BASE_URL + "/500").asString().getStatus());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, client.stats().routes.get(ROUTE).circuit);
+    }
+
+    private static RestClient newClient(long openDuration) {
+        return RestClient.builder()
+                .circuitBreaker(CircuitBreakerPolicy.builder()
+                        .slidingWindow(10, 5)
+                        .failureRateThreshold(50)
+                        .openDuration(openDuration)
+                        .halfOpenCalls(2)
+                        .build())
+                .build();
+    }
+
+}
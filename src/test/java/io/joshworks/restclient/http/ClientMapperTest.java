@@ -0,0 +1,172 @@
+package io.joshworks.restclient.http;
+
+import com.google.gson.GsonBuilder;
+import io.joshworks.restclient.helper.TestData;
+import io.joshworks.restclient.helper.TestServer;
+import io.joshworks.restclient.http.mapper.JsonMapper;
+import io.joshworks.restclient.http.mapper.MapperRegistry;
+import io.joshworks.restclient.http.mapper.ObjectMapper;
+import io.joshworks.restclient.http.mapper.ObjectMappers;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ClientMapperTest {
+
+    private static final String BASE_URL = "http://localhost:9000";
+
+    private final List<RestClient> clients = new ArrayList<>();
+
+    @BeforeClass
+    public static void startServer() {
+        TestServer.start();
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        TestServer.stop();
+    }
+
+    @After
+    public void closeClients() {
+        clients.forEach(RestClient::close);
+        ObjectMappers.clear();
+    }
+
+    @Test
+    public void clientMapper_usedForResponse() {
+        RestClient client = client(RestClient.builder().objectMapper(MediaType.APPLICATION_JSON_TYPE, new FixedMapper("client")));
+
+        assertEquals("client", client.get(BASE_URL + "/testData").asObject(TestData.class).body().getSomeField());
+    }
+
+    @Test
+    public void clientMapper_usedForAsyncResponse() throws Exception {
+        RestClient client = client(RestClient.builder().objectMapper(MediaType.APPLICATION_JSON_TYPE, new FixedMapper("client")));
+
+        assertEquals("client", client.get(BASE_URL + "/testData").asObjectAsync(TestData.class).get().body().getSomeField());
+    }
+
+    @Test
+    public void clientMapper_usedForRequestBody() {
+        RestClient tuned = client(RestClient.builder().objectMapper(MediaType.APPLICATION_JSON_TYPE, new JsonMapper(new GsonBuilder().disableHtmlEscaping().create())));
+        RestClient standard = client(RestClient.builder());
+
+        String tunedBody = tuned.post(BASE_URL + "/echoPlain").contentType(MediaType.APPLICATION_JSON).body(new TestData("<a>")).asString().body();
+        String standardBody = standard.post(BASE_URL + "/echoPlain").contentType(MediaType.APPLICATION_JSON).body(new TestData("<a>")).asString().body();
+
+        assertEquals("{\"someField\":\"<a>\"}", tunedBody);
+        assertEquals("{\"someField\":\"\\u003ca\\u003e\"}", standardBody);
+    }
+
+    @Test
+    public void mediaTypeWithoutClientMapper_usesGlobalMapper() {
+        RestClient client = client(RestClient.builder().objectMapper(MediaType.valueOf("application/vnd.client+json"), new FixedMapper("client")));
+
+        assertEquals("yolo", client.get(BASE_URL + "/testData").asObject(TestData.class).body().getSomeField());
+    }
+
+    @Test
+    public void clients_doNotInterfere() {
+        RestClient first = client(RestClient.builder().objectMapper(MediaType.APPLICATION_JSON_TYPE, new FixedMapper("first")));
+        RestClient second = client(RestClient.builder().objectMapper(MediaType.APPLICATION_JSON_TYPE, new FixedMapper("second")));
+        RestClient standard = client(RestClient.builder());
+
+        assertEquals("first", first.get(BASE_URL + "/testData").asObject(TestData.class).body().getSomeField());
+        assertEquals("second", second.get(BASE_URL + "/testData").asObject(TestData.class).body().getSomeField());
+        assertEquals("yolo", standard.get(BASE_URL + "/testData").asObject(TestData.class).body().getSomeField());
+    }
+
+    @Test
+    public void registry_copyOnWrite() {
+        ObjectMapper mapper = new FixedMapper("a");
+        MapperRegistry registry = MapperRegistry.EMPTY.with(MediaType.APPLICATION_JSON_TYPE, mapper);
+
+        assertTrue(MapperRegistry.EMPTY.isEmpty());
+        assertNull(MapperRegistry.EMPTY.find(MediaType.APPLICATION_JSON_TYPE));
+        assertSame(mapper, registry.find(MediaType.valueOf("application/json; charset=UTF-8")));
+        assertTrue(registry.getMapper(MediaType.TEXT_PLAIN_TYPE) != null);
+    }
+
+    @Test
+    public void globalRegistry_concurrentRegisterAndLookup() throws Exception {
+        int threads = 8;
+        int perThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads * 2);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        ObjectMappers.register(MediaType.valueOf("application/vnd.t" + thread + "-" + i), new FixedMapper(thread + "-" + i));
+                    }
+                    return null;
+                }));
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        assertNotNull(ObjectMappers.getMapper(MediaType.APPLICATION_JSON_TYPE));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //no registration lost
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < perThread; i++) {
+                assertNotNull(ObjectMappers.getMapper(MediaType.valueOf("application/vnd.t" + t + "-" + i)));
+            }
+        }
+    }
+
+    private RestClient client(ClientBuilder builder) {
+        RestClient client = builder.build();
+        clients.add(client);
+        return client;
+    }
+
+    private static class FixedMapper implements ObjectMapper {
+
+        private final String value;
+
+        private FixedMapper(String value) {
+            this.value = value;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T readValue(String value, Class<T> valueType) {
+            return (T) new TestData(this.value);
+        }
+
+        @Override
+        public String writeValue(Object value) {
+            return "{\"someField\":\"" + this.value + "\"}";
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.helper.TestServer;
+import io.joshworks.restclient.http.compress.CompressionPolicy;
+import io.joshworks.restclient.http.utils.RouteStats;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompressionTest {
+
+    private static final String BASE_URL = "http://localhost:9000";
+    private static final String ROUTE = "http://localhost:9000";
+
+    private RestClient client;
+
+    @BeforeClass
+    public static void startServer() {
+        TestServer.start();
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        TestServer.stop();
+    }
+
+    @After
+    public void closeClient() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    public void bodyAboveThreshold_isGzipped() {
+        client = newClient(CompressionPolicy.builder().threshold(1024).build());
+        String body = json(2000);
+
+        HttpResponse<String> response = client.post(BASE_URL + "/compressed/echo").body(body).asString();
+
+        assertEquals("gzip:" + body, response.body());
+        RouteStats stats = client.stats().routes.get(ROUTE);
+        assertEquals(body.length(), stats.uncompressedBytes);
+        assertTrue("Ratio: " + stats.compressionRatio(), stats.compressionRatio() > 10);
+    }
+
+    @Test
+    public void bodyBelowThreshold_isNotCompressed() {
+        client = newClient(CompressionPolicy.builder().threshold(1024).build());
+
+        HttpResponse<String> response = client.post(BASE_URL + "/compressed/echo").body("{\"a\":1}").asString();
+
+        assertEquals("identity:{\"a\":1}", response.body());
+    }
+
+    @Test
+    public void deflate() {
+        client = newClient(CompressionPolicy.builder().encoding(CompressionPolicy.Encoding.DEFLATE).build());
+        String body = json(200);
+
+        HttpResponse<String> response = client.post(BASE_URL + "/compressed/echo").body(body).asString();
+
+        assertEquals("deflate:" + body, response.body());
+    }
+
+    @Test
+    public void async_isCompressed() throws Exception {
+        client = newClient(CompressionPolicy.builder().build());
+        String body = json(200);
+
+        HttpResponse<String> response = client.post(BASE_URL + "/compressed/echo").body(body).asStringAsync().get();
+
+        assertEquals("gzip:" + body, response.body());
+    }
+
+    @Test
+    public void perRequest_overridesClientPolicy() {
+        client = newClient(null);
+        String body = json(200);
+
+        assertEquals("identity:" + body, client.post(BASE_URL + "/compressed/echo").body(body).asString().body());
+        assertEquals("gzip:" + body, client.post(BASE_URL + "/compressed/echo").compress(true).body(body).asString().body());
+
+        client.close();
+        client = newClient(CompressionPolicy.builder().build());
+        assertEquals("identity:" + body, client.post(BASE_URL + "/compressed/echo").compress(false).body(body).asString().body());
+    }
+
+    @Test
+    public void routeNotAllowed_isNotCompressed() {
+        client = newClient(CompressionPolicy.builder().routes("http://127.0.0.1:9000").build());
+        String body = json(200);
+
+        assertEquals("identity:" + body, client.post(BASE_URL + "/compressed/echo").body(body).asString().body());
+        assertEquals("gzip:" + body, client.post("http://127.0.0.1:9000/compressed/echo").body(body).asString().body());
+    }
+
+    @Test
+    public void unsupportedMediaType_disablesRouteCompression() {
+        client = newClient(CompressionPolicy.builder().build());
+        String body = json(200);
+
+        assertEquals(415, client.post(BASE_URL + "/compressed/reject").body(body).asString().getStatus());
+        assertEquals("accepted", client.post(BASE_URL + "/compressed/reject").body(body).asString().body());
+        assertEquals("identity:" + body, client.post(BASE_URL + "/compressed/echo").body(body).asString().body());
+    }
+
+    @Test
+    public void callerEncodedBodyRejected_keepsRouteCompression() throws Exception {
+        client = newClient(CompressionPolicy.builder().build());
+        String body = json(200);
+
+        assertEquals(415, client.post(BASE_URL + "/compressed/reject").header("Content-Encoding", "br").body(body).asString().getStatus());
+        assertEquals(415, client.post(BASE_URL + "/compressed/reject").header("Content-Encoding", "br").body(body).asStringAsync().get().getStatus());
+        assertEquals("gzip:" + body, client.post(BASE_URL + "/compressed/echo").body(body).asString().body());
+    }
+
+    @Test
+    public void objectBelowThreshold_isNotCompressed() throws Exception {
+        client = newClient(CompressionPolicy.builder().threshold(1024).build());
+        Item item = new Item(1, "item");
+
+        assertEquals("identity:{\"id\":1,\"name\":\"item\"}", client.post(BASE_URL + "/compressed/echo").contentType(MediaType.APPLICATION_JSON).body(item).asString().body());
+        assertEquals("identity:{\"id\":1,\"name\":\"item\"}", client.post(BASE_URL + "/compressed/echo").contentType(MediaType.APPLICATION_JSON).body(item).asStringAsync().get().body());
+    }
+
+    @Test
+    public void objectAboveThreshold_isGzipped() throws Exception {
+        client = newClient(CompressionPolicy.builder().threshold(1024).build());
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            items.add(new Item(i, "item"));
+        }
+
+        String sync = client.post(BASE_URL + "/compressed/echo").contentType(MediaType.APPLICATION_JSON).body(items).asString().body();
+        String async = client.post(BASE_URL + "/compressed/echo").contentType(MediaType.APPLICATION_JSON).body(items).asStringAsync().get().body();
+
+        assertTrue(sync, sync.startsWith("gzip:[{\"id\":0,"));
+        assertEquals(sync, async);
+    }
+
+    private static RestClient newClient(CompressionPolicy policy) {
+        return RestClient.builder().compression(policy).build();
+    }
+
+    private static String json(int items) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < items; i++) {
+            sb.append(i > 0 ? "," : "").append("{\"id\":").append(i).append(",\"name\":\"item\",\"active\":true}");
+        }
+        return sb.append("]").toString();
+    }
+
+    private static class Item {
+        private final int id;
+        private final String name;
+
+        private Item(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+}
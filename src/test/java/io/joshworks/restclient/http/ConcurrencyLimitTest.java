@@ -0,0 +1,220 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.helper.TestServer;
+import io.joshworks.restclient.http.exceptions.ConcurrencyLimitExceededException;
+import io.joshworks.restclient.http.limit.ConcurrencyLimitPolicy;
+import io.joshworks.restclient.http.limit.ConcurrencyLimiter;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ConcurrencyLimitTest {
+
+    private static final String BASE_URL = "http://localhost:9000";
+    private static final String ROUTE = "http://localhost:9000";
+
+    private RestClient client;
+
+    @BeforeClass
+    public static void startServer() {
+        TestServer.start();
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        TestServer.stop();
+    }
+
+    @After
+    public void closeClient() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    public void limitReached_rejectsRequests() throws Exception {
+        client = newClient(ConcurrencyLimitPolicy.builder(ConcurrencyLimitPolicy.Algorithm.AIMD)
+                .limits(1, 1)
+                .initialLimit(1)
+                .build());
+
+        CompletableFuture<HttpResponse<String>> slow = client.get(BASE_URL + "/slowFirst/" + UUID.randomUUID()).asStringAsync();
+        try {
+            client.get(BASE_URL + "/hello").asString();
+            fail("Expected concurrency limit exceeded");
+        } catch (ConcurrencyLimitExceededException e) {
+            assertEquals(1, client.stats().concurrencyRejected);
+        }
+        try {
+            client.get(BASE_URL + "/hello").asStringAsync().get();
+            fail("Expected concurrency limit exceeded");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ConcurrencyLimitExceededException);
+        }
+
+        assertEquals(200, slow.get().getStatus());
+        assertEquals(200, client.get(BASE_URL + "/hello").asString().getStatus());
+        assertEquals(0, client.stats().routes.get(ROUTE).inFlight);
+    }
+
+    @Test
+    public void queuedRequests_waitForSlot() throws Exception {
+        client = newClient(ConcurrencyLimitPolicy.builder(ConcurrencyLimitPolicy.Algorithm.AIMD)
+                .limits(1, 1)
+                .initialLimit(1)
+                .queueTimeout(5000)
+                .build());
+
+        CompletableFuture<HttpResponse<String>> slow = client.get(BASE_URL + "/slowFirst/" + UUID.randomUUID()).asStringAsync();
+        CompletableFuture<HttpResponse<String>> queued = client.get(BASE_URL + "/hello").asStringAsync();
+        assertEquals(200, client.get(BASE_URL + "/hello").asString().getStatus());
+
+        assertTrue(slow.isDone());
+        assertEquals(200, queued.get().getStatus());
+        assertEquals(0, client.stats().concurrencyRejected);
+    }
+
+    @Test
+    public void queueTimeout_rejectsRequest() throws Exception {
+        client = newClient(ConcurrencyLimitPolicy.builder(ConcurrencyLimitPolicy.Algorithm.GRADIENT)
+                .limits(1, 1)
+                .initialLimit(1)
+                .queueTimeout(100)
+                .build());
+
+        CompletableFuture<HttpResponse<String>> slow = client.get(BASE_URL + "/slowFirst/" + UUID.randomUUID()).asStringAsync();
+        try {
+            client.get(BASE_URL + "/hello").asStringAsync().get();
+            fail("Expected concurrency limit exceeded");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ConcurrencyLimitExceededException);
+        }
+        assertEquals(200, slow.get().getStatus());
+    }
+
+    @Test
+    public void stats_publishCurrentLimit() {
+        client = newClient(ConcurrencyLimitPolicy.builder(ConcurrencyLimitPolicy.Algorithm.AIMD).initialLimit(10).build());
+
+        assertEquals(200, client.get(BASE_URL + "/hello").asString().getStatus());
+
+        assertEquals(10, client.stats().routes.get(ROUTE).concurrencyLimit);
+    }
+
+    @Test
+    public void aimd_increasesUnderLoadAndBacksOffOnDrop() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(ConcurrencyLimitPolicy.builder(ConcurrencyLimitPolicy.Algorithm.AIMD)
+                .initialLimit(10)
+                .backoffRatio(0.5)
+                .build(), ROUTE);
+
+        for (int i = 0; i < 6; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+        assertEquals(11, limiter.limit());
+
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(10), true);
+        assertEquals(5, limiter.limit());
+    }
+
+    @Test
+    public void aimd_lowUtilizationDoesNotGrowLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(ConcurrencyLimitPolicy.builder(ConcurrencyLimitPolicy.Algorithm.AIMD)
+                .initialLimit(10)
+                .build(), ROUTE);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+        }
+        assertEquals(10, limiter.limit());
+    }
+
+    @Test
+    public void gradient_decreasesWhenResponsesSlowDown() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(ConcurrencyLimitPolicy.builder(ConcurrencyLimitPolicy.Algorithm.GRADIENT)
+                .initialLimit(50)
+                .build(), ROUTE);
+
+        for (int i = 0; i < 40; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+        }
+        int steady = limiter.limit();
+        assertTrue("Limit " + steady, steady >= 50);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(100), false);
+        }
+        assertTrue("Limit " + limiter.limit(), limiter.limit() < steady);
+    }
+
+    @Test
+    public void release_handsSlotToWaiter() throws Exception {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            ConcurrencyLimiter limiter = new ConcurrencyLimiter(ConcurrencyLimitPolicy.builder(ConcurrencyLimitPolicy.Algorithm.AIMD)
+                    .limits(1, 1)
+                    .initialLimit(1)
+                    .queueTimeout(5000)
+                    .build(), ROUTE);
+
+            assertTrue(limiter.tryAcquire());
+            CompletableFuture<Void> waiter = limiter.acquire(scheduler);
+            assertFalse(waiter.isDone());
+
+            limiter.release();
+            waiter.get(1, TimeUnit.SECONDS);
+            assertEquals(1, limiter.inFlight());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void waiterGotSlot_timeoutCancelled() throws Exception {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+        scheduler.setRemoveOnCancelPolicy(true);
+        try {
+            ConcurrencyLimiter limiter = new ConcurrencyLimiter(ConcurrencyLimitPolicy.builder(ConcurrencyLimitPolicy.Algorithm.AIMD)
+                    .limits(1, 1)
+                    .initialLimit(1)
+                    .queueTimeout(60000)
+                    .build(), ROUTE);
+
+            assertTrue(limiter.tryAcquire());
+            for (int i = 0; i < 100; i++) {
+                CompletableFuture<Void> waiter = limiter.acquire(scheduler);
+                limiter.release();
+                waiter.get(1, TimeUnit.SECONDS);
+            }
+            assertEquals(0, scheduler.getQueue().size());
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private static RestClient newClient(ConcurrencyLimitPolicy policy) {
+        return RestClient.builder().concurrencyLimit(policy).build();
+    }
+
+}
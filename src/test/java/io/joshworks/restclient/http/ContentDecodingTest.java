@@ -0,0 +1,119 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.helper.TestServer;
+import io.joshworks.restclient.helper.TestUtils;
+import io.joshworks.restclient.http.exceptions.RestClientException;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.InputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ContentDecodingTest {
+
+    private static final String BASE_URL = "http://localhost:9000";
+    private static final int SIZE = 200 * 1024;
+
+    private RestClient client;
+
+    @BeforeClass
+    public static void startServer() {
+        TestServer.start();
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        TestServer.stop();
+    }
+
+    @After
+    public void closeClient() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    public void chunkedGzip_sync() {
+        client = RestClient.builder().build();
+
+        HttpResponse<String> response = client.get(BASE_URL + "/encoded/gzip/" + SIZE).asString();
+
+        assertEquals(TestServer.encodedContent(SIZE), response.body());
+    }
+
+    @Test
+    public void chunkedGzip_async() throws Exception {
+        client = RestClient.builder().build();
+
+        HttpResponse<String> response = client.get(BASE_URL + "/encoded/gzip/" + SIZE).asStringAsync().get();
+
+        assertEquals(TestServer.encodedContent(SIZE), response.body());
+    }
+
+    @Test
+    public void deflate_withAndWithoutZlibWrapper() throws Exception {
+        client = RestClient.builder().build();
+
+        assertEquals(TestServer.encodedContent(SIZE), client.get(BASE_URL + "/encoded/deflate/" + SIZE).asString().body());
+        assertEquals(TestServer.encodedContent(SIZE), client.get(BASE_URL + "/encoded/deflate-raw/" + SIZE).asStringAsync().get().body());
+    }
+
+    @Test
+    public void gzipMembers_areConcatenated() {
+        client = RestClient.builder().build();
+
+        HttpResponse<String> response = client.get(BASE_URL + "/encoded/gzip-members/" + SIZE).asString();
+
+        assertEquals(TestServer.encodedContent(SIZE), response.body());
+    }
+
+    @Test
+    public void emptyEncodedBody() throws Exception {
+        client = RestClient.builder().build();
+
+        assertEquals(204, client.get(BASE_URL + "/encoded/empty").asString().getStatus());
+        assertEquals(204, client.get(BASE_URL + "/encoded/empty").asStringAsync().get().getStatus());
+    }
+
+    @Test
+    public void corruptBody_fails() {
+        client = RestClient.builder().build();
+        try {
+            client.get(BASE_URL + "/encoded/gzip-corrupt/" + SIZE).asString();
+            fail("Expected corrupt body to fail");
+        } catch (RestClientException expected) {
+        }
+    }
+
+    @Test
+    public void asBinaryAsync_isStreamedAndDecoded() throws Exception {
+        client = RestClient.builder().build();
+        int size = 8 * 1024 * 1024;
+
+        try (HttpResponse<InputStream> response = client.get(BASE_URL + "/encoded/gzip/" + size).asBinaryAsync().get()) {
+            assertEquals(200, response.getStatus());
+            assertEquals(TestServer.encodedContent(size), TestUtils.toString(response.body()));
+        }
+        assertEquals(0, client.stats().async.getLeased());
+    }
+
+    @Test
+    public void asBinaryAsync_closedEarly_releasesConnection() throws Exception {
+        client = RestClient.builder().build();
+
+        HttpResponse<InputStream> response = client.get(BASE_URL + "/encoded/identity/" + 32 * 1024 * 1024).asBinaryAsync().get();
+        assertTrue(response.body().read(new byte[1024]) > 0);
+        response.close();
+
+        Thread.sleep(200);
+        assertEquals(0, client.stats().async.getLeased());
+        assertEquals(200, client.get(BASE_URL + "/encoded/identity/10").asBinaryAsync().get().getStatus());
+    }
+
+}
@@ -0,0 +1,99 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.http.mapper.JsonMapper;
+import io.joshworks.restclient.http.mapper.MapperRegistry;
+import io.joshworks.restclient.http.mapper.ObjectMapper;
+import io.joshworks.restclient.http.mapper.ObjectMappers;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ContentTypeResolutionTest {
+
+    @Test
+    public void parsedOnce() {
+        ParsedContentType first = ParsedContentType.of("application/json; charset=utf-8");
+        ParsedContentType second = ParsedContentType.of("application/json; charset=utf-8");
+
+        assertSame(first, second);
+        assertSame(first.mediaType(), second.mediaType());
+        assertEquals("UTF-8", first.charset);
+        assertEquals("application", first.mediaType().getType());
+        assertEquals("json", first.mediaType().getSubtype());
+    }
+
+    @Test
+    public void baseType_isCachedWithoutParameters() {
+        ParsedContentType parsed = ParsedContentType.of("application/json; charset=utf-8");
+
+        assertSame(parsed.baseType(), parsed.baseType());
+        assertTrue(parsed.baseType().getParameters().isEmpty());
+        assertEquals(MediaType.APPLICATION_JSON_TYPE, parsed.baseType());
+        assertSame(ParsedContentType.of("application/json").mediaType(), ParsedContentType.of("application/json").baseType());
+    }
+
+    @Test
+    public void withoutCharset() {
+        assertNull(ParsedContentType.of("application/json").charset);
+    }
+
+    @Test
+    public void invalidMediaType_charsetStillParsed() {
+        ParsedContentType parsed = ParsedContentType.of("invalid; charset=ISO-8859-1");
+
+        assertEquals("ISO-8859-1", parsed.charset);
+        try {
+            parsed.mediaType();
+            fail("Expected invalid media type");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void cacheIsBounded() {
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("v" + i, ParsedContentType.of("application/v" + i).mediaType().getSubtype());
+        }
+
+        //parameters don't add entries
+        for (int i = 0; i < 100_000; i++) {
+            MediaType type = ParsedContentType.of("multipart/byteranges; boundary=" + i).mediaType();
+            assertNull(MapperRegistry.EMPTY.getMapper(type));
+        }
+        assertEquals(0, MapperRegistry.EMPTY.cachedLookups());
+        assertTrue(ObjectMappers.registry().cachedLookups() < 10);
+
+        for (int i = 0; i < 1000; i++) {
+            ObjectMappers.getMapper(MediaType.valueOf("application/v" + i));
+        }
+        assertTrue(ObjectMappers.registry().cachedLookups() <= 256);
+    }
+
+    @Test
+    public void compatibleMapper() {
+        ObjectMapper mapper = ObjectMappers.getMapper(ParsedContentType.of("application/json; charset=UTF-8").mediaType());
+        assertTrue(mapper instanceof JsonMapper);
+    }
+
+    @Test
+    public void noCompatibleMapper_returnsNull() {
+        assertNull(ObjectMappers.getMapper(MediaType.valueOf("image/png")));
+    }
+
+    @Test
+    public void registeredMapper_replacesResolvedMapper() {
+        MediaType type = MediaType.valueOf("application/vnd.resolution-test+json");
+        assertNull(ObjectMappers.getMapper(type));
+
+        JsonMapper mapper = new JsonMapper();
+        ObjectMappers.register(type, mapper);
+
+        assertSame(mapper, ObjectMappers.getMapper(type));
+        assertSame(mapper, ObjectMappers.getMapper(MediaType.valueOf("application/vnd.resolution-test+json; charset=UTF-8")));
+    }
+
+}
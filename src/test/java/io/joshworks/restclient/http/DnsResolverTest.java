@@ -0,0 +1,160 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.helper.TestServer;
+import io.joshworks.restclient.http.dns.CachingDnsResolver;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.impl.conn.InMemoryDnsResolver;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DnsResolverTest {
+
+    private static final String HOST = "my-service";
+
+    private RestClient client;
+
+    @BeforeClass
+    public static void startServer() {
+        TestServer.start();
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        TestServer.stop();
+    }
+
+    @After
+    public void closeClient() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    public void addresses_areCachedForTtl() throws Exception {
+        CountingResolver upstream = new CountingResolver(address("127.0.0.1"));
+        CachingDnsResolver resolver = CachingDnsResolver.builder().upstream(upstream).ttl(100).refreshAhead(1).build();
+
+        resolver.resolve(HOST);
+        resolver.resolve(HOST);
+        assertEquals(1, upstream.lookups.get());
+
+        Thread.sleep(150);
+        resolver.resolve(HOST);
+        assertEquals(2, upstream.lookups.get());
+    }
+
+    @Test
+    public void refreshAhead_updatesInBackground() throws Exception {
+        CountingResolver upstream = new CountingResolver(address("127.0.0.1"));
+        CachingDnsResolver resolver = CachingDnsResolver.builder().upstream(upstream).ttl(10000).refreshAhead(0.01).build();
+
+        resolver.resolve(HOST);
+        Thread.sleep(150);
+        upstream.addresses = new InetAddress[]{address("127.0.0.2")};
+
+        //served from the cache while the refresh runs
+        assertArrayEquals(new InetAddress[]{address("127.0.0.1")}, resolver.resolve(HOST));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!resolver.resolve(HOST)[0].equals(address("127.0.0.2")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertArrayEquals(new InetAddress[]{address("127.0.0.2")}, resolver.resolve(HOST));
+    }
+
+    @Test
+    public void addresses_areRotated() throws Exception {
+        InetAddress[] addresses = {address("127.0.0.1"), address("127.0.0.2"), address("127.0.0.3")};
+        CachingDnsResolver resolver = CachingDnsResolver.builder().upstream(new CountingResolver(addresses)).build();
+
+        Set<InetAddress> first = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            InetAddress[] resolved = resolver.resolve(HOST);
+            assertEquals(3, resolved.length);
+            first.add(resolved[0]);
+        }
+        assertEquals(3, first.size());
+    }
+
+    @Test
+    public void quarantinedAddresses_areLast() throws Exception {
+        InetAddress[] addresses = {address("127.0.0.1"), address("127.0.0.2")};
+        CachingDnsResolver resolver = CachingDnsResolver.builder().upstream(new CountingResolver(addresses)).quarantine(100).build();
+
+        resolver.quarantine(address("127.0.0.1"));
+        for (int i = 0; i < 4; i++) {
+            assertEquals(address("127.0.0.2"), resolver.resolve(HOST)[0]);
+        }
+
+        Thread.sleep(150);
+        assertFalse(resolver.quarantined(address("127.0.0.1")));
+    }
+
+    @Test
+    public void client_usesResolver() throws Exception {
+        InMemoryDnsResolver upstream = new InMemoryDnsResolver();
+        upstream.add(HOST, address("127.0.0.1"));
+        client = RestClient.builder().dnsResolver(CachingDnsResolver.builder().upstream(upstream).build()).build();
+
+        assertEquals(200, client.get("http://" + HOST + ":9000/hello").asString().getStatus());
+        assertEquals(200, client.get("http://" + HOST + ":9000/hello").asStringAsync().get().getStatus());
+    }
+
+    @Test
+    public void failedAddress_isQuarantined() throws Exception {
+        //the test server only listens on 127.0.0.1
+        InMemoryDnsResolver upstream = new InMemoryDnsResolver();
+        upstream.add(HOST, address("127.0.0.3"), address("127.0.0.1"));
+        CachingDnsResolver resolver = CachingDnsResolver.builder().upstream(upstream).build();
+        client = RestClient.builder().dnsResolver(resolver).build();
+
+        assertEquals(200, client.get("http://" + HOST + ":9000/hello").asString().getStatus());
+        assertTrue(resolver.quarantined(address("127.0.0.3")));
+
+        resolver.clear();
+        int failures = 0;
+        for (int i = 0; i < 4; i++) {
+            try {
+                assertEquals(200, client.get("http://" + HOST + ":9000/hello").asStringAsync().get().getStatus());
+            } catch (ExecutionException e) {
+                failures++;
+            }
+        }
+        assertTrue("Failures: " + failures, failures <= 1);
+    }
+
+    private static InetAddress address(String ip) throws UnknownHostException {
+        return InetAddress.getByName(ip);
+    }
+
+    private static class CountingResolver implements DnsResolver {
+
+        private final AtomicInteger lookups = new AtomicInteger();
+        private volatile InetAddress[] addresses;
+
+        private CountingResolver(InetAddress... addresses) {
+            this.addresses = addresses;
+        }
+
+        @Override
+        public InetAddress[] resolve(String host) {
+            lookups.incrementAndGet();
+            return addresses;
+        }
+    }
+
+}
@@ -0,0 +1,135 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.helper.TestServer;
+import io.joshworks.restclient.http.fanout.FanOutPolicy;
+import io.joshworks.restclient.request.HttpRequest;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FanOutTest {
+
+    private static final String BASE_URL = "http://localhost:9000";
+    //responds after one second
+    private static final String SLOW = "/slowFirst/{id}";
+
+    private RestClient client;
+
+    @BeforeClass
+    public static void startServer() {
+        TestServer.start();
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        TestServer.stop();
+    }
+
+    @After
+    public void closeClient() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    public void all_waitsForEveryResponse() throws Exception {
+        client = RestClient.builder().build();
+
+        FanOutResult<String> result = client.fanOut(requests("/hello", "/hello", "/hello"), String.class, FanOutPolicy.all().build())
+                .get(5, TimeUnit.SECONDS);
+
+        assertTrue(result.satisfied);
+        assertEquals(3, result.responses().size());
+        for (ShardResult<String> shard : result.shards) {
+            assertEquals(ShardResult.Status.SUCCEEDED, shard.status);
+        }
+    }
+
+    @Test
+    public void firstK_abortsOutstandingRequests() throws Exception {
+        client = RestClient.builder().build();
+
+        long start = System.currentTimeMillis();
+        FanOutResult<String> result = client.fanOut(requests(SLOW, "/hello", "/hello"), String.class, FanOutPolicy.firstK(2).build())
+                .get(5, TimeUnit.SECONDS);
+
+        assertTrue(System.currentTimeMillis() - start < 1000);
+        assertTrue(result.satisfied);
+        assertEquals(ShardResult.Status.ABORTED, result.shards.get(0).status);
+        assertEquals(ShardResult.Status.SUCCEEDED, result.shards.get(1).status);
+        assertEquals(ShardResult.Status.SUCCEEDED, result.shards.get(2).status);
+        assertConnectionsReleased();
+    }
+
+    @Test
+    public void deadline_returnsPartialResults() throws Exception {
+        client = RestClient.builder().build();
+
+        long start = System.currentTimeMillis();
+        FanOutResult<String> result = client.fanOut(requests("/hello", SLOW), String.class, FanOutPolicy.all().deadline(200).build())
+                .get(5, TimeUnit.SECONDS);
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertTrue("Elapsed " + elapsed, elapsed >= 200 && elapsed < 1000);
+        assertFalse(result.satisfied);
+        assertTrue(result.deadlineReached);
+        assertEquals(ShardResult.Status.SUCCEEDED, result.shards.get(0).status);
+        assertEquals(ShardResult.Status.ABORTED, result.shards.get(1).status);
+        assertConnectionsReleased();
+    }
+
+    @Test
+    public void quorum_completesWhenItCannotBeReached() throws Exception {
+        client = RestClient.builder().build();
+
+        FanOutResult<String> result = client.fanOut(requests("/500", "/500", SLOW), String.class, FanOutPolicy.quorum().build())
+                .get(5, TimeUnit.SECONDS);
+
+        assertFalse(result.satisfied);
+        assertFalse(result.deadlineReached);
+        assertEquals(ShardResult.Status.FAILED, result.shards.get(0).status);
+        assertEquals(500, result.shards.get(0).response.getStatus());
+        assertEquals(ShardResult.Status.ABORTED, result.shards.get(2).status);
+    }
+
+    @Test
+    public void failedRequests_areReported() throws Exception {
+        client = RestClient.builder().build();
+        List<HttpRequest> requests = requests("/hello");
+        requests.add(client.get("http://localhost:9001/hello"));
+
+        FanOutResult<String> result = client.fanOut(requests, String.class, FanOutPolicy.all().build()).get(5, TimeUnit.SECONDS);
+
+        assertFalse(result.satisfied);
+        assertEquals(ShardResult.Status.FAILED, result.shards.get(1).status);
+        assertTrue(result.shards.get(1).error != null);
+    }
+
+    private List<HttpRequest> requests(String... paths) {
+        List<HttpRequest> requests = new ArrayList<>();
+        for (String path : paths) {
+            requests.add(client.get(BASE_URL + path.replace("{id}", UUID.randomUUID().toString())));
+        }
+        return requests;
+    }
+
+    private void assertConnectionsReleased() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (client.stats().async.getLeased() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, client.stats().async.getLeased());
+    }
+
+}
@@ -0,0 +1,132 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.helper.TestServer;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class FileDownloadTest {
+
+    private static final String BASE_URL = "http://localhost:9000";
+    private static final int SIZE = 2 * 1024 * 1024;
+
+    private RestClient client;
+    private Path dir;
+
+    @BeforeClass
+    public static void startServer() {
+        TestServer.start();
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        TestServer.stop();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        client = RestClient.builder().build();
+        dir = Files.createTempDirectory("downloads");
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        client.close();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    public void asFile() throws IOException {
+        Path target = dir.resolve("file.txt");
+
+        HttpFileResponse response = client.get(BASE_URL + "/encoded/identity/" + SIZE).asFile(target);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(target, response.body());
+        assertEquals(SIZE, response.bytesWritten());
+        assertEquals(TestServer.encodedContent(SIZE), read(target));
+        assertNoPartFiles();
+    }
+
+    @Test
+    public void asFileAsync() throws Exception {
+        Path target = dir.resolve("file.txt");
+
+        HttpFileResponse response = client.get(BASE_URL + "/encoded/identity/" + SIZE).asFileAsync(target).get();
+
+        assertEquals(target, response.body());
+        assertEquals(SIZE, response.bytesWritten());
+        assertEquals(TestServer.encodedContent(SIZE), read(target));
+        assertEquals(0, client.stats().async.getLeased());
+        assertNoPartFiles();
+    }
+
+    @Test
+    public void encodedBody_isDecoded() throws Exception {
+        Path sync = dir.resolve("sync.txt");
+        Path async = dir.resolve("async.txt");
+
+        assertEquals(SIZE, client.get(BASE_URL + "/encoded/gzip/" + SIZE).asFile(sync).bytesWritten());
+        assertEquals(SIZE, client.get(BASE_URL + "/encoded/deflate/" + SIZE).asFileAsync(async).get().bytesWritten());
+
+        assertEquals(TestServer.encodedContent(SIZE), read(sync));
+        assertEquals(TestServer.encodedContent(SIZE), read(async));
+        assertNoPartFiles();
+    }
+
+    @Test
+    public void existingFile_isReplaced() throws Exception {
+        Path target = dir.resolve("file.txt");
+        Files.write(target, "previous content, longer than the new one".getBytes(StandardCharsets.UTF_8));
+
+        client.get(BASE_URL + "/encoded/identity/10").asFileAsync(target).get();
+
+        assertEquals(TestServer.encodedContent(10), read(target));
+    }
+
+    @Test
+    public void errorResponse_leavesFileUntouched() throws Exception {
+        Path target = dir.resolve("file.txt");
+        Files.write(target, "previous".getBytes(StandardCharsets.UTF_8));
+
+        HttpFileResponse sync = client.get(BASE_URL + "/download/missing").asFile(target);
+        HttpFileResponse async = client.get(BASE_URL + "/download/missing").asFileAsync(target).get();
+
+        for (HttpFileResponse response : new HttpFileResponse[]{sync, async}) {
+            assertEquals(404, response.getStatus());
+            assertNull(response.body());
+            assertEquals(0, response.bytesWritten());
+            assertEquals("missing", response.asString());
+        }
+        assertEquals("previous", read(target));
+        assertNoPartFiles();
+    }
+
+    private void assertNoPartFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            assertFalse(files.anyMatch(file -> file.getFileName().toString().endsWith(".part")));
+        }
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,138 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.helper.TestServer;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.message.BasicHeader;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class HeadersTest {
+
+    @Test
+    public void caseInsensitiveLookup() {
+        Headers headers = new Headers().add("X-Trace", "a");
+
+        assertEquals("a", headers.getFirst("x-trace"));
+        assertEquals("a", headers.getFirst("X-TRACE"));
+        assertTrue(headers.containsKey("x-TrAcE"));
+        assertNull(headers.getFirst("X-Other"));
+        assertNull(headers.get("X-Other"));
+    }
+
+    @Test
+    public void multipleValues_groupedWithFirstCase() {
+        Headers headers = new Headers()
+                .add("Accept", "text/plain")
+                .add("X-Trace", "a")
+                .add("accept", "application/json");
+
+        Map<String, List<String>> expected = new LinkedHashMap<>();
+        expected.put("Accept", Arrays.asList("text/plain", "application/json"));
+        expected.put("X-Trace", Collections.singletonList("a"));
+
+        assertEquals(2, headers.size());
+        assertEquals(expected, headers);
+        assertEquals(Arrays.asList("text/plain", "application/json"), headers.getAll("ACCEPT"));
+    }
+
+    @Test
+    public void forEachHeader_inInsertionOrder() {
+        Headers headers = new Headers().add("B", "1").add("A", "2").add("b", "3");
+        StringBuilder pairs = new StringBuilder();
+
+        headers.forEachHeader((name, value) -> pairs.append(name).append('=').append(value).append(';'));
+
+        assertEquals("B=1;A=2;b=3;", pairs.toString());
+    }
+
+    @Test
+    public void putReplacesAllValues() {
+        Headers headers = new Headers().add("X-Trace", "a").add("x-trace", "b").add("Other", "c");
+
+        List<String> previous = headers.put("X-TRACE", Collections.singletonList("d"));
+
+        assertEquals(Arrays.asList("a", "b"), previous);
+        assertEquals(Collections.singletonList("d"), headers.getAll("X-Trace"));
+        assertEquals("c", headers.getFirst("Other"));
+    }
+
+    @Test
+    public void remove() {
+        Headers headers = new Headers().add("X-Trace", "a").add("Other", "b").add("x-trace", "c");
+
+        assertEquals(Arrays.asList("a", "c"), headers.remove("X-TRACE"));
+        assertFalse(headers.containsKey("X-Trace"));
+        assertEquals(1, headers.size());
+        assertNull(headers.remove("X-Trace"));
+    }
+
+    @Test
+    public void growsPastInitialCapacity() {
+        Headers headers = new Headers();
+        for (int i = 0; i < 100; i++) {
+            headers.add("X-" + i, String.valueOf(i));
+        }
+
+        assertEquals(100, headers.size());
+        assertEquals("99", headers.getFirst("x-99"));
+    }
+
+    @Test
+    public void wrappedHeaders() {
+        Header[] source = {
+                new BasicHeader(new String("content-type"), "application/json"),
+                new BasicHeader(new String("Content-Length"), "10"),
+                new BasicHeader("Set-Cookie", "a=1"),
+                new BasicHeader("set-cookie", "b=2")
+        };
+        Headers headers = Headers.wrap(source);
+
+        assertEquals("application/json", headers.getFirst(HttpHeaders.CONTENT_TYPE));
+        assertEquals(Arrays.asList("a=1", "b=2"), headers.get("Set-Cookie"));
+        assertEquals(3, headers.size());
+
+        headers.add("X-Added", "1");
+        assertEquals("1", headers.getFirst("x-added"));
+        assertEquals("10", headers.getFirst("content-length"));
+    }
+
+    @Test
+    public void commonNamesInterned() {
+        Headers headers = Headers.wrap(new Header[]{
+                new BasicHeader(new String("Content-Type"), "a"),
+                new BasicHeader(new String("content-type"), "b")
+        });
+        String[] names = new String[2];
+        int[] index = {0};
+
+        headers.forEachHeader((name, value) -> names[index[0]++] = name);
+
+        assertSame(HttpHeaders.CONTENT_TYPE, names[0]);
+        assertSame("content-type", names[1]);
+    }
+
+    @Test
+    public void responseHeaders_caseInsensitive() {
+        TestServer.start();
+        try (RestClient client = RestClient.builder().build()) {
+            HttpResponse<String> response = client.get("http://localhost:9000/echo/value").asString();
+
+            assertEquals(response.getHeaders().getFirst("Content-Type"), response.getHeaders().getFirst("content-type"));
+            assertTrue(response.getHeaders().getFirst("CONTENT-LENGTH") != null);
+        } finally {
+            TestServer.stop();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.helper.TestServer;
+import io.joshworks.restclient.http.hedge.HedgePolicy;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HedgeTest {
+
+    private static final String BASE_URL = "http://localhost:9000";
+
+    private RestClient client;
+
+    @BeforeClass
+    public static void startServer() {
+        TestServer.start();
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        TestServer.stop();
+    }
+
+    @After
+    public void closeClient() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    public void async_slowRequestIsHedged() throws Exception {
+        client = newClient(HedgePolicy.builder().delay(50).maxRatio(1).build());
+
+        long start = System.currentTimeMillis();
+        HttpResponse<String> response = client.get(slowFirstUrl()).asStringAsync().get();
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals("2", response.body());
+        assertTrue("Hedged request took " + elapsed + "ms", elapsed < 1000);
+        assertEquals(1, client.stats().hedges);
+        assertEquals(1, client.stats().hedgesWon);
+    }
+
+    @Test
+    public void sync_slowRequestIsHedged() {
+        client = newClient(HedgePolicy.builder().delay(50).maxRatio(1).build());
+
+        HttpResponse<String> response = client.get(slowFirstUrl()).asString();
+
+        assertEquals("2", response.body());
+        assertEquals(1, client.stats().hedges);
+    }
+
+    @Test
+    public void losingRequest_releasesConnection() throws Exception {
+        client = newClient(HedgePolicy.builder().delay(50).maxRatio(1).build());
+
+        client.get(slowFirstUrl()).asStringAsync().get();
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+        while (client.stats().async.getLeased() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, client.stats().async.getLeased());
+    }
+
+    @Test
+    public void fastRequest_isNotHedged() throws Exception {
+        client = newClient(HedgePolicy.builder().delay(500).maxRatio(1).build());
+
+        HttpResponse<String> response = client.get(BASE_URL + "/hello").asStringAsync().get();
+
+        assertEquals(200, response.getStatus());
+        assertEquals(0, client.stats().hedges);
+    }
+
+    @Test
+    public void nonIdempotentMethod_isNotHedged() throws Exception {
+        client = newClient(HedgePolicy.builder().delay(50).maxRatio(1).build());
+
+        HttpResponse<String> response = client.post(slowFirstUrl()).asStringAsync().get();
+
+        assertEquals("1", response.body());
+        assertEquals(0, client.stats().hedges);
+    }
+
+    @Test
+    public void hedges_areCappedByRatio() throws Exception {
+        client = newClient(HedgePolicy.builder().delay(50).maxRatio(0).build());
+
+        HttpResponse<String> response = client.get(slowFirstUrl()).asStringAsync().get();
+
+        assertEquals("1", response.body());
+        assertEquals(0, client.stats().hedges);
+    }
+
+    @Test
+    public void latencyWindow_percentile() {
+        LatencyWindow window = new LatencyWindow(95);
+        assertEquals(-1, window.percentile());
+        for (int i = 1; i <= 100; i++) {
+            window.record(i);
+        }
+        long p95 = window.percentile();
+        assertTrue("Unexpected p95: " + p95, p95 >= 90 && p95 <= 96);
+    }
+
+    private static RestClient newClient(HedgePolicy policy) {
+        return RestClient.builder().hedgePolicy(policy).build();
+    }
+
+    private static String slowFirstUrl() {
+        return BASE_URL + "/slowFirst/" + UUID.randomUUID();
+    }
+
+}
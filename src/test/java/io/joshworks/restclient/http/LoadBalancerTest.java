@@ -0,0 +1,148 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.helper.TestServer;
+import io.joshworks.restclient.http.balancer.Endpoint;
+import io.joshworks.restclient.http.balancer.EndpointGroup;
+import io.joshworks.restclient.http.balancer.LeastLatency;
+import io.joshworks.restclient.http.balancer.LoadBalancerPolicy;
+import io.joshworks.restclient.http.balancer.PowerOfTwoChoices;
+import io.joshworks.restclient.http.exceptions.RestClientException;
+import io.joshworks.restclient.request.GetRequest;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class LoadBalancerTest {
+
+    private static final String BASE_URL = "http://localhost:9000";
+    private static final String UNAVAILABLE_URL = "http://localhost:9001";
+
+    private RestClient client;
+
+    @BeforeClass
+    public static void startServer() {
+        TestServer.start();
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        TestServer.stop();
+    }
+
+    @After
+    public void closeClient() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    public void roundRobin_usesAllEndpoints() {
+        client = RestClient.builder().baseUrls(BASE_URL, "http://127.0.0.1:9000").build();
+
+        Set<String> urls = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            GetRequest request = client.get("/hello");
+            urls.add(request.getUrl());
+            assertEquals(200, request.asString().getStatus());
+        }
+        assertEquals(new HashSet<>(Arrays.asList(BASE_URL + "/hello", "http://127.0.0.1:9000/hello")), urls);
+    }
+
+    @Test
+    public void failingEndpoint_isEjected() {
+        client = newClient(LoadBalancerPolicy.builder().consecutiveFailures(2).build());
+
+        assertEquals(2, failures(10));
+        assertTrue(client.endpoints.endpoints().get(1).ejected());
+    }
+
+    @Test
+    public void ejectedEndpoint_isAdmittedAgain() throws Exception {
+        client = newClient(LoadBalancerPolicy.builder().consecutiveFailures(2).ejectionTime(100).build());
+
+        assertEquals(2, failures(10));
+        Thread.sleep(150);
+
+        assertFalse(client.endpoints.endpoints().get(1).ejected());
+        assertTrue(failures(2) > 0);
+    }
+
+    @Test
+    public void asyncFailures_ejectEndpoint() throws Exception {
+        client = newClient(LoadBalancerPolicy.builder().consecutiveFailures(2).build());
+
+        int failures = 0;
+        for (int i = 0; i < 10; i++) {
+            try {
+                client.get("/hello").asStringAsync().get();
+            } catch (ExecutionException e) {
+                failures++;
+            }
+        }
+        assertEquals(2, failures);
+    }
+
+    @Test
+    public void maxEjectedPercent_keepsEndpointsAdmitted() {
+        client = newClient(LoadBalancerPolicy.builder().consecutiveFailures(1).maxEjectedPercent(0).build());
+
+        assertEquals(5, failures(10));
+    }
+
+    @Test
+    public void powerOfTwoChoices_prefersFewerOutstanding() {
+        EndpointGroup group = new EndpointGroup(Arrays.asList("a", "b"), LoadBalancerPolicy.builder().balancer(new PowerOfTwoChoices()).build());
+        Endpoint busy = group.endpoints().get(0);
+        group.start(busy);
+
+        for (int i = 0; i < 20; i++) {
+            assertSame(group.endpoints().get(1), group.select());
+        }
+    }
+
+    @Test
+    public void leastLatency_prefersFasterEndpoint() {
+        EndpointGroup group = new EndpointGroup(Arrays.asList("a", "b"), LoadBalancerPolicy.builder().balancer(new LeastLatency()).build());
+        Endpoint slow = group.endpoints().get(0);
+        Endpoint fast = group.endpoints().get(1);
+        group.start(slow);
+        group.complete(slow, TimeUnit.MILLISECONDS.toNanos(100), false);
+        group.start(fast);
+        group.complete(fast, TimeUnit.MILLISECONDS.toNanos(10), false);
+
+        assertSame(fast, group.select());
+    }
+
+    private int failures(int requests) {
+        int failures = 0;
+        for (int i = 0; i < requests; i++) {
+            try {
+                client.get("/hello").asString();
+            } catch (RestClientException e) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    private static RestClient newClient(LoadBalancerPolicy policy) {
+        return RestClient.builder()
+                .baseUrls(BASE_URL, UNAVAILABLE_URL)
+                .loadBalancer(policy)
+                .build();
+    }
+
+}
@@ -0,0 +1,191 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.helper.TestServer;
+import io.joshworks.restclient.http.mapper.JsonMapper;
+import io.joshworks.restclient.http.mapper.ObjectMapper;
+import io.joshworks.restclient.http.retry.RetryPolicy;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ObjectSerializationTest {
+
+    private static final String BASE_URL = "http://localhost:9000";
+    private static final String JSON = "{\"id\":1,\"name\":\"a\"}";
+
+    private RestClient client;
+
+    @BeforeClass
+    public static void startServer() {
+        TestServer.start();
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        TestServer.stop();
+    }
+
+    @After
+    public void closeClient() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    public void sync_smallObjectSentWithLength() {
+        client = RestClient.builder().build();
+
+        String body = client.post(BASE_URL + "/records").contentType(MediaType.APPLICATION_JSON).body(new Item(1, "a")).asString().body();
+
+        assertEquals("application/json;length=" + JSON.length() + ";" + JSON, body);
+    }
+
+    @Test
+    public void sync_largeObjectSentChunked() {
+        client = RestClient.builder().build();
+        List<Item> items = items(10_000);
+        String expected = new JsonMapper().writeValue(items);
+
+        String body = client.post(BASE_URL + "/records").contentType(MediaType.APPLICATION_JSON).body(items).asString().body();
+
+        assertEquals("application/json;chunked;" + expected, body);
+    }
+
+    @Test
+    public void async_smallObjectSentWithLength() throws Exception {
+        client = RestClient.builder().build();
+
+        String body = client.post(BASE_URL + "/records").contentType(MediaType.APPLICATION_JSON).body(new Item(1, "a")).asStringAsync().get().body();
+
+        assertEquals("application/json;length=" + JSON.length() + ";" + JSON, body);
+    }
+
+    @Test
+    public void async_largeObjectSentChunked() throws Exception {
+        client = RestClient.builder().build();
+        List<Item> items = items(10_000);
+        String expected = new JsonMapper().writeValue(items);
+
+        String body = client.post(BASE_URL + "/records").contentType(MediaType.APPLICATION_JSON).body(items).asStringAsync().get().body();
+
+        assertEquals("application/json;chunked;" + expected, body);
+    }
+
+    @Test
+    public void contentLength() throws Exception {
+        client = RestClient.builder().build();
+        List<Item> items = items(10_000);
+        String expected = new JsonMapper().writeValue(items);
+
+        String sync = client.post(BASE_URL + "/records").contentType(MediaType.APPLICATION_JSON).body(items).contentLength().asString().body();
+        String async = client.post(BASE_URL + "/records").contentType(MediaType.APPLICATION_JSON).body(items).contentLength().asStringAsync().get().body();
+
+        assertEquals("application/json;length=" + expected.length() + ";" + expected, sync);
+        assertEquals("application/json;length=" + expected.length() + ";" + expected, async);
+    }
+
+    @Test
+    public void objectBody_isResentOnRetry() throws Exception {
+        client = RestClient.builder().retryPolicy(RetryPolicy.builder().backoff(1, 10).build()).build();
+
+        String sync = client.put(BASE_URL + "/flaky/echo/object-sync/1").contentType(MediaType.APPLICATION_JSON).body(new Item(1, "a")).asString().body();
+        String async = client.put(BASE_URL + "/flaky/echo/object-async/1").contentType(MediaType.APPLICATION_JSON).body(new Item(1, "a")).asStringAsync().get().body();
+
+        assertEquals(JSON, sync);
+        assertEquals(JSON, async);
+    }
+
+    @Test
+    public void contentLengthBody_isResentOnRetry() throws Exception {
+        client = RestClient.builder().retryPolicy(RetryPolicy.builder().backoff(1, 10).build()).build();
+        List<Item> items = items(10_000);
+        String expected = new JsonMapper().writeValue(items);
+
+        String sync = client.put(BASE_URL + "/flaky/echo/length-sync/1").contentType(MediaType.APPLICATION_JSON).body(items).contentLength().asString().body();
+        String async = client.put(BASE_URL + "/flaky/echo/length-async/1").contentType(MediaType.APPLICATION_JSON).body(items).contentLength().asStringAsync().get().body();
+
+        assertEquals(expected, sync);
+        assertEquals(expected, async);
+    }
+
+    @Test
+    public void jsonMapper_doesNotCloseStream() throws IOException {
+        ClosingAwareStream out = new ClosingAwareStream();
+
+        new JsonMapper().writeValue(new Item(1, "a"), out);
+
+        assertEquals(JSON, new String(out.toByteArray(), StandardCharsets.UTF_8));
+        assertFalse(out.closed);
+    }
+
+    @Test
+    public void jsonMapper_encodesUtf8() throws IOException {
+        JsonMapper mapper = new JsonMapper();
+        Item item = new Item(1, "ação \uD83D\uDE00 \uD800 end");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        mapper.writeValue(item, out);
+
+        assertArrayEquals(mapper.writeValue(item).getBytes(StandardCharsets.UTF_8), out.toByteArray());
+    }
+
+    @Test
+    public void mapperWithoutStreamingSupport() throws IOException {
+        ObjectMapper mapper = new ObjectMapper() {
+            @Override
+            public <T> T readValue(String value, Class<T> valueType) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public String writeValue(Object value) {
+                return "item:" + value;
+            }
+        };
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        mapper.writeValue("ã", out);
+
+        assertEquals("item:ã", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static List<Item> items(int count) {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(new Item(i, "item-" + i));
+        }
+        return items;
+    }
+
+    private static class Item {
+        private final int id;
+        private final String name;
+
+        private Item(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    private static class ClosingAwareStream extends ByteArrayOutputStream {
+        private boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.helper.TestServer;
+import io.joshworks.restclient.http.circuit.CircuitBreaker;
+import io.joshworks.restclient.http.circuit.CircuitBreakerPolicy;
+import io.joshworks.restclient.http.exceptions.RestClientException;
+import io.joshworks.restclient.http.pipeline.PipelinePolicy;
+import io.joshworks.restclient.http.ratelimit.RateLimitPolicy;
+import io.joshworks.restclient.request.HttpRequest;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PipeliningTest {
+
+    private static final String BASE_URL = "http://localhost:9000";
+
+    private RestClient client;
+
+    @BeforeClass
+    public static void startServer() {
+        TestServer.start();
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        TestServer.stop();
+    }
+
+    @After
+    public void closeClient() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    public void responsesAreReturnedInOrder() throws Exception {
+        client = newClient(PipelinePolicy.builder().maxDepth(5).build());
+
+        List<HttpRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            requests.add(client.get(BASE_URL + "/echo/" + i));
+        }
+        List<HttpResponse<String>> responses = client.executePipelined(requests, String.class).get(10, TimeUnit.SECONDS);
+
+        assertEquals(20, responses.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(200, responses.get(i).getStatus());
+            assertEquals(String.valueOf(i), responses.get(i).body());
+        }
+        assertEquals(4, client.stats().pipelines);
+        assertEquals(20, client.stats().pipelinedRequests);
+        assertEquals(0, client.stats().pipelineFallbacks);
+    }
+
+    @Test
+    public void connectionClosed_unansweredRequestsFallBack() throws Exception {
+        client = newClient(PipelinePolicy.builder().maxDepth(4).build());
+
+        List<HttpRequest> requests = Arrays.asList(
+                client.get(BASE_URL + "/echo/a"),
+                client.get(BASE_URL + "/closeConnection"),
+                client.get(BASE_URL + "/echo/b"),
+                client.get(BASE_URL + "/echo/c"));
+        List<HttpResponse<String>> responses = client.executePipelined(requests, String.class).get(10, TimeUnit.SECONDS);
+
+        assertEquals("a", responses.get(0).body());
+        assertEquals("closed", responses.get(1).body());
+        assertEquals("b", responses.get(2).body());
+        assertEquals("c", responses.get(3).body());
+        assertTrue(client.stats().pipelineFallbacks > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void differentRoutes_areRejected() {
+        client = newClient(PipelinePolicy.builder().build());
+        client.executePipelined(Arrays.asList(client.get(BASE_URL + "/hello"), client.get("http://127.0.0.1:9000/hello")), String.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPipelinedMethod_isRejected() {
+        client = newClient(PipelinePolicy.builder().build());
+        client.executePipelined(Arrays.asList(client.get(BASE_URL + "/hello"), client.post(BASE_URL + "/echo")), String.class);
+    }
+
+    @Test(expected = RestClientException.class)
+    public void notConfigured_isRejected() {
+        client = RestClient.builder().build();
+        client.executePipelined(Arrays.asList(client.get(BASE_URL + "/hello")), String.class);
+    }
+
+    @Test
+    public void inputStreamResponses_areStreamResponses() throws Exception {
+        client = newClient(PipelinePolicy.builder().build());
+
+        List<HttpRequest> requests = Arrays.asList(client.get(BASE_URL + "/echo/a"), client.get(BASE_URL + "/echo/b"));
+        List<HttpResponse<InputStream>> responses = client.executePipelined(requests, InputStream.class).get(10, TimeUnit.SECONDS);
+
+        for (HttpResponse<InputStream> response : responses) {
+            assertTrue(response instanceof HttpStreamResponse);
+            response.close();
+        }
+    }
+
+    @Test
+    public void routeLimits_doNotApply() throws Exception {
+        client = RestClient.builder()
+                .pipelining(PipelinePolicy.builder().build())
+                .rateLimit(RateLimitPolicy.builder(1).burst(5).maxWait(0).build())
+                .circuitBreaker(CircuitBreakerPolicy.builder().slidingWindow(5, 5).openDuration(60000).build())
+                .build();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(500, client.get(BASE_URL + "/500").asString().getStatus());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, client.stats().routes.get(BASE_URL).circuit);
+
+        List<HttpRequest> requests = Arrays.asList(
+                client.get(BASE_URL + "/echo/a"),
+                client.get(BASE_URL + "/echo/b"),
+                client.get(BASE_URL + "/echo/c"));
+        List<HttpResponse<String>> responses = client.executePipelined(requests, String.class).get(10, TimeUnit.SECONDS);
+
+        assertEquals("a", responses.get(0).body());
+        assertEquals("b", responses.get(1).body());
+        assertEquals("c", responses.get(2).body());
+        assertEquals(0, client.stats().circuitRejected);
+        assertEquals(0, client.stats().rateLimited);
+    }
+
+    private static RestClient newClient(PipelinePolicy policy) {
+        return RestClient.builder().pipelining(policy).build();
+    }
+
+}
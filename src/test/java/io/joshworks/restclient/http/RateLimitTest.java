@@ -0,0 +1,166 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.helper.TestServer;
+import io.joshworks.restclient.http.circuit.CircuitBreakerPolicy;
+import io.joshworks.restclient.http.exceptions.CircuitBreakerOpenException;
+import io.joshworks.restclient.http.exceptions.RateLimitExceededException;
+import io.joshworks.restclient.http.ratelimit.RateLimitPolicy;
+import io.joshworks.restclient.http.ratelimit.RateLimiter;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RateLimitTest {
+
+    private static final String BASE_URL = "http://localhost:9000";
+
+    private RestClient client;
+
+    @BeforeClass
+    public static void startServer() {
+        TestServer.start();
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        TestServer.stop();
+    }
+
+    @After
+    public void closeClient() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    public void sync_requestsArePaced() {
+        client = newClient(RateLimitPolicy.builder(20).build());
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, client.get(BASE_URL + "/hello").asString().getStatus());
+        }
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertTrue("Requests took " + elapsed + "ms", elapsed >= 150);
+        assertEquals(4, client.stats().throttled);
+        assertTrue(client.stats().throttleWait > 0);
+    }
+
+    @Test
+    public void async_requestsArePacedWithoutBlocking() throws Exception {
+        client = newClient(RateLimitPolicy.builder(20).build());
+
+        long start = System.currentTimeMillis();
+        List<CompletableFuture<HttpResponse<String>>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(client.get(BASE_URL + "/hello").asStringAsync());
+        }
+        long submitTime = System.currentTimeMillis() - start;
+        for (CompletableFuture<HttpResponse<String>> future : futures) {
+            assertEquals(200, future.get().getStatus());
+        }
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertTrue("Submission blocked for " + submitTime + "ms", submitTime < 150);
+        assertTrue("Requests took " + elapsed + "ms", elapsed >= 150);
+        assertEquals(4, client.stats().throttled);
+    }
+
+    @Test
+    public void maxWaitExceeded_rejectsRequest() throws Exception {
+        client = newClient(RateLimitPolicy.builder(1).maxWait(100).build());
+
+        assertEquals(200, client.get(BASE_URL + "/hello").asString().getStatus());
+        try {
+            client.get(BASE_URL + "/hello").asString();
+            fail("Expected rate limit exceeded");
+        } catch (RateLimitExceededException e) {
+            assertEquals(1, client.stats().rateLimited);
+        }
+        try {
+            client.get(BASE_URL + "/hello").asStringAsync().get();
+            fail("Expected rate limit exceeded");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RateLimitExceededException);
+        }
+    }
+
+    @Test
+    public void perRoute_limitsAreIndependent() {
+        client = newClient(RateLimitPolicy.builder(1).maxWait(0).build());
+
+        assertEquals(200, client.get(BASE_URL + "/hello").asString().getStatus());
+        assertEquals(200, client.get("http://127.0.0.1:9000/hello").asString().getStatus());
+    }
+
+    @Test
+    public void global_limitIsShared() {
+        client = newClient(RateLimitPolicy.builder(1).maxWait(0).perRoute(false).build());
+
+        assertEquals(200, client.get(BASE_URL + "/hello").asString().getStatus());
+        try {
+            client.get("http://127.0.0.1:9000/hello").asString();
+            fail("Expected rate limit exceeded");
+        } catch (RateLimitExceededException e) {
+            assertEquals(1, client.stats().rateLimited);
+        }
+    }
+
+    @Test
+    public void burst_isAvailableImmediately() {
+        RateLimiter limiter = new RateLimiter(RateLimitPolicy.builder(1).burst(3).build());
+
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertTrue(limiter.reserve() > 0);
+    }
+
+    @Test
+    public void openCircuit_failsFastWithoutTakingPermits() throws Exception {
+        client = RestClient.builder()
+                .rateLimit(RateLimitPolicy.builder(5).burst(5).build())
+                .circuitBreaker(CircuitBreakerPolicy.builder().slidingWindow(5, 5).openDuration(60000).build())
+                .build();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(500, client.get(BASE_URL + "/500").asString().getStatus());
+        }
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 3; i++) {
+            try {
+                client.get(BASE_URL + "/hello").asString();
+                fail("Expected open circuit");
+            } catch (CircuitBreakerOpenException expected) {
+            }
+            try {
+                client.get(BASE_URL + "/hello").asStringAsync().get();
+                fail("Expected open circuit");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof CircuitBreakerOpenException);
+            }
+        }
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertTrue("Rejections took " + elapsed + "ms", elapsed < 150);
+        assertEquals(0, client.stats().throttled);
+        assertEquals(6, client.stats().circuitRejected);
+    }
+
+    private static RestClient newClient(RateLimitPolicy policy) {
+        return RestClient.builder().rateLimit(policy).build();
+    }
+
+}
@@ -0,0 +1,199 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.helper.TestData;
+import io.joshworks.restclient.helper.TestServer;
+import io.joshworks.restclient.http.exceptions.RestClientException;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ReactivePublisherTest {
+
+    private static final String BASE_URL = "http://localhost:9000";
+
+    private RestClient client;
+
+    @BeforeClass
+    public static void startServer() {
+        TestServer.start();
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        TestServer.stop();
+    }
+
+    @After
+    public void closeClient() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    public void bytes_readOnlyAsRequested() throws Exception {
+        client = RestClient.builder().build();
+        int size = 4 * 1024 * 1024;
+
+        TestSubscriber<ByteBuffer> subscriber = new TestSubscriber<>(1);
+        client.get(BASE_URL + "/stream/bytes/" + size).asPublisher().subscribe(subscriber);
+
+        Thread.sleep(500);
+        assertEquals(1, subscriber.items.size());
+        assertFalse(subscriber.completed);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.await();
+
+        assertNull(subscriber.error);
+        assertEquals(size, subscriber.items.stream().mapToInt(ByteBuffer::remaining).sum());
+    }
+
+    @Test
+    public void jsonArray_elementsAreMapped() throws Exception {
+        client = RestClient.builder().build();
+
+        TestSubscriber<TestData> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+        client.get(BASE_URL + "/stream/array/2000").asPublisherOf(TestData.class).subscribe(subscriber);
+        subscriber.await();
+
+        assertNull(subscriber.error);
+        assertEquals(2000, subscriber.items.size());
+        for (int i = 0; i < 2000; i++) {
+            assertEquals("item, [" + i + "] {\"x\"}", subscriber.items.get(i).getSomeField());
+        }
+    }
+
+    @Test
+    public void ndjson_elementsAreMappedOnDemand() throws Exception {
+        client = RestClient.builder().build();
+
+        TestSubscriber<TestData> subscriber = new TestSubscriber<>(3);
+        client.get(BASE_URL + "/stream/ndjson/100").asPublisherOf(TestData.class).subscribe(subscriber);
+
+        Thread.sleep(300);
+        assertEquals(3, subscriber.items.size());
+        assertFalse(subscriber.completed);
+
+        subscriber.subscription.request(97);
+        subscriber.await();
+
+        assertNull(subscriber.error);
+        assertEquals(100, subscriber.items.size());
+        assertEquals("item-99", subscriber.items.get(99).getSomeField());
+    }
+
+    @Test
+    public void rawElements_asString() throws Exception {
+        client = RestClient.builder().build();
+
+        TestSubscriber<String> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+        client.get(BASE_URL + "/stream/ndjson/2").asPublisherOf(String.class).subscribe(subscriber);
+        subscriber.await();
+
+        assertEquals("{\"someField\":\"item-0\"}", subscriber.items.get(0));
+    }
+
+    @Test
+    public void cancel_abortsExchange() throws Exception {
+        client = RestClient.builder().build();
+
+        TestSubscriber<ByteBuffer> subscriber = new TestSubscriber<>(1);
+        client.get(BASE_URL + "/stream/bytes/" + 4 * 1024 * 1024).asPublisher().subscribe(subscriber);
+
+        Thread.sleep(300);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(10);
+        Thread.sleep(300);
+
+        assertEquals(1, subscriber.items.size());
+        assertFalse(subscriber.completed);
+        assertNull(subscriber.error);
+        assertEquals(0, client.stats().async.getLeased());
+    }
+
+    @Test
+    public void errorStatus_signalsError() throws Exception {
+        client = RestClient.builder().build();
+
+        TestSubscriber<ByteBuffer> subscriber = new TestSubscriber<>(1);
+        client.get(BASE_URL + "/500").asPublisher().subscribe(subscriber);
+        subscriber.await();
+
+        assertTrue(subscriber.error instanceof RestClientException);
+        assertTrue(subscriber.items.isEmpty());
+    }
+
+    @Test
+    public void secondSubscriber_isRejected() throws Exception {
+        client = RestClient.builder().build();
+
+        Publisher<TestData> publisher = client.get(BASE_URL + "/stream/ndjson/1").asPublisherOf(TestData.class);
+        TestSubscriber<TestData> first = new TestSubscriber<>(Long.MAX_VALUE);
+        TestSubscriber<TestData> second = new TestSubscriber<>(Long.MAX_VALUE);
+        publisher.subscribe(first);
+        publisher.subscribe(second);
+        first.await();
+        second.await();
+
+        assertEquals(1, first.items.size());
+        assertTrue(second.error instanceof IllegalStateException);
+    }
+
+    private static class TestSubscriber<T> implements Subscriber<T> {
+
+        private final long initialDemand;
+        private final CountDownLatch terminated = new CountDownLatch(1);
+        private final List<T> items = new CopyOnWriteArrayList<>();
+        private volatile Subscription subscription;
+        private volatile Throwable error;
+        private volatile boolean completed;
+
+        private TestSubscriber(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialDemand);
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            terminated.countDown();
+        }
+
+        private void await() throws InterruptedException {
+            assertTrue("Stream didn't terminate", terminated.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+}
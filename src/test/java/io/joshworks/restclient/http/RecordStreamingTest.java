@@ -0,0 +1,150 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.helper.TestServer;
+import io.joshworks.restclient.http.mapper.JsonMapper;
+import io.joshworks.restclient.http.mapper.ObjectMapper;
+import io.joshworks.restclient.http.retry.RetryPolicy;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RecordStreamingTest {
+
+    private static final String BASE_URL = "http://localhost:9000";
+    private static final String NDJSON = "{\"id\":1,\"name\":\"a\"}\n{\"id\":2,\"name\":\"b\"}\n";
+
+    private RestClient client;
+
+    @BeforeClass
+    public static void startServer() {
+        TestServer.start();
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        TestServer.stop();
+    }
+
+    @After
+    public void closeClient() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    public void iterator() throws Exception {
+        client = RestClient.builder().build();
+
+        assertEquals("application/x-ndjson;chunked;" + NDJSON, client.post(BASE_URL + "/records").records(records().iterator()).asString().body());
+        assertEquals("application/x-ndjson;chunked;" + NDJSON, client.post(BASE_URL + "/records").records(records().iterator()).asStringAsync().get().body());
+    }
+
+    @Test
+    public void records_serializedIntoTheStream() {
+        //writing each record as a String would fail
+        ObjectMapper streamingOnly = new JsonMapper() {
+            @Override
+            public String writeValue(Object value) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        client = RestClient.builder().objectMapper(MediaType.APPLICATION_JSON_TYPE, streamingOnly).build();
+
+        assertEquals("application/x-ndjson;chunked;" + NDJSON, client.post(BASE_URL + "/records").records(records().iterator()).asString().body());
+    }
+
+    @Test
+    public void stream_closedOnceSent() throws Exception {
+        client = RestClient.builder().build();
+        AtomicBoolean closed = new AtomicBoolean();
+
+        String body = client.post(BASE_URL + "/records").records(records().stream().onClose(() -> closed.set(true))).asStringAsync().get().body();
+
+        assertEquals("application/x-ndjson;chunked;" + NDJSON, body);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void explicitContentType() {
+        client = RestClient.builder().build();
+
+        String body = client.post(BASE_URL + "/records").contentType("application/json-seq").records(records().iterator()).asString().body();
+
+        assertEquals("application/json-seq;chunked;" + NDJSON, body);
+    }
+
+    @Test
+    public void writer() throws Exception {
+        client = RestClient.builder().build();
+
+        String sync = client.post(BASE_URL + "/compressed/echo").body(out -> out.write("written".getBytes(StandardCharsets.UTF_8))).asString().body();
+        String async = client.post(BASE_URL + "/compressed/echo").body(out -> out.write("written".getBytes(StandardCharsets.UTF_8))).asStringAsync().get().body();
+
+        assertEquals("identity:written", sync);
+        assertEquals("identity:written", async);
+    }
+
+    @Test
+    public void largeGeneratedBody_async() throws Exception {
+        client = RestClient.builder().build();
+        int count = 100_000;
+
+        String body = client.post(BASE_URL + "/compressed/echo")
+                .records(Stream.iterate(0, i -> i + 1).limit(count).map(i -> new Record(i, "record-" + i)))
+                .asStringAsync().get().body();
+
+        String[] lines = body.substring("identity:".length()).split("\n");
+        assertEquals(count, lines.length);
+        assertEquals("{\"id\":99999,\"name\":\"record-99999\"}", lines[count - 1]);
+    }
+
+    @Test
+    public void failingWriter_failsRequest() {
+        client = RestClient.builder().build();
+        try {
+            client.post(BASE_URL + "/compressed/echo").body(out -> {
+                out.write(new byte[100_000]);
+                throw new IOException("Generator failed");
+            }).asStringAsync().get();
+            fail("Expected the request to fail");
+        } catch (Exception expected) {
+        }
+    }
+
+    @Test
+    public void records_notRetried() throws Exception {
+        client = RestClient.builder().retryPolicy(RetryPolicy.builder().backoff(1, 10).build()).build();
+
+        HttpResponse<String> response = client.put(BASE_URL + "/flaky/echo/records/1").records(records().iterator()).asStringAsync().get();
+
+        assertEquals(503, response.getStatus());
+    }
+
+    private static List<Record> records() {
+        return Arrays.asList(new Record(1, "a"), new Record(2, "b"));
+    }
+
+    private static class Record {
+        private final int id;
+        private final String name;
+
+        private Record(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+}
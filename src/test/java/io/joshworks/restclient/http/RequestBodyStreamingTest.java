@@ -0,0 +1,145 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.helper.TestServer;
+import io.joshworks.restclient.http.compress.CompressionPolicy;
+import io.joshworks.restclient.http.retry.RetryPolicy;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class RequestBodyStreamingTest {
+
+    private static final String BASE_URL = "http://localhost:9000";
+    private static final String CONTENT = TestServer.encodedContent(512 * 1024);
+
+    private RestClient client;
+
+    @BeforeClass
+    public static void startServer() {
+        TestServer.start();
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        TestServer.stop();
+    }
+
+    @After
+    public void closeClient() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    public void inputStream() throws Exception {
+        client = RestClient.builder().build();
+
+        assertEquals("identity:" + CONTENT, client.post(BASE_URL + "/compressed/echo").body(stream()).asString().body());
+        assertEquals("identity:" + CONTENT, client.post(BASE_URL + "/compressed/echo").body(stream()).asStringAsync().get().body());
+    }
+
+    @Test
+    public void inputStream_withLength() throws Exception {
+        client = RestClient.builder().build();
+        long length = CONTENT.length();
+
+        assertEquals("identity:" + CONTENT, client.post(BASE_URL + "/compressed/echo").body(stream(), length).asString().body());
+        assertEquals("identity:" + CONTENT, client.post(BASE_URL + "/compressed/echo").body(stream(), length).asStringAsync().get().body());
+    }
+
+    @Test
+    public void file() throws Exception {
+        client = RestClient.builder().build();
+        Path file = Files.createTempFile("body", ".txt");
+        try {
+            Files.write(file, CONTENT.getBytes(StandardCharsets.UTF_8));
+
+            assertEquals("identity:" + CONTENT, client.post(BASE_URL + "/compressed/echo").body(file).asString().body());
+            assertEquals("identity:" + CONTENT, client.post(BASE_URL + "/compressed/echo").body(file).asStringAsync().get().body());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void file_isResentOnRetry() throws Exception {
+        client = RestClient.builder().retryPolicy(RetryPolicy.builder().backoff(1, 10).build()).build();
+        Path file = Files.createTempFile("body", ".txt");
+        try {
+            Files.write(file, CONTENT.getBytes(StandardCharsets.UTF_8));
+
+            assertEquals(CONTENT, client.put(BASE_URL + "/flaky/echo/file-sync/1").body(file).asString().body());
+            assertEquals(CONTENT, client.put(BASE_URL + "/flaky/echo/file-async/1").body(file).asStringAsync().get().body());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void directByteBuffer() throws Exception {
+        client = RestClient.builder().build();
+        byte[] bytes = CONTENT.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        buffer.flip();
+
+        assertEquals("identity:" + CONTENT, client.post(BASE_URL + "/compressed/echo").body(buffer).asString().body());
+        assertEquals("identity:" + CONTENT, client.post(BASE_URL + "/compressed/echo").body(buffer).asStringAsync().get().body());
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void heapByteBuffer_remainingBytesOnly() throws Exception {
+        client = RestClient.builder().build();
+        ByteBuffer buffer = ByteBuffer.wrap("--payload--".getBytes(StandardCharsets.UTF_8), 2, 7);
+
+        assertEquals("identity:payload", client.post(BASE_URL + "/compressed/echo").body(buffer).asString().body());
+        assertEquals("identity:payload", client.post(BASE_URL + "/compressed/echo").body(buffer).asStringAsync().get().body());
+    }
+
+    @Test
+    public void compressedStream_async() throws Exception {
+        client = RestClient.builder().compression(CompressionPolicy.builder().build()).build();
+
+        assertEquals("gzip:" + CONTENT, client.post(BASE_URL + "/compressed/echo").body(stream()).asStringAsync().get().body());
+    }
+
+    @Test
+    public void failingStream_failsRequest() {
+        client = RestClient.builder().build();
+        InputStream failing = new InputStream() {
+            private int read;
+
+            @Override
+            public int read() throws IOException {
+                if (read++ > 100_000) {
+                    throw new IOException("Broken stream");
+                }
+                return 'a';
+            }
+        };
+        try {
+            client.post(BASE_URL + "/compressed/echo").body(failing).asStringAsync().get();
+            fail("Expected the request to fail");
+        } catch (Exception expected) {
+        }
+    }
+
+    private static InputStream stream() {
+        return new ByteArrayInputStream(CONTENT.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
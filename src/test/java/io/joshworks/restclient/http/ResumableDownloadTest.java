@@ -0,0 +1,159 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.helper.TestServer;
+import io.joshworks.restclient.http.exceptions.RestClientException;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ResumableDownloadTest {
+
+    private static final String BASE_URL = "http://localhost:9000";
+    private static final int SIZE = 1024 * 1024;
+
+    private RestClient client;
+    private Path dir;
+    private Path target;
+    private Path part;
+
+    @BeforeClass
+    public static void startServer() {
+        TestServer.start();
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        TestServer.stop();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        client = RestClient.builder().build();
+        dir = Files.createTempDirectory("downloads");
+        target = dir.resolve("file.txt");
+        part = dir.resolve("file.txt.part");
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        client.close();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    public void failedDownload_isResumed() throws Exception {
+        String url = BASE_URL + "/resumable/resume-sync/" + SIZE;
+        try {
+            client.get(url).asResumableFile(target);
+            fail("Expected the first download to fail");
+        } catch (RestClientException expected) {
+        }
+        long received = Files.size(part);
+        assertTrue("Received: " + received, received > 0 && received < SIZE);
+
+        HttpFileResponse response = client.get(url).asResumableFile(target);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(SIZE - received, response.bytesWritten());
+        assertEquals(TestServer.encodedContent(SIZE), read(target));
+        assertEquals(1, TestServer.rangeRequests("resume-sync"));
+        assertOnlyTarget();
+    }
+
+    @Test
+    public void failedDownload_isResumed_async() throws Exception {
+        String url = BASE_URL + "/resumable/resume-async/" + SIZE;
+        try {
+            client.get(url).asResumableFileAsync(target).get();
+            fail("Expected the first download to fail");
+        } catch (ExecutionException expected) {
+        }
+        long received = Files.size(part);
+        assertTrue("Received: " + received, received > 0 && received < SIZE);
+
+        HttpFileResponse response = client.get(url).asResumableFileAsync(target).get();
+
+        assertEquals(206, response.getStatus());
+        assertEquals(SIZE - received, response.bytesWritten());
+        assertEquals(TestServer.encodedContent(SIZE), read(target));
+        assertEquals(1, TestServer.rangeRequests("resume-async"));
+        assertOnlyTarget();
+    }
+
+    @Test
+    public void changedBody_startsOver() throws Exception {
+        String url = BASE_URL + "/resumable/changed/" + SIZE;
+        try {
+            client.get(url).asResumableFileAsync(target).get();
+            fail("Expected the first download to fail");
+        } catch (ExecutionException expected) {
+        }
+
+        HttpFileResponse response = client.get(url).asResumableFileAsync(target).get();
+
+        assertEquals(200, response.getStatus());
+        assertEquals(SIZE, response.bytesWritten());
+        assertEquals(TestServer.encodedContent(SIZE), read(target));
+        assertEquals(1, TestServer.rangeRequests("changed"));
+        assertOnlyTarget();
+    }
+
+    @Test
+    public void otherUrl_isNotResumed() throws Exception {
+        try {
+            client.get(BASE_URL + "/resumable/first-url/" + SIZE).asResumableFile(target);
+            fail("Expected the first download to fail");
+        } catch (RestClientException expected) {
+        }
+
+        HttpFileResponse response = client.get(BASE_URL + "/encoded/identity/" + SIZE).asResumableFile(target);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(SIZE, response.bytesWritten());
+        assertEquals(TestServer.encodedContent(SIZE), read(target));
+        assertOnlyTarget();
+    }
+
+    @Test
+    public void errorResponse_keepsPartialFile() throws Exception {
+        Files.write(part, "partial".getBytes(StandardCharsets.UTF_8));
+
+        HttpFileResponse response = client.get(BASE_URL + "/download/missing").asResumableFileAsync(target).get();
+
+        assertEquals(404, response.getStatus());
+        assertEquals("missing", response.asString());
+        assertFalse(Files.exists(target));
+        assertEquals("partial", read(part));
+    }
+
+    private void assertOnlyTarget() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+        assertTrue(Files.exists(target));
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,178 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.helper.TestServer;
+import io.joshworks.restclient.http.async.Callback;
+import io.joshworks.restclient.http.exceptions.RestClientException;
+import io.joshworks.restclient.http.retry.RetryBudget;
+import io.joshworks.restclient.http.retry.RetryPolicy;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RetryTest {
+
+    private static final String BASE_URL = "http://localhost:9000";
+
+    private RestClient client;
+
+    @BeforeClass
+    public static void startServer() {
+        TestServer.start();
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        TestServer.stop();
+    }
+
+    @After
+    public void closeClient() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Test
+    public void sync_retriesUntilSuccess() {
+        client = newClient(RetryPolicy.builder().backoff(1, 10).build());
+
+        HttpResponse<String> response = client.get(flakyUrl(2)).asString();
+
+        assertEquals(200, response.getStatus());
+        assertEquals("3", response.body());
+        assertEquals(2, client.stats().retries);
+    }
+
+    @Test
+    public void sync_givesUpAfterMaxAttempts() {
+        client = newClient(RetryPolicy.builder().maxAttempts(3).backoff(1, 10).build());
+
+        HttpResponse<String> response = client.get(flakyUrl(5)).asString();
+
+        assertEquals(503, response.getStatus());
+        assertEquals(2, client.stats().retries);
+    }
+
+    @Test
+    public void async_retriesUntilSuccess() throws Exception {
+        client = newClient(RetryPolicy.builder().backoff(1, 10).build());
+
+        HttpResponse<String> response = client.get(flakyUrl(2)).asStringAsync().get();
+
+        assertEquals(200, response.getStatus());
+        assertEquals("3", response.body());
+        assertEquals(2, client.stats().retries);
+    }
+
+    @Test
+    public void callback_retriesUntilSuccess() throws Exception {
+        client = newClient(RetryPolicy.builder().backoff(1, 10).build());
+
+        CompletableFuture<HttpResponse<String>> result = new CompletableFuture<>();
+        client.get(flakyUrl(1)).asStringAsync(new Callback<String>() {
+            @Override
+            public void completed(HttpResponse<String> response) {
+                result.complete(response);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+        });
+
+        assertEquals("2", result.get().body());
+        assertEquals(1, client.stats().retries);
+    }
+
+    @Test
+    public void nonIdempotentMethod_isNotRetried() {
+        client = newClient(RetryPolicy.builder().backoff(1, 10).build());
+
+        HttpResponse<String> response = client.post(flakyUrl(1)).body("data").asString();
+
+        assertEquals(503, response.getStatus());
+        assertEquals(0, client.stats().retries);
+    }
+
+    @Test
+    public void nonRepeatableBody_isNotRetried() {
+        client = newClient(RetryPolicy.builder().backoff(1, 10).build());
+
+        HttpResponse<String> response = client.put(flakyUrl(1))
+                .part("file", new ByteArrayInputStream(new byte[]{1, 2, 3}), "file.bin")
+                .asString();
+
+        assertEquals(503, response.getStatus());
+        assertEquals(0, client.stats().retries);
+    }
+
+    @Test
+    public void connectionFailure_isRetriedForAnyMethod() {
+        client = newClient(RetryPolicy.builder().backoff(1, 10).build());
+
+        try {
+            client.post("http://localhost:9999/unavailable").body("data").asString();
+            fail("Expected connection failure");
+        } catch (RestClientException e) {
+            assertEquals(2, client.stats().retries);
+        }
+    }
+
+    @Test
+    public void exhaustedBudget_rejectsRetries() {
+        client = newClient(RetryPolicy.builder().backoff(1, 10).budget(0, 0).build());
+
+        HttpResponse<String> response = client.get(flakyUrl(1)).asString();
+
+        assertEquals(503, response.getStatus());
+        assertEquals(0, client.stats().retries);
+        assertEquals(1, client.stats().retriesRejected);
+    }
+
+    @Test
+    public void budget_isReplenishedByRequests() {
+        RetryBudget budget = new RetryBudget(0.5, 0);
+        assertFalse(budget.tryWithdraw());
+        budget.deposit();
+        assertFalse(budget.tryWithdraw());
+        budget.deposit();
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+    }
+
+    @Test
+    public void delays_areWithinBounds() {
+        RetryPolicy policy = RetryPolicy.builder().backoff(10, 100).build();
+        long delay = 0;
+        for (int i = 0; i < 1000; i++) {
+            delay = policy.nextDelay(delay);
+            assertTrue("Delay below base: " + delay, delay >= 10);
+            assertTrue("Delay above max: " + delay, delay <= 100);
+        }
+    }
+
+    private static RestClient newClient(RetryPolicy policy) {
+        return RestClient.builder().retryPolicy(policy).build();
+    }
+
+    private static String flakyUrl(int failures) {
+        return BASE_URL + "/flaky/" + UUID.randomUUID() + "/" + failures;
+    }
+
+}
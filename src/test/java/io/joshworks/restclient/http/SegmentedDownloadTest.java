@@ -0,0 +1,130 @@
+package io.joshworks.restclient.http;
+
+import io.joshworks.restclient.helper.TestServer;
+import io.joshworks.restclient.http.download.SegmentPolicy;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class SegmentedDownloadTest {
+
+    private static final String BASE_URL = "http://localhost:9000";
+    private static final int SIZE = 1024 * 1024;
+    private static final SegmentPolicy POLICY = SegmentPolicy.builder().segments(4).minSegmentSize(64 * 1024).build();
+
+    private RestClient client;
+    private Path dir;
+    private Path target;
+
+    @BeforeClass
+    public static void startServer() {
+        TestServer.start();
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        TestServer.stop();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        client = RestClient.builder().build();
+        dir = Files.createTempDirectory("downloads");
+        target = dir.resolve("file.txt");
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        client.close();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    public void body_isDownloadedInSegments() throws Exception {
+        HttpFileResponse response = client.get(BASE_URL + "/ranged/segments/" + SIZE).asFileAsync(target, POLICY).get();
+
+        assertEquals(200, response.getStatus());
+        assertEquals(target, response.body());
+        assertEquals(SIZE, response.bytesWritten());
+        assertEquals(TestServer.encodedContent(SIZE), read(target));
+        assertEquals(4, TestServer.rangeRequests("segments"));
+        assertNoPartFiles();
+    }
+
+    @Test
+    public void failedSegments_areRetried() throws Exception {
+        HttpFileResponse response = client.get(BASE_URL + "/ranged/flaky-retried/" + SIZE).asFileAsync(target, POLICY).get();
+
+        assertEquals(TestServer.encodedContent(SIZE), read(target));
+        assertEquals(SIZE, response.bytesWritten());
+        assertEquals(8, TestServer.rangeRequests("flaky-retried"));
+    }
+
+    @Test
+    public void retriesExhausted_failsDownload() throws Exception {
+        SegmentPolicy policy = SegmentPolicy.builder().segments(4).minSegmentSize(64 * 1024).retries(0).build();
+        try {
+            client.get(BASE_URL + "/ranged/flaky-exhausted/" + SIZE).asFileAsync(target, policy).get();
+            fail("Expected download to fail");
+        } catch (ExecutionException expected) {
+        }
+        Thread.sleep(200);
+        assertFalse(Files.exists(target));
+        assertNoPartFiles();
+    }
+
+    @Test
+    public void rangesNotSupported_singleStream() throws Exception {
+        HttpFileResponse response = client.get(BASE_URL + "/ranged/norange/" + SIZE).asFileAsync(target, POLICY).get();
+
+        assertEquals(SIZE, response.bytesWritten());
+        assertEquals(TestServer.encodedContent(SIZE), read(target));
+        assertEquals(0, TestServer.rangeRequests("norange"));
+    }
+
+    @Test
+    public void smallBody_singleStream() throws Exception {
+        client.get(BASE_URL + "/ranged/small/" + 100 * 1024).asFileAsync(target, POLICY).get();
+
+        assertEquals(TestServer.encodedContent(100 * 1024), read(target));
+        assertEquals(0, TestServer.rangeRequests("small"));
+    }
+
+    @Test
+    public void headNotSupported_singleStream() throws Exception {
+        HttpFileResponse response = client.get(BASE_URL + "/download/missing").asFileAsync(target, POLICY).get();
+
+        assertEquals(404, response.getStatus());
+        assertEquals("missing", response.asString());
+        assertFalse(Files.exists(target));
+    }
+
+    private void assertNoPartFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            assertFalse(files.anyMatch(file -> file.getFileName().toString().endsWith(".part")));
+        }
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,125 @@
+package io.joshworks.restclient.load;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe, fixed size, log-linear histogram of latencies in microseconds.
+ * Values are kept with a relative error below 1%, which is good enough for percentile reporting
+ * without pulling HdrHistogram into the test classpath.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    private static final int SIZE = LINEAR_LIMIT + (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(SIZE);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+
+    public void record(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(indexOf(value));
+        total.incrementAndGet();
+        sum.addAndGet(value);
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            //retry
+        }
+    }
+
+    /**
+     * Records the value and back-fills the samples that would have been taken if the load generator
+     * had not been stalled by this slow response (coordinated omission correction).
+     *
+     * @param micros                 The measured latency
+     * @param expectedIntervalMicros The expected interval between two requests of the same sender, zero disables the correction
+     */
+    public void record(long micros, long expectedIntervalMicros) {
+        record(micros);
+        if (expectedIntervalMicros <= 0) {
+            return;
+        }
+        for (long missing = micros - expectedIntervalMicros; missing >= expectedIntervalMicros; missing -= expectedIntervalMicros) {
+            record(missing);
+        }
+    }
+
+    public long count() {
+        return total.get();
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public double mean() {
+        long count = total.get();
+        return count == 0 ? 0 : (double) sum.get() / count;
+    }
+
+    public long percentile(double percentile) {
+        long count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil((percentile / 100.0) * count));
+        long seen = 0;
+        for (int i = 0; i < SIZE; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(valueOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public String summary(String name) {
+        return String.format("%-12s count=%-9d mean=%-9s p50=%-9s p90=%-9s p99=%-9s p99.9=%-9s p99.99=%-9s max=%s",
+                name,
+                count(),
+                format((long) mean()),
+                format(percentile(50)),
+                format(percentile(90)),
+                format(percentile(99)),
+                format(percentile(99.9)),
+                format(percentile(99.99)),
+                format(max()));
+    }
+
+    private static String format(long micros) {
+        if (micros < 1000) {
+            return micros + "us";
+        }
+        if (micros < TimeUnit.SECONDS.toMicros(1)) {
+            return String.format("%.2fms", micros / 1000.0);
+        }
+        return String.format("%.2fs", micros / 1_000_000.0);
+    }
+
+    private static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    //upper bound of the bucket, so percentiles are never under reported
+    private static long valueOf(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int offset = index - LINEAR_LIMIT;
+        int shift = offset / SUB_BUCKETS + 1;
+        long subBucket = offset % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+}
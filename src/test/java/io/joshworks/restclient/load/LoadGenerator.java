@@ -0,0 +1,375 @@
+package io.joshworks.restclient.load;
+
+import io.joshworks.restclient.http.ClientContainer;
+import io.joshworks.restclient.http.HttpResponse;
+import io.joshworks.restclient.http.RestClient;
+import io.joshworks.restclient.http.async.Callback;
+import io.joshworks.restclient.http.utils.ClientStats;
+import io.joshworks.restclient.request.HttpRequest;
+import io.joshworks.snappy.SnappyServer;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static io.joshworks.snappy.SnappyServer.get;
+import static io.joshworks.snappy.SnappyServer.post;
+import static io.joshworks.snappy.parser.MediaTypes.produces;
+
+/**
+ * Load generator used for capacity planning, it runs entirely against a local embedded server.
+ * <p>
+ * Open loop mode sends requests at a fixed arrival rate and measures latency from the time each request
+ * was supposed to be sent, closed loop mode keeps a fixed number of requests in flight and corrects the
+ * recorded latencies for coordinated omission using the expected interval between requests.
+ * <p>
+ * Configuration is done via system properties:
+ * <pre>
+ * load.mode          open | closed (default: closed)
+ * load.api           sync | async | callback (default: sync)
+ * load.method        GET | POST (default: GET)
+ * load.concurrency   closed loop senders, also used as the connection pool size (default: 16)
+ * load.rate          open loop requests per second (default: 1000), closed loop target rate used by the
+ *                    correction, when not set the service time observed during warmup is used instead
+ * load.requestSize   POST body size in bytes (default: 1024)
+ * load.responseSize  response body size in bytes (default: 1024)
+ * load.warmup        warmup in seconds (default: 5)
+ * load.duration      measurement in seconds (default: 30)
+ * </pre>
+ * Example: <code>mvn -P load-test test-compile exec:java -Dload.mode=open -Dload.api=async -Dload.rate=5000</code>
+ */
+public class LoadGenerator {
+
+    private static final String URL = "http://localhost:9000/load";
+    private static final Map<Integer, String> payloads = new ConcurrentHashMap<>();
+
+    private final Mode mode;
+    private final Api api;
+    private final String method;
+    private final int concurrency;
+    private final int rate;
+    private final int requestSize;
+    private final int responseSize;
+    private final int warmup;
+    private final int duration;
+
+    private volatile LatencyHistogram corrected = new LatencyHistogram();
+    private volatile LatencyHistogram uncorrected = new LatencyHistogram();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final StatsSampler sampler = new StatsSampler();
+
+    private volatile boolean running;
+    private volatile long expectedIntervalMicros;
+    private RestClient client;
+    private String body;
+
+    enum Mode {
+        OPEN, CLOSED
+    }
+
+    enum Api {
+        SYNC, ASYNC, CALLBACK
+    }
+
+    private LoadGenerator() {
+        this.mode = Mode.valueOf(System.getProperty("load.mode", "closed").toUpperCase());
+        this.api = Api.valueOf(System.getProperty("load.api", "sync").toUpperCase());
+        this.method = System.getProperty("load.method", "GET").toUpperCase();
+        this.concurrency = Integer.getInteger("load.concurrency", 16);
+        this.rate = Integer.getInteger("load.rate", mode == Mode.OPEN ? 1000 : 0);
+        this.requestSize = Integer.getInteger("load.requestSize", 1024);
+        this.responseSize = Integer.getInteger("load.responseSize", 1024);
+        this.warmup = Integer.getInteger("load.warmup", 5);
+        this.duration = Integer.getInteger("load.duration", 30);
+    }
+
+    public static void main(String[] args) throws Exception {
+        startServer();
+        try {
+            new LoadGenerator().run();
+        } finally {
+            ClientContainer.shutdown();
+            SnappyServer.stop();
+        }
+    }
+
+    private static void startServer() {
+        get("/load", exchange -> exchange.send(payload(exchange.queryParameters().get("size").getFirst()), "txt"), produces("txt"));
+        post("/load", exchange -> {
+            //consumes the whole body before replying
+            exchange.body().asString();
+            exchange.send(payload(exchange.queryParameters().get("size").getFirst()), "txt");
+        }, produces("txt"));
+        SnappyServer.start();
+    }
+
+    private static String payload(String size) {
+        return payloads.computeIfAbsent(Integer.parseInt(size), LoadGenerator::newPayload);
+    }
+
+    private static String newPayload(int size) {
+        char[] chars = new char[size];
+        Arrays.fill(chars, 'a');
+        return new String(chars);
+    }
+
+    private void run() throws Exception {
+        System.out.println(String.format("Load test: mode=%s, api=%s, method=%s, concurrency=%d, rate=%d/s, requestSize=%d, responseSize=%d, warmup=%ds, duration=%ds",
+                mode, api, method, concurrency, rate, requestSize, responseSize, warmup, duration));
+
+        body = newPayload(requestSize);
+        client = RestClient.builder()
+                .concurrency(Math.max(concurrency, 20))
+                .routeConcurrency(concurrency)
+                .timeout(10000, 30000)
+                .build();
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        try {
+            running = true;
+            Thread[] senders = start();
+
+            System.out.println("Warming up...");
+            TimeUnit.SECONDS.sleep(warmup);
+            if (mode == Mode.CLOSED) {
+                //per sender expected interval, either from the target rate or from the observed service time
+                expectedIntervalMicros = rate > 0 ? TimeUnit.SECONDS.toMicros(concurrency) / rate : (long) uncorrected.mean();
+            }
+            //swapped rather than cleared, so in flight recordings never see a half reset histogram
+            corrected = new LatencyHistogram();
+            uncorrected = new LatencyHistogram();
+            errors.set(0);
+            completed.set(0);
+            sampler.reset();
+
+            long start = System.nanoTime();
+            reporter.scheduleAtFixedRate(() -> sampler.sample(client.stats(), start), 1, 1, TimeUnit.SECONDS);
+            TimeUnit.SECONDS.sleep(duration);
+            long elapsed = System.nanoTime() - start;
+            long done = completed.get();
+
+            running = false;
+            for (Thread sender : senders) {
+                sender.join(TimeUnit.SECONDS.toMillis(30));
+            }
+            awaitInFlight();
+
+            report(done, elapsed);
+        } finally {
+            reporter.shutdownNow();
+            client.close();
+        }
+    }
+
+    private Thread[] start() {
+        if (mode == Mode.OPEN) {
+            Thread pacer = new Thread(this::openLoop, "load-pacer");
+            pacer.start();
+            return new Thread[]{pacer};
+        }
+        if (api == Api.SYNC) {
+            Thread[] senders = new Thread[concurrency];
+            for (int i = 0; i < concurrency; i++) {
+                senders[i] = new Thread(this::closedLoopSync, "load-sender-" + i);
+                senders[i].start();
+            }
+            return senders;
+        }
+        for (int i = 0; i < concurrency; i++) {
+            sendAsync(System.nanoTime(), true);
+        }
+        return new Thread[0];
+    }
+
+    private void openLoop() {
+        ExecutorService workers = api == Api.SYNC ? Executors.newFixedThreadPool(concurrency) : null;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        try {
+            for (long i = 0; running; i++) {
+                long intended = start + i * intervalNanos;
+                long wait;
+                while ((wait = intended - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (workers != null) {
+                    inFlight.incrementAndGet();
+                    workers.execute(() -> sendSync(intended));
+                } else {
+                    sendAsync(intended, false);
+                }
+            }
+        } finally {
+            if (workers != null) {
+                workers.shutdown();
+            }
+        }
+    }
+
+    private void closedLoopSync() {
+        while (running) {
+            inFlight.incrementAndGet();
+            sendSync(System.nanoTime());
+        }
+    }
+
+    private void sendSync(long intended) {
+        long sent = System.nanoTime();
+        try (HttpResponse<String> response = newRequest().asString()) {
+            completed(response, intended, sent);
+        } catch (Exception e) {
+            failed(e);
+        }
+    }
+
+    private void sendAsync(long intended, boolean closedLoop) {
+        inFlight.incrementAndGet();
+        long sent = System.nanoTime();
+        if (api == Api.CALLBACK) {
+            newRequest().asStringAsync(new Callback<String>() {
+                @Override
+                public void completed(HttpResponse<String> response) {
+                    LoadGenerator.this.completed(response, intended, sent);
+                    next(closedLoop);
+                }
+
+                @Override
+                public void failed(Exception e) {
+                    LoadGenerator.this.failed(e);
+                    next(closedLoop);
+                }
+
+                @Override
+                public void cancelled() {
+                    LoadGenerator.this.failed(null);
+                    next(closedLoop);
+                }
+            });
+            return;
+        }
+        newRequest().asStringAsync().whenComplete((response, error) -> {
+            if (error != null) {
+                failed(error);
+            } else {
+                completed(response, intended, sent);
+            }
+            next(closedLoop);
+        });
+    }
+
+    private void next(boolean closedLoop) {
+        if (closedLoop && running) {
+            sendAsync(System.nanoTime(), true);
+        }
+    }
+
+    private HttpRequest newRequest() {
+        if ("POST".equals(method)) {
+            return client.post(URL)
+                    .queryString("size", responseSize)
+                    .contentType("txt")
+                    .body(body)
+                    .getHttpRequest();
+        }
+        return client.get(URL).queryString("size", responseSize);
+    }
+
+    private void completed(HttpResponse<String> response, long intended, long sent) {
+        long now = System.nanoTime();
+        inFlight.decrementAndGet();
+        if (!response.isSuccessful() || response.body() == null || response.body().length() != responseSize) {
+            errors.incrementAndGet();
+            return;
+        }
+        long serviceTime = TimeUnit.NANOSECONDS.toMicros(now - sent);
+        uncorrected.record(serviceTime);
+        if (mode == Mode.OPEN) {
+            corrected.record(TimeUnit.NANOSECONDS.toMicros(now - intended));
+        } else {
+            corrected.record(serviceTime, expectedIntervalMicros);
+        }
+        completed.incrementAndGet();
+    }
+
+    private void failed(Throwable error) {
+        inFlight.decrementAndGet();
+        long count = errors.incrementAndGet();
+        if (error != null && count == 1) {
+            System.err.println("First request failure: " + error);
+        }
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            while (inFlight.get() > 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+            }
+            latch.countDown();
+        });
+        waiter.setDaemon(true);
+        waiter.start();
+        if (!latch.await(30, TimeUnit.SECONDS)) {
+            System.err.println("Gave up waiting for " + inFlight.get() + " in flight requests");
+        }
+    }
+
+    private void report(long done, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.println();
+        System.out.println("================================ RESULTS ================================");
+        System.out.println(String.format("Requests: %d, errors: %d, throughput: %.1f req/s", done, errors.get(), done / seconds));
+        if (mode == Mode.CLOSED) {
+            System.out.println("Expected interval per sender: " + expectedIntervalMicros + "us");
+        }
+        System.out.println(corrected.summary("corrected"));
+        System.out.println(uncorrected.summary("uncorrected"));
+        System.out.println(sampler);
+        System.out.println("Final: " + client.stats());
+    }
+
+    private static class StatsSampler {
+
+        private volatile int maxSyncLeased;
+        private volatile int maxSyncPending;
+        private volatile int maxAsyncLeased;
+        private volatile int maxAsyncPending;
+
+        private void sample(ClientStats stats, long start) {
+            maxSyncLeased = Math.max(maxSyncLeased, stats.sync.getLeased());
+            maxSyncPending = Math.max(maxSyncPending, stats.sync.getPending());
+            maxAsyncLeased = Math.max(maxAsyncLeased, stats.async.getLeased());
+            maxAsyncPending = Math.max(maxAsyncPending, stats.async.getPending());
+            long elapsed = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start);
+            System.out.println(String.format("[%3ds] sync(leased=%d, pending=%d, available=%d) async(leased=%d, pending=%d, available=%d) reactor=%s",
+                    elapsed,
+                    stats.sync.getLeased(), stats.sync.getPending(), stats.sync.getAvailable(),
+                    stats.async.getLeased(), stats.async.getPending(), stats.async.getAvailable(),
+                    stats.reactor));
+        }
+
+        private void reset() {
+            maxSyncLeased = 0;
+            maxSyncPending = 0;
+            maxAsyncLeased = 0;
+            maxAsyncPending = 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Pool peaks: sync(leased=%d, pending=%d) async(leased=%d, pending=%d)",
+                    maxSyncLeased, maxSyncPending, maxAsyncLeased, maxAsyncPending);
+        }
+    }
+
+}